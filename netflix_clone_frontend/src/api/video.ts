@@ -44,6 +44,10 @@ export const videoApi = {
   // Generates the streaming URL for a video given its UUID
   stream: (uuid: string) => `http://localhost:8080/api/files/video/${uuid}`,
 
+  // Fetches a signed, expiring streaming URL for a video (required by the file endpoint)
+  getStreamUrl: (videoId: number) =>
+    axios.get<{ url: string; expiresAt: string }>(`/videos/${videoId}/stream-url`),
+
   // Generates the poster image URL for a video given its UUID
   getPoster: (uuid: string) => `http://localhost:8080/api/files/image/${uuid}`,
 
@@ -1,4 +1,4 @@
-import { useState, useEffect } from 'react'
+import { useState, useEffect, useRef } from 'react'
 import { useParams, useNavigate } from 'react-router-dom'
 import { videoApi, type Video } from '../api/video'
 import { userApi } from '../api/user'
@@ -16,6 +16,13 @@ export default function VideoPlayer() {
   // State for storing the video details
   const [video, setVideo] = useState<Video | null>(null)
   
+  // State for the signed streaming URL
+  const [signedStreamUrl, setSignedStreamUrl] = useState<string>('')
+
+  // Signed URLs expire after a few minutes; the position to resume at after fetching a fresh one
+  const resumeAt = useRef<number | null>(null)
+  const lastUrlFetch = useRef<number>(0)
+
   // State for total view count
   const [viewCount, setViewCount] = useState<number>(0)
   
@@ -55,6 +62,9 @@ export default function VideoPlayer() {
       const videosResponse = await videoApi.getAll()
       const foundVideo = videosResponse.data.find((v) => v.id === Number(id))
       setVideo(foundVideo || null)
+      if (foundVideo) {
+        await fetchStreamUrl() // Resolve the signed URL before the player renders
+      }
     } catch (error) {
       console.error('Error fetching video:', error)
     } finally {
@@ -62,6 +72,17 @@ export default function VideoPlayer() {
     }
   }
 
+  // Fetches the signed URL the player streams from
+  const fetchStreamUrl = async () => {
+    lastUrlFetch.current = Date.now()
+    try {
+      const response = await videoApi.getStreamUrl(Number(id))
+      setSignedStreamUrl(response.data.url)
+    } catch (error) {
+      console.error('Error fetching stream URL:', error)
+    }
+  }
+
   // Fetches total view count for the video
   const fetchViewCount = async () => {
     try {
@@ -145,7 +166,7 @@ export default function VideoPlayer() {
   }
 
   // Determine stream and poster URLs
-  const streamUrl = video.src || (video.srcUuid ? videoApi.stream(video.srcUuid) : '')
+  const streamUrl = signedStreamUrl || video.src || (video.srcUuid ? videoApi.stream(video.srcUuid) : '')
   const posterUrl = video.poster || (video.posterUuid ? videoApi.getPoster(video.posterUuid) : '')
 
   return (
@@ -181,8 +202,20 @@ export default function VideoPlayer() {
             autoPlay
             className="w-full h-full"
             onError={(e) => {
+              // Most likely the signed URL expired; fetch a new one, at most every 10 seconds
+              if (signedStreamUrl && Date.now() - lastUrlFetch.current > 10_000) {
+                resumeAt.current = e.currentTarget.currentTime
+                fetchStreamUrl()
+                return
+              }
               console.error('Video error:', e)
             }}
+            onLoadedMetadata={(e) => {
+              if (resumeAt.current !== null) {
+                e.currentTarget.currentTime = resumeAt.current
+                resumeAt.current = null
+              }
+            }}
           />
         </div>
 
@@ -15,6 +15,14 @@ public class PageResponse<T> {
     private int totalPages;
     private int number;
     private int size;
+    // Keyset pagination: opaque cursor of the next page, null on the last page
+    private String nextCursor;
+    private boolean hasNext;
 
-
+    /**
+     * A keyset page; totals are not computed, as that would mean counting the whole catalog
+     */
+    public static <T> PageResponse<T> keyset(List<T> content, int size, String nextCursor) {
+        return new PageResponse<>(content, null, 0, 0, size, nextCursor, nextCursor != null);
+    }
 }
@@ -0,0 +1,17 @@
+package com.arpon007.netflixclone.DTO.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PlaybackPositionResponse {
+
+    private VideoResponse video;
+    private Integer positionSeconds;
+    private Instant updatedAt;
+}
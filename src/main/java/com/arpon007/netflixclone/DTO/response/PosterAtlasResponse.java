@@ -0,0 +1,32 @@
+package com.arpon007.netflixclone.DTO.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Coordinate map of a poster sprite atlas. Each tile gives the pixel rectangle of one
+ * video's poster inside the image at {@code image}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class PosterAtlasResponse {
+    private String version;
+    private String image;
+    private int width;
+    private int height;
+    private Map<Long, Tile> tiles;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Tile {
+        private int x;
+        private int y;
+        private int width;
+        private int height;
+    }
+}
@@ -0,0 +1,26 @@
+package com.arpon007.netflixclone.DTO.response;
+
+import com.arpon007.netflixclone.entity.ProcessingJob;
+import com.arpon007.netflixclone.enums.ProcessingStage;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingJobResponse {
+    private String jobId;
+    private Long videoId;
+    private ProcessingStage stage;
+    private String error;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    public static ProcessingJobResponse from(ProcessingJob job) {
+        return new ProcessingJobResponse(job.getId(), job.getVideoId(), job.getStage(), job.getError(),
+                job.getCreatedAt(), job.getUpdatedAt());
+    }
+}
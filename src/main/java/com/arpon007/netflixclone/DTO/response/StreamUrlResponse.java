@@ -0,0 +1,15 @@
+package com.arpon007.netflixclone.DTO.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class StreamUrlResponse {
+    private String url;
+    private Instant expiresAt;
+}
@@ -0,0 +1,13 @@
+package com.arpon007.netflixclone.DTO.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestionResponse {
+    private Long id;
+    private String title;
+}
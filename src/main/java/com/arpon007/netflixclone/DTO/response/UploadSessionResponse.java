@@ -0,0 +1,19 @@
+package com.arpon007.netflixclone.DTO.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionResponse {
+    private String uploadId;
+    private String fileName;
+    private long size;
+    private long receivedBytes;
+    private List<String> receivedRanges;
+    private boolean complete;
+}
@@ -2,12 +2,16 @@ package com.arpon007.netflixclone.DTO.response;
 
 
 import com.arpon007.netflixclone.entity.Video;
+import com.arpon007.netflixclone.enums.VideoStatus;
+import com.arpon007.netflixclone.util.PosterVariants;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -21,11 +25,16 @@ public class VideoResponse {
     private Integer duration;
     private String src;
     private String poster;
+    private Map<Integer, String> posterVariants;
     private boolean published;
     private List<String> categories;
     private Instant createdAt;
     private Instant updatedAt;
     private Boolean isWatchList;
+    private VideoStatus status;
+    private Long bitrate;
+    private Integer width;
+    private Integer height;
 
     public VideoResponse(Long id, String title, String description, Integer year, String rating, Integer duration, String src, String poster, boolean published, List<String> categories, Instant createdAt, Instant updatedAt) {
         this.id = id;
@@ -40,7 +49,23 @@ public class VideoResponse {
         this.categories = categories;
     }
     public static VideoResponse from(Video video){
-        VideoResponse response = new VideoResponse(video.getVideo_id(), video.getTitle(), video.getDescription(), video.getYear(), video.getRating(), video.getDuration(), video.getSrc(), video.getPoster(), video.isPublished(), video.getCategories(), video.getCreatedAt(), video.getUpdatedAt());
+        return from(video, ServletUriComponentsBuilder.fromCurrentContextPath().toUriString());
+    }
+
+    /**
+     * Response with media URLs under the given base URL rather than the one of the current request
+     */
+    public static VideoResponse from(Video video, String baseUrl){
+        String src = video.getSrcUuid() != null && !video.getSrcUuid().isEmpty()
+                ? baseUrl + "/api/files/video/" + video.getSrcUuid() : null;
+        String poster = video.getPosterUuid() != null && !video.getPosterUuid().isEmpty()
+                ? baseUrl + "/api/files/image/" + video.getPosterUuid() : null;
+        VideoResponse response = new VideoResponse(video.getVideo_id(), video.getTitle(), video.getDescription(), video.getYear(), video.getRating(), video.getDuration(), src, poster, video.isPublished(), video.getCategories(), video.getCreatedAt(), video.getUpdatedAt());
+        response.setPosterVariants(PosterVariants.urls(poster));
+        response.setStatus(video.getStatus() != null ? video.getStatus() : VideoStatus.READY);
+        response.setBitrate(video.getBitrate());
+        response.setWidth(video.getWidth());
+        response.setHeight(video.getHeight());
         if(video.getIsInWatchList()!=null){
             response.setIsWatchList(video.getIsInWatchList());
         }
@@ -4,12 +4,26 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
+import java.util.Map;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class VideoStatsResponse {
 
+    // Null for the whole catalog
+    private Long videoId;
+    // All-time views; not limited to from and to
     private Long totalViews;
+    // Catalog only: number of published videos
     private Long publishedVideos;
+    // Video only: whether it is published
+    private Boolean published;
     private Long totalDuration;
+    private LocalDate from;
+    private LocalDate to;
+    // Estimated distinct viewers between from and to, and per day of that range
+    private Long uniqueViewers;
+    private Map<LocalDate, Long> dailyUniqueViewers;
 }
@@ -0,0 +1,22 @@
+package com.arpon007.netflixclone.DTO.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ViewIngestStatsResponse {
+    private long queued;
+    private long queueCapacity;
+    private long accepted;
+    private long duplicatesFiltered;
+    private long dropped;
+    private long written;
+    private long failed;
+    private long batches;
+    private double acceptedPerSecond;
+    private double writtenPerSecond;
+    private long filterSizeBytes;
+}
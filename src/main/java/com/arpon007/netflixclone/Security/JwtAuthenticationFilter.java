@@ -26,21 +26,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
         String jwt = extractJwtToken(request);
-        if (jwt != null && !jwt.isEmpty()) {
-            String username = jwtUtil.getUserNameFromToken(jwt);
-            if (shouldProcessAuthentication(username)) {
-                processAuthentication(request, jwt, username);
+        if (jwt != null && !jwt.isEmpty() && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // One verification per request, and none at all for a token seen recently
+            JwtUtil.VerifiedToken token = jwtUtil.verify(jwt);
+            if (token != null && token.username() != null) {
+                setAuthenticationContext(request, createUserDetails(token));
             }
         }
         filterChain.doFilter(request, response);
     }
 
-    private void processAuthentication(HttpServletRequest request, String jwt, String username) {
-        if (jwtUtil.validateToken(jwt)) {
-    UserDetails userDetails = createUserDetailsFromToken(jwt, username);
-
-           setAuthenticationContext( request,userDetails);
-        }
+    /**
+     * Public file endpoints: videos are authorised by signed stream URLs instead of a JWT per chunk
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/api/files/");
     }
 
     private void setAuthenticationContext(HttpServletRequest request, UserDetails userDetails) {
@@ -50,26 +51,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     }
 
 
-    private boolean shouldProcessAuthentication(String username) {
-        return username != null && SecurityContextHolder.getContext().getAuthentication() == null;
-    }
-
     private String extractJwtToken(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (bearerToken != null && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
-        } else if (request.getRequestURI().contains("/api/files/video/") || request.getRequestURI().contains("/api/files/image/") && request.getParameter("token") != null) {
-            return request.getParameter("token");
-
         }
         return null;
     }
 
-    private UserDetails createUserDetailsFromToken(String jwt, String username) {
-        String role = jwtUtil.getRoleFromToken(jwt);
+    private UserDetails createUserDetails(JwtUtil.VerifiedToken token) {
+        String role = token.role();
 
         return User.builder()
-                .username(username)
+                .username(token.username())
                 .password("")
                 .authorities(
                         Collections.singletonList(
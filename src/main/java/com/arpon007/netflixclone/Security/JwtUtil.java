@@ -1,48 +1,131 @@
 package com.arpon007.netflixclone.Security;
 
 
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
+/**
+ * Issues and verifies JWTs. Each token is verified at most once: the signing key and
+ * parser are built at startup, and verified claims are kept in a bounded LRU keyed by
+ * the SHA-256 of the token until the token expires, so repeat requests of a session
+ * skip signature checking and JSON parsing.
+ */
 @Component
-public class JwtUtil {
+public class JwtUtil implements CacheStatsSource {
 
     private static final long EXPIRATION_TIME = 864_000_000;
 
     @Value("${jwt.secret}")
     private String secret;
 
-    private SecretKey getSigninKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.claims-cache.max-entries:10000}")
+    private int maxCachedTokens;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    private final LinkedHashMap<String, VerifiedToken> verified = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * The claims the application uses from a token whose signature has been checked
+     */
+    public record VerifiedToken(String username, String role, Date expiration) {
+        public boolean isExpired() {
+            return expiration != null && expiration.before(new Date());
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
+    /**
+     * Verify a token once and return its claims, or null if it is malformed, forged or expired
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken cached;
+        synchronized (verified) {
+            cached = verified.get(digest);
+        }
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            synchronized (verified) {
+                verified.remove(digest);
+            }
+            misses.incrementAndGet();
+            return null;
+        }
+        misses.incrementAndGet();
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            // Includes ExpiredJwtException
+            return null;
+        }
+        VerifiedToken result = new VerifiedToken(claims.getSubject(), claims.get("role", String.class),
+                claims.getExpiration());
+        if (result.isExpired()) {
+            return null;
+        }
+        synchronized (verified) {
+            verified.put(digest, result);
+            if (verified.size() > maxCachedTokens) {
+                Map.Entry<String, VerifiedToken> eldest = verified.entrySet().iterator().next();
+                verified.remove(eldest.getKey());
+                evictions.incrementAndGet();
+            }
+        }
+        return result;
     }
 
     public String getUserNameFromToken(String token) {
-        return getClaimFromToken(token, Claims::getSubject);
+        return getClaimFromToken(token, VerifiedToken::username);
     }
     public String gerRoleFromToken(String token) {
-        return getClaimFromToken(token, claims -> claims.get("role", String.class));
+        return getClaimFromToken(token, VerifiedToken::role);
     }
     public Date getExpirationDateFromToken(String token) {
-        return getClaimFromToken(token, Claims::getExpiration);
+        return getClaimFromToken(token, VerifiedToken::expiration);
     }
 
-    private  <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimFromToken(token);
-        return claimsResolver.apply(claims);
+    private  <T> T getClaimFromToken(String token, Function<VerifiedToken, T> claimsResolver) {
+        VerifiedToken verifiedToken = verify(token);
+        return verifiedToken != null ? claimsResolver.apply(verifiedToken) : null;
     }
 
-    private Claims getAllClaimFromToken(String token) {
-        return Jwts.parser().verifyWith(getSigninKey()).build().parseSignedClaims(token).getPayload();
-    }
     public boolean isTokenExpired(String token) {
-        return getExpirationDateFromToken(token).before(new Date());
+        return verify(token) == null;
     }
 
     public String generateToken(String username, String role) {
@@ -51,21 +134,32 @@ public class JwtUtil {
                 .claim("role", role)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(getSigninKey()).compact();
+                .signWith(signingKey).compact();
     }
 
     public Boolean validateToken(String authToken) {
-        try {
-            getUserNameFromToken(authToken);
-            return !isTokenExpired(authToken); //if expired return false if not then true
-        } catch (Exception e) {
-            return false;
-        }
-
+        return verify(authToken) != null;
     }
 
 
     public String getRoleFromToken(String jwt) {
-        return getClaimFromToken(jwt, claims -> claims.get("role", String.class));
+        return getClaimFromToken(jwt, VerifiedToken::role);
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        synchronized (verified) {
+            return new CacheStatsResponse("jwt-claims", verified.size(), 0,
+                    hits.get(), misses.get(), evictions.get());
+        }
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
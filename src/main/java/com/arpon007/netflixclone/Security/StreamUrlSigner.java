@@ -0,0 +1,124 @@
+package com.arpon007.netflixclone.Security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Signs and verifies stream URL tokens of the form {@code <userId>.<expiresEpochSeconds>.<mac>},
+ * where mac is a truncated HMAC-SHA256 over user, expiry and file name, so a URL is bound
+ * to the user it was issued to and to one file. Expiries are short and rounded up to a
+ * small bucket, so a user re-fetching the URL within a bucket gets the same one and the
+ * browser cache keyed on it keeps hitting. Verification is one MAC computation and a
+ * constant-time compare, with no claim parsing, so it is cheap enough to run on every
+ * range request of a playback session.
+ */
+@Component
+public class StreamUrlSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 16;
+
+    private final SecretKeySpec key;
+    private final long ttlSeconds;
+    private final long bucketSeconds;
+
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    public StreamUrlSigner(@Value("${app.stream-url.secret:${jwt.secret}}") String secret,
+                           @Value("${app.stream-url.ttl-seconds:600}") long ttlSeconds,
+                           @Value("${app.stream-url.bucket-seconds:300}") long bucketSeconds) {
+        // Domain-separated from the JWT key even when the same secret is configured
+        this.key = new SecretKeySpec(hmac(secret.getBytes(StandardCharsets.UTF_8),
+                "stream-url".getBytes(StandardCharsets.UTF_8)), ALGORITHM);
+        this.ttlSeconds = ttlSeconds;
+        this.bucketSeconds = Math.max(1, bucketSeconds);
+    }
+
+    /**
+     * A signed, compact token for the user to stream the given file; identical for all calls within one bucket
+     */
+    public String sign(long userId, String fileName, Instant now) {
+        long expires = expiresAt(now);
+        return userId + "." + expires + "."
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(mac(userId, expires, fileName));
+    }
+
+    /**
+     * Expiry of tokens signed at the given time: at least ttl-seconds away, rounded up to the bucket
+     */
+    public Instant expiryOf(Instant now) {
+        return Instant.ofEpochSecond(expiresAt(now));
+    }
+
+    private long expiresAt(Instant now) {
+        long earliest = now.getEpochSecond() + ttlSeconds;
+        return Math.ceilDiv(earliest, bucketSeconds) * bucketSeconds;
+    }
+
+    /**
+     * Check a token against the requested file.
+     *
+     * @return the id of the user the token was issued to, or null for malformed, expired or forged tokens
+     */
+    public Long verify(String token, String fileName, Instant now) {
+        if (token == null) {
+            return null;
+        }
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first <= 0 || second <= first + 1 || second == token.length() - 1) {
+            return null;
+        }
+        long userId;
+        long expires;
+        byte[] presented;
+        try {
+            userId = Long.parseLong(token, 0, first, 10);
+            expires = Long.parseLong(token, first + 1, second, 10);
+            presented = Base64.getUrlDecoder().decode(token.substring(second + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (expires < now.getEpochSecond()) {
+            return null;
+        }
+        return MessageDigest.isEqual(mac(userId, expires, fileName), presented) ? userId : null;
+    }
+
+    private byte[] mac(long userId, long expires, String fileName) {
+        Mac mac = macs.get();
+        mac.update((userId + "\n" + expires + "\n" + fileName).getBytes(StandardCharsets.UTF_8));
+        byte[] full = mac.doFinal();
+        byte[] truncated = new byte[MAC_BYTES];
+        System.arraycopy(full, 0, truncated, 0, MAC_BYTES);
+        return truncated;
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+
+    private static byte[] hmac(byte[] secret, byte[] message) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret, ALGORITHM));
+            return mac.doFinal(message);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
@@ -1,14 +1,22 @@
 package com.arpon007.netflixclone.Service;
 
 import com.arpon007.netflixclone.DTO.request.UpdateAdminProfileRequest;
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
 import com.arpon007.netflixclone.DTO.response.MessageResponse;
 import com.arpon007.netflixclone.DTO.response.UserResponse;
+import com.arpon007.netflixclone.DTO.response.VideoStatsResponse;
+import com.arpon007.netflixclone.DTO.response.ViewIngestStatsResponse;
 import com.arpon007.netflixclone.entity.User;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface AdminService {
-    List<UserResponse> getAllUsers();
+    /**
+     * Write all non-admin users as a JSON array, streamed from the database in batches
+     */
+    void exportUsers(OutputStream out);
 
     UserResponse getUserById(Long userId);
 
@@ -19,4 +27,15 @@ public interface AdminService {
     MessageResponse updateUserRole(Long userId, String role);
 
     MessageResponse updateAdminProfile(String email, UpdateAdminProfileRequest request);
+
+    List<CacheStatsResponse> getCacheStats();
+
+    ViewIngestStatsResponse getViewIngestStats();
+
+    /**
+     * Views, size and distinct viewers of the whole catalog; the range defaults to the last 30 days
+     */
+    VideoStatsResponse getCatalogStats(LocalDate from, LocalDate to);
+
+    VideoStatsResponse getVideoStats(Long videoId, LocalDate from, LocalDate to);
 }
@@ -0,0 +1,10 @@
+package com.arpon007.netflixclone.Service;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+
+/**
+ * Implemented by in-memory caches that publish their counters on the admin API.
+ */
+public interface CacheStatsSource {
+    CacheStatsResponse getCacheStats();
+}
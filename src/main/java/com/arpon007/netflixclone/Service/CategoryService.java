@@ -1,8 +1,11 @@
 package com.arpon007.netflixclone.Service;
 
 import com.arpon007.netflixclone.DTO.response.CategoryResponse;
+import com.arpon007.netflixclone.DTO.response.PageResponse;
+import com.arpon007.netflixclone.DTO.response.VideoResponse;
 
 import java.util.List;
+import java.util.Map;
 
 public interface CategoryService {
     List<CategoryResponse> getAllCategories();
@@ -10,4 +13,11 @@ public interface CategoryService {
     List<CategoryResponse> getActiveCategories();
 
     CategoryResponse getCategoryById(Long id);
+
+    /**
+     * Videos in all of the first categories and any of the second, newest first
+     */
+    PageResponse<VideoResponse> browse(List<String> all, List<String> any, String cursor, Integer size);
+
+    Map<String, Integer> getFacetCounts(List<String> all, List<String> any);
 }
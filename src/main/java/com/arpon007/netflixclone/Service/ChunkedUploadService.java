@@ -0,0 +1,23 @@
+package com.arpon007.netflixclone.Service;
+
+import com.arpon007.netflixclone.DTO.request.CreateUploadRequest;
+import com.arpon007.netflixclone.DTO.request.VideoRequest;
+import com.arpon007.netflixclone.DTO.response.MessageResponse;
+import com.arpon007.netflixclone.DTO.response.ProcessingJobResponse;
+import com.arpon007.netflixclone.DTO.response.UploadSessionResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ChunkedUploadService {
+    UploadSessionResponse createSession(String email, CreateUploadRequest request) throws IOException;
+
+    UploadSessionResponse writeChunk(String email, String uploadId, long offset, long length, InputStream body) throws IOException;
+
+    UploadSessionResponse getSession(String email, String uploadId);
+
+    ProcessingJobResponse complete(String email, String uploadId, VideoRequest request, MultipartFile poster) throws IOException;
+
+    MessageResponse abort(String email, String uploadId) throws IOException;
+}
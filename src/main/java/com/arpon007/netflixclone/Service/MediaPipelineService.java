@@ -0,0 +1,16 @@
+package com.arpon007.netflixclone.Service;
+
+import com.arpon007.netflixclone.DTO.response.ProcessingJobResponse;
+import com.arpon007.netflixclone.ServiceImpl.FileStorageService;
+
+public interface MediaPipelineService {
+    /**
+     * Queue post-processing of a received video file. The sha256 of the file may be null,
+     * in which case it is computed by the first stage.
+     */
+    ProcessingJobResponse submit(Long videoId, FileStorageService.StoredFile received, String originalFileName);
+
+    ProcessingJobResponse getJob(String jobId);
+
+    int resumeUnfinished();
+}
@@ -2,10 +2,13 @@ package com.arpon007.netflixclone.Service;
 
 import com.arpon007.netflixclone.DTO.request.UpdateProfileRequest;
 import com.arpon007.netflixclone.DTO.response.MessageResponse;
+import com.arpon007.netflixclone.DTO.response.PageResponse;
+import com.arpon007.netflixclone.DTO.response.PlaybackPositionResponse;
 import com.arpon007.netflixclone.DTO.response.UserResponse;
 import com.arpon007.netflixclone.DTO.response.VideoResponse;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 public interface UserService {
@@ -20,12 +23,25 @@ public interface UserService {
 
     List<VideoResponse> getWatchlist(String email);
 
+    PageResponse<VideoResponse> getWatchlist(String email, String cursor, Integer size);
+
     MessageResponse recordVideoView(String email, Long videoId);
 
     MessageResponse uploadAvatar(String email, org.springframework.web.multipart.MultipartFile file)
             throws java.io.IOException;
 
-    Long getVideoViewCount(Long videoId);
+    long getVideoViewCount(long videoId);
+
+    Map<Long, Long> getVideoViewCounts(List<Long> videoIds);
+
+    void updatePlaybackPosition(String email, Long videoId, Integer seconds);
+
+    Integer getPlaybackPosition(String email, Long videoId);
+
+    /**
+     * Videos the user started and has not finished, most recently watched first
+     */
+    List<PlaybackPositionResponse> getContinueWatching(String email, Integer limit);
 
     MessageResponse updateProfile(String email, UpdateProfileRequest request);
 
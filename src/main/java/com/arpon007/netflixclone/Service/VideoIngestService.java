@@ -0,0 +1,10 @@
+package com.arpon007.netflixclone.Service;
+
+import com.arpon007.netflixclone.DTO.response.ProcessingJobResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface VideoIngestService {
+    ProcessingJobResponse ingest(String contentType, long contentLength, InputStream body) throws IOException;
+}
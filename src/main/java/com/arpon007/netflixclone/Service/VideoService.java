@@ -1,19 +1,25 @@
 package com.arpon007.netflixclone.Service;
 
 import com.arpon007.netflixclone.DTO.request.VideoRequest;
+import com.arpon007.netflixclone.DTO.response.PageResponse;
 import com.arpon007.netflixclone.DTO.response.VideoResponse;
 import com.arpon007.netflixclone.entity.Video;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.util.List;
+import java.io.OutputStream;
 
 import com.arpon007.netflixclone.DTO.request.UpdateVideoRequest;
 
 public interface VideoService {
-    VideoResponse upload(VideoRequest request, MultipartFile video, MultipartFile poster) throws IOException;
+    VideoResponse upload(VideoRequest request, String srcUuid, String posterUuid);
 
-    List<VideoResponse> getAll();
+    /**
+     * Write every video as a JSON array, streamed from the database in batches
+     */
+    void exportAll(OutputStream out);
+
+    PageResponse<VideoResponse> getPage(String cursor, Integer size, String category, Boolean published);
 
     Video getById(Long id);
 
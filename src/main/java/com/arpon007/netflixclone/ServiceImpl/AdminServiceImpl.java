@@ -1,11 +1,18 @@
 package com.arpon007.netflixclone.ServiceImpl;
 
 import com.arpon007.netflixclone.DTO.request.UpdateAdminProfileRequest;
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
 import com.arpon007.netflixclone.DTO.response.MessageResponse;
 import com.arpon007.netflixclone.DTO.response.UserResponse;
+import com.arpon007.netflixclone.DTO.response.VideoStatsResponse;
+import com.arpon007.netflixclone.DTO.response.ViewIngestStatsResponse;
 import com.arpon007.netflixclone.Service.AdminService;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
 import com.arpon007.netflixclone.dao.UserRepository;
+import com.arpon007.netflixclone.dao.VideoRepository;
+import com.arpon007.netflixclone.dao.WatchlistEntryRepository;
 import com.arpon007.netflixclone.entity.User;
+import com.arpon007.netflixclone.entity.Video;
 import com.arpon007.netflixclone.enums.Role;
 import com.arpon007.netflixclone.exception.ResourceNotFoundExCeption;
 import lombok.RequiredArgsConstructor;
@@ -13,7 +20,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,14 +33,21 @@ import java.util.stream.Collectors;
 public class AdminServiceImpl implements AdminService {
 
     private final UserRepository userRepository;
+    private final WatchlistEntryRepository watchlistEntryRepository;
+    private final List<CacheStatsSource> cacheStatsSources;
+    private final JsonExportService jsonExportService;
+    private final WatchlistCache watchlistCache;
+    private final ViewIngestService viewIngestService;
+    private final VideoRepository videoRepository;
+    private final ViewCounterService viewCounterService;
+    private final UniqueViewerService uniqueViewerService;
+    private final PlaybackPositionService playbackPositionService;
 
     @Override
-    public List<UserResponse> getAllUsers() {
-        return userRepository.findAll()
-                .stream()
-                .filter(user -> user.getRole() != Role.ADMIN)
-                .map(this::convertToUserResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public void exportUsers(OutputStream out) {
+        jsonExportService.writeArray("FROM User u WHERE u.role <> :admin ORDER BY u.id", User.class,
+                Map.of("admin", Role.ADMIN), this::convertToUserResponse, out);
     }
 
     @Override
@@ -71,7 +89,10 @@ public class AdminServiceImpl implements AdminService {
             throw new IllegalArgumentException("Cannot delete admin users");
         }
 
+        watchlistEntryRepository.deleteByUserId(userId);
+        playbackPositionService.deleteUser(user.getEmail(), userId);
         userRepository.delete(user);
+        watchlistCache.invalidate(user.getEmail());
         log.info("User {} has been deleted", user.getEmail());
 
         return new MessageResponse("User deleted successfully");
@@ -107,6 +128,7 @@ public class AdminServiceImpl implements AdminService {
                 throw new IllegalArgumentException("Email already in use");
             }
             admin.setEmail(request.getEmail());
+            watchlistCache.invalidate(email);
         }
 
         admin.setFullName(request.getFullName());
@@ -116,6 +138,40 @@ public class AdminServiceImpl implements AdminService {
         return new MessageResponse("Admin profile updated successfully");
     }
 
+    @Override
+    public List<CacheStatsResponse> getCacheStats() {
+        return cacheStatsSources.stream()
+                .map(CacheStatsSource::getCacheStats)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public ViewIngestStatsResponse getViewIngestStats() {
+        return viewIngestService.getStats();
+    }
+
+    @Override
+    public VideoStatsResponse getCatalogStats(LocalDate from, LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(29);
+        UniqueViewerService.Range range = uniqueViewerService.uniqueViewers(UniqueViewerService.ALL_VIDEOS, start, end);
+        Object[] published = videoRepository.summarizePublished().get(0);
+        return new VideoStatsResponse(null, viewCounterService.total(), ((Number) published[0]).longValue(),
+                null, ((Number) published[1]).longValue(), start, end, range.uniqueViewers(), range.perDay());
+    }
+
+    @Override
+    public VideoStatsResponse getVideoStats(Long videoId, LocalDate from, LocalDate to) {
+        Video video = videoRepository.findById(videoId)
+                .orElseThrow(() -> new ResourceNotFoundExCeption("Video not found with id: " + videoId));
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(29);
+        UniqueViewerService.Range range = uniqueViewerService.uniqueViewers(videoId, start, end);
+        long duration = video.getDuration() != null ? video.getDuration() : 0;
+        return new VideoStatsResponse(videoId, viewCounterService.get(videoId), null,
+                video.isPublished(), duration, start, end, range.uniqueViewers(), range.perDay());
+    }
+
     private UserResponse convertToUserResponse(User user) {
         return UserResponse.from(user);
     }
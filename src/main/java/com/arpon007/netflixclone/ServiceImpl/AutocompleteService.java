@@ -0,0 +1,129 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.dao.VideoRepository;
+import com.arpon007.netflixclone.event.VideoChangedEvent;
+import com.arpon007.netflixclone.util.PrefixTrie;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Title autocomplete from an immutable {@link PrefixTrie} whose per-node completions are
+ * ranked by view count. Lookups read the current trie without locking; a replacement is
+ * built on a background thread when the catalog changes (coalescing bursts of changes)
+ * and periodically to pick up new views, then swapped in with a single volatile write.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AutocompleteService implements CacheStatsSource {
+
+    private final VideoRepository videoRepository;
+    private final ViewCounterService viewCounterService;
+
+    @Value("${app.autocomplete.top-k:10}")
+    private int topK;
+
+    @Value("${app.autocomplete.refresh-minutes:10}")
+    private long refreshMinutes;
+
+    @Value("${app.autocomplete.rebuild-delay-ms:2000}")
+    private long rebuildDelayMs;
+
+    private volatile PrefixTrie trie = PrefixTrie.empty();
+
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private ScheduledExecutorService rebuilder;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong emptyLookups = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        rebuilder = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("autocomplete-rebuild").daemon(true).factory());
+        rebuilder.scheduleWithFixedDelay(this::rebuild, refreshMinutes, refreshMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Most viewed titles starting with, or containing a word starting with, the prefix
+     */
+    public List<PrefixTrie.Completion> complete(String prefix, int limit) {
+        if (limit < 1 || limit > topK) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + topK);
+        }
+        lookups.incrementAndGet();
+        List<PrefixTrie.Completion> completions = trie.complete(prefix, limit);
+        if (completions.isEmpty()) {
+            emptyLookups.incrementAndGet();
+        }
+        return completions;
+    }
+
+    @EventListener
+    public void onVideoChanged(VideoChangedEvent event) {
+        requestRebuild();
+    }
+
+    /**
+     * Rebuild soon in the background; requests made while one is pending are coalesced
+     */
+    public void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.schedule(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            }, rebuildDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void rebuild() {
+        try {
+            long start = System.nanoTime();
+            List<PrefixTrie.Completion> entries = new ArrayList<>();
+            for (Object[] row : videoRepository.findAllTitles()) {
+                Long id = (Long) row[0];
+                String title = (String) row[1];
+                if (title != null && !title.isBlank()) {
+                    entries.add(new PrefixTrie.Completion(id, title, viewCounterService.get(id)));
+                }
+            }
+            PrefixTrie built = PrefixTrie.build(entries, topK);
+            trie = built;
+            rebuilds.incrementAndGet();
+            log.debug("Rebuilt autocomplete trie: {} titles, {} nodes in {} ms", built.size(), built.nodeCount(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException e) {
+            // Keep serving the previous trie
+            log.warn("Autocomplete rebuild failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        PrefixTrie current = trie;
+        // Hits and misses are lookups with and without completions; evictions count rebuilds
+        return new CacheStatsResponse("autocomplete-trie", current.size(), current.sizeInBytes(),
+                lookups.get() - emptyLookups.get(), emptyLookups.get(), rebuilds.get());
+    }
+}
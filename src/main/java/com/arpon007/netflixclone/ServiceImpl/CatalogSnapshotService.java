@@ -0,0 +1,225 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.DTO.response.VideoResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.dao.VideoRepository;
+import com.arpon007.netflixclone.entity.Video;
+import com.arpon007.netflixclone.event.VideoChangedEvent;
+import com.arpon007.netflixclone.util.ETags;
+import com.arpon007.netflixclone.util.IdBitmap;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The full catalog as ready-to-send JSON. The catalog only changes when a video is
+ * created, updated or deleted, so instead of loading and serializing every video per
+ * request we keep an immutable snapshot (raw and gzip bytes) tagged with a version that
+ * is bumped by {@link VideoChangedEvent}; the version is the ETag, so unchanged clients
+ * get a 304. Every video is also kept as a pre-serialized JSON fragment in both watchlist
+ * states, so a user's watchlist flags are applied by splicing fragments rather than by
+ * rebuilding the list.
+ * <p>
+ * Video URLs in the snapshot are absolute to app.public-base-url rather than to the host
+ * a request came through, so one snapshot serves every request and it is rebuilt in the
+ * background as soon as a change arrives. A request that still finds an outdated
+ * snapshot builds it itself.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogSnapshotService implements CacheStatsSource {
+
+    private static final IdBitmap EMPTY = new IdBitmap();
+
+    private final VideoRepository videoRepository;
+    private final WatchlistCache watchlistCache;
+    private final ObjectMapper objectMapper;
+
+    // Starts at the boot time so ETags of different runs never collide
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    @Value("${app.public-base-url:http://localhost:8080}")
+    private String publicBaseUrl;
+
+    private volatile Snapshot snapshot;
+    private final Object rebuildLock = new Object();
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+    private ExecutorService rebuilder;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        rebuilder = Executors.newSingleThreadExecutor(
+                Thread.ofPlatform().name("catalog-snapshot").daemon(true).factory());
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Immutable serialized catalog. unwatched[i] and watched[i] are the JSON of the i-th
+     * video with isWatchList false and true; json is the array of all unwatched fragments.
+     */
+    public record Snapshot(long version, long[] ids, byte[][] unwatched, byte[][] watched,
+                           byte[] json, byte[] gzip) {
+    }
+
+    /**
+     * A catalog response: body is null when the client's copy is current
+     */
+    public record CatalogBody(String etag, byte[] body, boolean gzipped) {
+    }
+
+    @EventListener
+    public void onVideoChanged(VideoChangedEvent event) {
+        version.incrementAndGet();
+        // Changes arriving while a rebuild is pending are picked up by that rebuild
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuilder.execute(() -> {
+                rebuildPending.set(false);
+                try {
+                    rebuild();
+                } catch (RuntimeException e) {
+                    // The next request builds it instead
+                    log.warn("Catalog snapshot rebuild failed: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * The catalog as seen by the given user (null for anonymous requests)
+     */
+    public CatalogBody render(String email, String ifNoneMatch, boolean acceptsGzip) {
+        Snapshot snapshot = current();
+
+        IdBitmap watchList = email != null ? watchlistCache.get(email) : EMPTY;
+        boolean unwatched = watchList.isEmpty();
+        String etag = unwatched
+                ? ETags.strong(Long.toString(snapshot.version()))
+                : ETags.strong(snapshot.version() + "-" + Long.toHexString(watchList.contentHash()));
+        if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+            return new CatalogBody(etag, null, false);
+        }
+        if (unwatched) {
+            return acceptsGzip ? new CatalogBody(etag, snapshot.gzip(), true) : new CatalogBody(etag, snapshot.json(), false);
+        }
+        byte[] json = join(snapshot.unwatched(), snapshot.watched(), snapshot.ids(), watchList);
+        return acceptsGzip ? new CatalogBody(etag, gzip(json, Deflater.BEST_SPEED), true) : new CatalogBody(etag, json, false);
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version.get()) {
+            hits.incrementAndGet();
+            return current;
+        }
+        misses.incrementAndGet();
+        return rebuild();
+    }
+
+    private Snapshot rebuild() {
+        synchronized (rebuildLock) {
+            // Read the version before the catalog: a change during the build leaves the result stale, never lost
+            long expected = version.get();
+            Snapshot current = snapshot;
+            if (current != null && current.version() == expected) {
+                return current;
+            }
+            current = build(expected);
+            snapshot = current;
+            rebuilds.incrementAndGet();
+            return current;
+        }
+    }
+
+    private Snapshot build(long version) {
+        List<Video> videos = videoRepository.findAllPlayable();
+        long[] ids = new long[videos.size()];
+        byte[][] unwatched = new byte[videos.size()][];
+        byte[][] watched = new byte[videos.size()][];
+        for (int i = 0; i < videos.size(); i++) {
+            VideoResponse response = VideoResponse.from(videos.get(i), publicBaseUrl);
+            ids[i] = response.getId();
+            response.setIsWatchList(false);
+            unwatched[i] = objectMapper.writeValueAsBytes(response);
+            response.setIsWatchList(true);
+            watched[i] = objectMapper.writeValueAsBytes(response);
+        }
+        byte[] json = join(unwatched, watched, ids, EMPTY);
+        log.debug("Built catalog snapshot {} with {} videos ({} bytes)", version, ids.length, json.length);
+        return new Snapshot(version, ids, unwatched, watched, json, gzip(json, Deflater.BEST_COMPRESSION));
+    }
+
+    private static byte[] join(byte[][] unwatched, byte[][] watched, long[] ids, IdBitmap watchList) {
+        int length = 2 + Math.max(0, ids.length - 1);
+        for (int i = 0; i < ids.length; i++) {
+            length += (watchList.contains(ids[i]) ? watched[i] : unwatched[i]).length;
+        }
+        byte[] json = new byte[length];
+        int offset = 0;
+        json[offset++] = '[';
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                json[offset++] = ',';
+            }
+            byte[] fragment = watchList.contains(ids[i]) ? watched[i] : unwatched[i];
+            System.arraycopy(fragment, 0, json, offset, fragment.length);
+            offset += fragment.length;
+        }
+        json[offset] = ']';
+        return json;
+    }
+
+    private static byte[] gzip(byte[] data, int level) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        Snapshot current = snapshot;
+        long bytes = 0;
+        if (current != null) {
+            bytes += current.json().length + current.gzip().length;
+            for (int i = 0; i < current.ids().length; i++) {
+                bytes += current.unwatched()[i].length + current.watched()[i].length;
+            }
+        }
+        // Misses are requests that found the snapshot outdated; evictions count rebuilds
+        return new CacheStatsResponse("catalog-snapshot", current != null ? current.ids().length : 0, bytes,
+                hits.get(), misses.get(), rebuilds.get());
+    }
+}
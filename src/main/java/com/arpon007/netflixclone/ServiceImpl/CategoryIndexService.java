@@ -0,0 +1,359 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.entity.Video;
+import com.arpon007.netflixclone.event.VideoChangedEvent;
+import com.arpon007.netflixclone.util.CatalogCursor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Category membership of every playable video as one bitset per category over video ordinals.
+ * Ordinals follow (createdAt, id), the order of the catalog, so walking a bitset downwards
+ * lists the newest videos first. Multi-category filters are bitset AND/OR and facet counts
+ * are cardinalities of intersections, without touching the database. Kept current from
+ * {@link VideoChangedEvent}.
+ * <p>
+ * A video newer than every indexed one takes the next ordinal. Anything else, such as an
+ * older upload that finishes processing late or a republished video, renumbers the index
+ * so the order holds; so does removal once the unused ordinals outnumber the live ones,
+ * so ordinals stay bounded by the catalog size. Renumbering is linear in the number of
+ * videos and happens under the write lock. Page cursors are the (createdAt, id) of the
+ * last video returned, so they stay valid across renumbering.
+ */
+@Service
+public class CategoryIndexService implements CacheStatsSource {
+
+    // Unused ordinals tolerated regardless of the catalog size before renumbering
+    private static final int MIN_COMPACT_GAP = 1024;
+
+    private static final Comparator<Entry> CATALOG_ORDER =
+            Comparator.comparing(Entry::createdAt).thenComparingLong(Entry::videoId);
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Keyed by lower-cased name; names keeps the spelling first seen
+    private final Map<String, BitSet> bitsets = new HashMap<>();
+    private final Map<String, String> names = new HashMap<>();
+
+    private final Map<Long, Integer> ordinalByVideo = new HashMap<>();
+    private long[] videoByOrdinal = new long[1024];
+    // Kept for unused ordinals too, so the array stays sorted for cursor lookups
+    private Instant[] createdByOrdinal = new Instant[1024];
+    private List<String>[] categoriesByOrdinal = newCategoryArray(1024);
+    private BitSet live = new BitSet();
+    private int nextOrdinal;
+
+    private final AtomicLong queries = new AtomicLong();
+
+    /**
+     * A page of matching video ids, newest first. nextCursor is the last video of the page, or null.
+     */
+    public record Match(List<Long> videoIds, int total, CatalogCursor nextCursor) {
+    }
+
+    private record Entry(long videoId, Instant createdAt, List<String> categories) {
+    }
+
+    /**
+     * Make sure a category is listed in facets even before any video has it
+     */
+    public void registerCategory(String name) {
+        lock.writeLock().lock();
+        try {
+            bitsetFor(name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void index(Video video) {
+        if (!video.isPlayable()) {
+            remove(video.getVideo_id());
+            return;
+        }
+        List<String> categories = video.getCategories() != null ? List.copyOf(video.getCategories()) : List.of();
+        Instant createdAt = video.getCreatedAt() != null ? video.getCreatedAt() : Instant.EPOCH;
+        Entry entry = new Entry(video.getVideo_id(), createdAt, categories);
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalByVideo.get(video.getVideo_id());
+            if (ordinal != null) {
+                clearCategories(ordinal);
+            } else if (nextOrdinal == 0 || CATALOG_ORDER.compare(entry, entryAt(nextOrdinal - 1)) > 0) {
+                ordinal = nextOrdinal++;
+                ensureCapacity(nextOrdinal);
+                ordinalByVideo.put(video.getVideo_id(), ordinal);
+                videoByOrdinal[ordinal] = video.getVideo_id();
+                createdByOrdinal[ordinal] = createdAt;
+                live.set(ordinal);
+            } else {
+                compact(entry);
+                return;
+            }
+            categoriesByOrdinal[ordinal] = categories;
+            for (String category : categories) {
+                bitsetFor(category).set(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long videoId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalByVideo.remove(videoId);
+            if (ordinal != null) {
+                clearCategories(ordinal);
+                categoriesByOrdinal[ordinal] = null;
+                live.clear(ordinal);
+                int unused = nextOrdinal - ordinalByVideo.size();
+                if (unused > MIN_COMPACT_GAP && unused > ordinalByVideo.size()) {
+                    compact(null);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onVideoChanged(VideoChangedEvent event) {
+        if (event.getType() == VideoChangedEvent.Type.DELETED) {
+            remove(event.getVideoId());
+        } else {
+            index(event.getVideo());
+        }
+    }
+
+    /**
+     * Videos in every category of all and in at least one of any (either may be empty), newest first
+     *
+     * @param cursor video to continue after, from a previous {@link Match#nextCursor()}, or null
+     */
+    public Match find(Collection<String> all, Collection<String> any, CatalogCursor cursor, int size) {
+        queries.incrementAndGet();
+        lock.readLock().lock();
+        try {
+            BitSet matches = filter(all, any);
+            int total = matches.cardinality();
+            List<Long> ids = new ArrayList<>(size);
+            int ordinal = matches.previousSetBit(cursor != null ? below(cursor) : matches.length() - 1);
+            int last = -1;
+            while (ordinal >= 0 && ids.size() < size) {
+                ids.add(videoByOrdinal[ordinal]);
+                last = ordinal;
+                ordinal = matches.previousSetBit(ordinal - 1);
+            }
+            CatalogCursor next = ordinal >= 0 ? new CatalogCursor(createdByOrdinal[last], videoByOrdinal[last]) : null;
+            return new Match(ids, total, next);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every video in the category, newest first; empty for an unknown category
+     */
+    public List<Long> videoIds(String category) {
+        queries.incrementAndGet();
+        lock.readLock().lock();
+        try {
+            BitSet bits = bitsets.get(key(category));
+            if (bits == null) {
+                return List.of();
+            }
+            List<Long> ids = new ArrayList<>(bits.cardinality());
+            for (int ordinal = bits.previousSetBit(bits.length() - 1); ordinal >= 0; ordinal = bits.previousSetBit(ordinal - 1)) {
+                ids.add(videoByOrdinal[ordinal]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean hasCategory(long videoId, String category) {
+        lock.readLock().lock();
+        try {
+            Integer ordinal = ordinalByVideo.get(videoId);
+            BitSet bits = bitsets.get(key(category));
+            return ordinal != null && bits != null && bits.get(ordinal);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of videos per category among the videos matching the filter, largest first
+     */
+    public Map<String, Integer> facetCounts(Collection<String> all, Collection<String> any) {
+        queries.incrementAndGet();
+        lock.readLock().lock();
+        try {
+            BitSet matches = filter(all, any);
+            List<Map.Entry<String, Integer>> counts = new ArrayList<>();
+            for (Map.Entry<String, BitSet> entry : bitsets.entrySet()) {
+                BitSet intersection = (BitSet) entry.getValue().clone();
+                intersection.and(matches);
+                counts.add(Map.entry(names.get(entry.getKey()), intersection.cardinality()));
+            }
+            counts.sort(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+            Map<String, Integer> facets = new LinkedHashMap<>();
+            for (Map.Entry<String, Integer> count : counts) {
+                facets.put(count.getKey(), count.getValue());
+            }
+            return facets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet filter(Collection<String> all, Collection<String> any) {
+        BitSet result = (BitSet) live.clone();
+        for (String category : all) {
+            BitSet bits = bitsets.get(key(category));
+            if (bits == null) {
+                return new BitSet();
+            }
+            result.and(bits);
+        }
+        if (!any.isEmpty()) {
+            BitSet union = new BitSet();
+            for (String category : any) {
+                BitSet bits = bitsets.get(key(category));
+                if (bits != null) {
+                    union.or(bits);
+                }
+            }
+            result.and(union);
+        }
+        return result;
+    }
+
+    /**
+     * Highest ordinal ordered before the cursor, or -1
+     */
+    private int below(CatalogCursor cursor) {
+        Entry key = new Entry(cursor.id(), cursor.createdAt(), null);
+        int low = 0;
+        int high = nextOrdinal - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (CATALOG_ORDER.compare(entryAt(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low - 1;
+    }
+
+    private Entry entryAt(int ordinal) {
+        return new Entry(videoByOrdinal[ordinal], createdByOrdinal[ordinal], categoriesByOrdinal[ordinal]);
+    }
+
+    /**
+     * Renumber the live videos, plus the one being added if any, densely in catalog order
+     * and rebuild the bitsets over the new ordinals. Caller holds the write lock.
+     */
+    private void compact(Entry added) {
+        List<Entry> entries = new ArrayList<>(ordinalByVideo.size() + 1);
+        for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+            entries.add(entryAt(ordinal));
+        }
+        if (added != null) {
+            entries.add(added);
+        }
+        entries.sort(CATALOG_ORDER);
+
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(1, entries.size())) * 2);
+        videoByOrdinal = new long[capacity];
+        createdByOrdinal = new Instant[capacity];
+        categoriesByOrdinal = newCategoryArray(capacity);
+        live = new BitSet(capacity);
+        ordinalByVideo.clear();
+        for (BitSet bits : bitsets.values()) {
+            bits.clear();
+        }
+        nextOrdinal = entries.size();
+        for (int ordinal = 0; ordinal < nextOrdinal; ordinal++) {
+            Entry entry = entries.get(ordinal);
+            videoByOrdinal[ordinal] = entry.videoId();
+            createdByOrdinal[ordinal] = entry.createdAt();
+            categoriesByOrdinal[ordinal] = entry.categories();
+            ordinalByVideo.put(entry.videoId(), ordinal);
+            live.set(ordinal);
+            for (String category : entry.categories()) {
+                bitsetFor(category).set(ordinal);
+            }
+        }
+    }
+
+    private void clearCategories(int ordinal) {
+        List<String> previous = categoriesByOrdinal[ordinal];
+        if (previous != null) {
+            for (String category : previous) {
+                BitSet bits = bitsets.get(key(category));
+                if (bits != null) {
+                    bits.clear(ordinal);
+                }
+            }
+        }
+    }
+
+    private BitSet bitsetFor(String category) {
+        String key = key(category);
+        names.putIfAbsent(key, category.trim());
+        return bitsets.computeIfAbsent(key, k -> new BitSet());
+    }
+
+    private static String key(String category) {
+        return category.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > videoByOrdinal.length) {
+            int grown = Math.max(capacity, videoByOrdinal.length * 2);
+            videoByOrdinal = Arrays.copyOf(videoByOrdinal, grown);
+            createdByOrdinal = Arrays.copyOf(createdByOrdinal, grown);
+            categoriesByOrdinal = Arrays.copyOf(categoriesByOrdinal, grown);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String>[] newCategoryArray(int size) {
+        return (List<String>[]) new List[size];
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        lock.readLock().lock();
+        try {
+            long bytes = videoByOrdinal.length * 24L + live.size() / 8;
+            for (BitSet bits : bitsets.values()) {
+                bytes += bits.size() / 8;
+            }
+            // Hits count filter and facet queries
+            return new CacheStatsResponse("category-facets", bitsets.size(), bytes, queries.get(), 0, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -1,21 +1,36 @@
 package com.arpon007.netflixclone.ServiceImpl;
 
 import com.arpon007.netflixclone.DTO.response.CategoryResponse;
+import com.arpon007.netflixclone.DTO.response.PageResponse;
+import com.arpon007.netflixclone.DTO.response.VideoResponse;
 import com.arpon007.netflixclone.Service.CategoryService;
 import com.arpon007.netflixclone.dao.CategoryRepository;
+import com.arpon007.netflixclone.dao.VideoRepository;
 import com.arpon007.netflixclone.entity.Category;
+import com.arpon007.netflixclone.entity.Video;
 import com.arpon007.netflixclone.exception.ResourceNotFoundExCeption;
+import com.arpon007.netflixclone.util.CatalogCursor;
+import com.arpon007.netflixclone.util.IdBitmap;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryServiceImpl implements CategoryService {
 
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final CategoryRepository categoryRepository;
+    private final VideoRepository videoRepository;
+    private final CategoryIndexService categoryIndexService;
+    private final WatchlistCache watchlistCache;
 
     @Override
     public List<CategoryResponse> getAllCategories() {
@@ -27,9 +42,8 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     public List<CategoryResponse> getActiveCategories() {
-        return categoryRepository.findAll()
+        return categoryRepository.findByActiveTrue()
                 .stream()
-                .filter(Category::isActive)
                 .map(CategoryResponse::from)
                 .collect(Collectors.toList());
     }
@@ -40,4 +54,49 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new ResourceNotFoundExCeption("Category not found with id: " + id));
         return CategoryResponse.from(category);
     }
+
+    @Override
+    public PageResponse<VideoResponse> browse(List<String> all, List<String> any, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        CatalogCursor after = cursor != null && !cursor.isBlank() ? CatalogCursor.decode(cursor) : null;
+
+        CategoryIndexService.Match match = categoryIndexService.find(orEmpty(all), orEmpty(any), after, pageSize);
+
+        // Only the videos of this page are read, then put back in index order
+        Map<Long, Video> videos = new HashMap<>();
+        for (Video video : videoRepository.findAllById(match.videoIds())) {
+            videos.put(video.getVideo_id(), video);
+        }
+        IdBitmap watchList = watchlistCache.forCurrentUser();
+        List<VideoResponse> content = new ArrayList<>(match.videoIds().size());
+        for (Long id : match.videoIds()) {
+            Video video = videos.get(id);
+            if (video != null) {
+                VideoResponse response = VideoResponse.from(video);
+                if (watchList != null) {
+                    response.setIsWatchList(watchList.contains(id));
+                }
+                content.add(response);
+            }
+        }
+
+        String nextCursor = match.nextCursor() != null ? match.nextCursor().encode() : null;
+        PageResponse<VideoResponse> page = PageResponse.keyset(content, pageSize, nextCursor);
+        // Free with a bitset index
+        page.setTotalElements((long) match.total());
+        page.setTotalPages((match.total() + pageSize - 1) / pageSize);
+        return page;
+    }
+
+    @Override
+    public Map<String, Integer> getFacetCounts(List<String> all, List<String> any) {
+        return categoryIndexService.facetCounts(orEmpty(all), orEmpty(any));
+    }
+
+    private static List<String> orEmpty(List<String> categories) {
+        return categories != null ? categories : List.of();
+    }
 }
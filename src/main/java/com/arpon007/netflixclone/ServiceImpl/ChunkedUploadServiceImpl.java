@@ -0,0 +1,303 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.request.CreateUploadRequest;
+import com.arpon007.netflixclone.DTO.request.VideoRequest;
+import com.arpon007.netflixclone.DTO.response.MessageResponse;
+import com.arpon007.netflixclone.DTO.response.ProcessingJobResponse;
+import com.arpon007.netflixclone.DTO.response.UploadSessionResponse;
+import com.arpon007.netflixclone.DTO.response.VideoResponse;
+import com.arpon007.netflixclone.Service.ChunkedUploadService;
+import com.arpon007.netflixclone.Service.MediaPipelineService;
+import com.arpon007.netflixclone.Service.VideoService;
+import com.arpon007.netflixclone.dao.UploadSessionRepository;
+import com.arpon007.netflixclone.entity.UploadSession;
+import com.arpon007.netflixclone.enums.UploadStatus;
+import com.arpon007.netflixclone.exception.ResourceNotFoundExCeption;
+import com.arpon007.netflixclone.exception.ServiceBusyException;
+import com.arpon007.netflixclone.util.RangeSet;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Resumable uploads: chunks may arrive in any order and in parallel. Each chunk is
+ * written straight from the request body to its offset in the preallocated target
+ * file, and the received ranges are persisted so an interrupted upload can resume.
+ * Only the admin who created a session can use it. Sessions left open without a chunk
+ * for longer than the TTL are deleted in the background together with their files.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedUploadServiceImpl implements ChunkedUploadService {
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final FileStorageService fileStorageService;
+    private final VideoService videoService;
+    private final MediaPipelineService mediaPipelineService;
+
+    @Value("${file.upload.max-video-size:5368709120}")
+    private long maxVideoSize;
+
+    @Value("${file.upload.max-chunk-size:67108864}")
+    private long maxChunkSize;
+
+    @Value("${file.upload.session-ttl-hours:24}")
+    private long sessionTtlHours;
+
+    @Value("${file.upload.session-sweep-minutes:15}")
+    private long sweepMinutes;
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("upload-sweeper").daemon(true).factory());
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepMinutes, sweepMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+
+    @Override
+    public UploadSessionResponse createSession(String email, CreateUploadRequest request) throws IOException {
+        if (request.getSize() > maxVideoSize) {
+            throw new IllegalArgumentException("Video exceeds the maximum size of " + maxVideoSize + " bytes");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setOriginalFileName(request.getFileName());
+        session.setSize(request.getSize());
+        session.setCreatedBy(email);
+        session.setStoredFileName(fileStorageService.allocateVideo(request.getFileName(), request.getSize()));
+        uploadSessionRepository.save(session);
+
+        SessionState state = new SessionState(session, new RangeSet());
+        sessions.put(session.getId(), state);
+        log.info("Upload session {} created for {} ({} bytes)", session.getId(), request.getFileName(), request.getSize());
+        return toResponse(state);
+    }
+
+    @Override
+    public UploadSessionResponse writeChunk(String email, String uploadId, long offset, long length, InputStream body)
+            throws IOException {
+        SessionState state = state(email, uploadId);
+        if (state.completing) {
+            throw new IllegalArgumentException("Upload is already complete");
+        }
+        long size = state.session.getSize();
+        long count = length >= 0 ? length : Math.min(maxChunkSize, size - offset);
+        if (offset < 0 || offset >= size || count <= 0 || offset + count > size) {
+            throw new IllegalArgumentException("Chunk [" + offset + ", " + (offset + count) + ") is outside the file");
+        }
+        if (count > maxChunkSize) {
+            throw new IllegalArgumentException("Chunk exceeds the maximum size of " + maxChunkSize + " bytes");
+        }
+
+        long written = 0;
+        ReadableByteChannel source = Channels.newChannel(body);
+        try (FileChannel target = FileChannel.open(fileStorageService.videoPath(state.session.getStoredFileName()),
+                StandardOpenOption.WRITE)) {
+            while (written < count) {
+                long transferred = target.transferFrom(source, offset + written, count - written);
+                if (transferred <= 0) {
+                    break;
+                }
+                written += transferred;
+            }
+        } finally {
+            // Whatever reached the disk counts, so a dropped connection only loses the unwritten tail
+            record(state, offset, offset + written);
+        }
+        return toResponse(state);
+    }
+
+    @Override
+    public UploadSessionResponse getSession(String email, String uploadId) {
+        return toResponse(state(email, uploadId));
+    }
+
+    @Override
+    public ProcessingJobResponse complete(String email, String uploadId, VideoRequest request, MultipartFile poster)
+            throws IOException {
+        SessionState state = state(email, uploadId);
+        if (state.session.getJobId() != null) {
+            // Repeated call, e.g. a client retrying after a lost response
+            return mediaPipelineService.getJob(state.session.getJobId());
+        }
+        synchronized (state) {
+            if (!state.ranges.covers(0, state.session.getSize())) {
+                throw new IllegalArgumentException("Upload is incomplete: received "
+                        + state.ranges.coveredBytes() + " of " + state.session.getSize() + " bytes");
+            }
+        }
+
+        if (poster == null || poster.isEmpty()) {
+            throw new IllegalArgumentException("Poster image is required");
+        }
+
+        // Only one call creates the video; concurrent and repeated calls get the job it created
+        if (uploadSessionRepository.claimCompletion(uploadId) == 0) {
+            sessions.remove(uploadId);
+            String jobId = uploadSessionRepository.findById(uploadId).map(UploadSession::getJobId).orElse(null);
+            if (jobId != null) {
+                return mediaPipelineService.getJob(jobId);
+            }
+            throw new ServiceBusyException("Upload is being completed, please retry later", 1);
+        }
+        state.completing = true;
+
+        String storedFileName = state.session.getStoredFileName();
+        ProcessingJobResponse job;
+        VideoResponse created;
+        try {
+            created = videoService.upload(request, storedFileName, fileStorageService.saveImage(poster));
+            // Hashing and publishing the file is left to the pipeline; the sha256 is not known yet
+            job = mediaPipelineService.submit(created.getId(),
+                    new FileStorageService.StoredFile(storedFileName, state.session.getSize(), null),
+                    state.session.getOriginalFileName());
+        } catch (IOException | RuntimeException e) {
+            state.completing = false;
+            uploadSessionRepository.releaseCompletion(uploadId);
+            throw e;
+        }
+
+        // Kept with its job id so that a repeated call returns the same job
+        uploadSessionRepository.markCompleted(uploadId, job.getJobId());
+        sessions.remove(uploadId);
+        log.info("Upload session {} completed as video {}", uploadId, created.getId());
+        return job;
+    }
+
+    @Override
+    public MessageResponse abort(String email, String uploadId) throws IOException {
+        SessionState state = state(email, uploadId);
+        // The file of a completed upload belongs to its video now
+        if (uploadSessionRepository.deleteOpen(uploadId) == 0) {
+            throw new IllegalArgumentException("Upload is being or has been completed");
+        }
+        sessions.remove(uploadId);
+        fileStorageService.deleteVideo(state.session.getStoredFileName());
+        return new MessageResponse("Upload aborted");
+    }
+
+    private void record(SessionState state, long start, long end) {
+        if (end <= start) {
+            return;
+        }
+        synchronized (state) {
+            state.ranges.add(start, end);
+            state.dirty = true;
+        }
+        persist(state);
+    }
+
+    /**
+     * Write the latest ranges outside the session lock. One thread writes at a time;
+     * chunks recorded meanwhile are picked up by its next round instead of each
+     * waiting for its own update.
+     */
+    private void persist(SessionState state) {
+        while (state.dirty && state.persisting.compareAndSet(false, true)) {
+            try {
+                String ranges;
+                synchronized (state) {
+                    state.dirty = false;
+                    ranges = state.ranges.toString();
+                }
+                try {
+                    uploadSessionRepository.updateReceivedRanges(state.session.getId(), ranges, Instant.now());
+                } catch (RuntimeException e) {
+                    state.dirty = true;
+                    throw e;
+                }
+            } finally {
+                state.persisting.set(false);
+            }
+        }
+    }
+
+    /**
+     * Delete open sessions that have not received a chunk within the TTL, with their files
+     */
+    void sweep() {
+        try {
+            Instant cutoff = Instant.now().minus(Duration.ofHours(sessionTtlHours));
+            for (UploadSession stale : uploadSessionRepository.findStaleOpen(cutoff)) {
+                // A session claimed for completion in the meantime is kept
+                if (uploadSessionRepository.deleteOpen(stale.getId()) == 0) {
+                    continue;
+                }
+                sessions.remove(stale.getId());
+                fileStorageService.deleteVideo(stale.getStoredFileName());
+                log.info("Upload session {} expired after {} hours without a chunk", stale.getId(), sessionTtlHours);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not sweep upload sessions: {}", e.getMessage());
+        }
+    }
+
+    private SessionState state(String email, String uploadId) {
+        SessionState state = sessions.computeIfAbsent(uploadId, id -> {
+            UploadSession session = uploadSessionRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundExCeption("Upload session not found: " + id));
+            SessionState loaded = new SessionState(session, RangeSet.parse(session.getReceivedRanges()));
+            loaded.completing = session.getStatus() != null && session.getStatus() != UploadStatus.OPEN;
+            return loaded;
+        });
+        // Someone else's session is reported as missing rather than forbidden, so ids are not confirmed
+        if (!state.session.getCreatedBy().equals(email)) {
+            throw new ResourceNotFoundExCeption("Upload session not found: " + uploadId);
+        }
+        return state;
+    }
+
+    private UploadSessionResponse toResponse(SessionState state) {
+        synchronized (state) {
+            long size = state.session.getSize();
+            return new UploadSessionResponse(state.session.getId(), state.session.getOriginalFileName(), size,
+                    state.ranges.coveredBytes(), state.ranges.toList(), state.ranges.covers(0, size));
+        }
+    }
+
+    private static final class SessionState {
+        private final UploadSession session;
+        private final RangeSet ranges;
+        // Fast-path check only; the conditional updates in the repository decide
+        private volatile boolean completing;
+        // Ranges changed since they were last written; set under the session lock
+        private volatile boolean dirty;
+        private final AtomicBoolean persisting = new AtomicBoolean();
+
+        private SessionState(UploadSession session, RangeSet ranges) {
+            this.session = session;
+            this.ranges = ranges;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps read-only file channels open across requests so that range requests for the
+ * same media file do not pay an open/close per chunk. Channels are reference counted:
+ * an evicted channel is only closed once the last in-flight transfer has released it.
+ */
+@Component
+@Slf4j
+public class FileChannelCache {
+
+    @Value("${file.stream.max-open-channels:256}")
+    private int maxOpenChannels;
+
+    private final LinkedHashMap<Path, Entry> channels = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Borrow an open channel for the given file. The returned lease must be closed.
+     */
+    public Lease acquire(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        synchronized (channels) {
+            Entry entry = channels.get(key);
+            if (entry != null && entry.channel.isOpen()) {
+                entry.retain();
+                return new Lease(entry);
+            }
+        }
+
+        Entry created = new Entry(FileChannel.open(key, StandardOpenOption.READ));
+        Entry leased;
+        List<Entry> released = new ArrayList<>();
+        synchronized (channels) {
+            Entry existing = channels.get(key);
+            if (existing != null && existing.channel.isOpen()) {
+                // Another request opened the same file concurrently
+                existing.retain();
+                leased = existing;
+                released.add(created);
+            } else {
+                if (existing != null) {
+                    released.add(existing);
+                }
+                channels.put(key, created);
+                created.retain();
+                leased = created;
+                Iterator<Map.Entry<Path, Entry>> it = channels.entrySet().iterator();
+                while (channels.size() > maxOpenChannels && it.hasNext()) {
+                    released.add(it.next().getValue());
+                    it.remove();
+                }
+            }
+        }
+        released.forEach(Entry::release);
+        return new Lease(leased);
+    }
+
+    /**
+     * Drop the cached channel for a file, e.g. after it has been deleted or replaced.
+     */
+    public void invalidate(Path file) {
+        Entry removed;
+        synchronized (channels) {
+            removed = channels.remove(file.toAbsolutePath().normalize());
+        }
+        if (removed != null) {
+            removed.release();
+        }
+    }
+
+    public int size() {
+        synchronized (channels) {
+            return channels.size();
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        List<Entry> all;
+        synchronized (channels) {
+            all = new ArrayList<>(channels.values());
+            channels.clear();
+        }
+        all.forEach(Entry::release);
+    }
+
+    private static final class Entry {
+        private final FileChannel channel;
+        // One reference is held by the cache itself while the entry is mapped
+        private final AtomicInteger refs = new AtomicInteger(1);
+
+        private Entry(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void retain() {
+            refs.incrementAndGet();
+        }
+
+        private void release() {
+            if (refs.decrementAndGet() == 0) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close cached file channel: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    public static final class Lease implements AutoCloseable {
+        private final Entry entry;
+        private boolean closed;
+
+        private Lease(Entry entry) {
+            this.entry = entry;
+        }
+
+        public FileChannel channel() {
+            return entry.channel;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                entry.release();
+            }
+        }
+    }
+}
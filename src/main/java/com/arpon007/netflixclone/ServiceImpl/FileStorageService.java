@@ -1,18 +1,56 @@
 package com.arpon007.netflixclone.ServiceImpl;
 
+import com.arpon007.netflixclone.dao.MediaObjectRepository;
+import com.arpon007.netflixclone.exception.PayloadTooLargeException;
+import com.arpon007.netflixclone.util.ETags;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Content-addressed media store. Uploaded files are named after the SHA-256 of their
+ * content ({@code <sha256>.<ext>}), so identical uploads are stored once and a name
+ * always refers to the same bytes. References are counted in media_objects and a
+ * file is deleted when the last video pointing at it lets go.
+ */
 @Service
+@RequiredArgsConstructor
 public class FileStorageService {
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,10})?");
+    private static final Pattern EXTENSION = Pattern.compile("\\.([A-Za-z0-9]{1,10})$");
+
+    private final Mp4FaststartService mp4FaststartService;
+    private final MediaObjectRepository mediaObjectRepository;
+    private final FileChannelCache fileChannelCache;
+    private final HotSegmentCache hotSegmentCache;
+    private final InitSegmentCache initSegmentCache;
+
+    // Serialises publish/release of the same name within this instance
+    private final Object[] locks = newLocks(64);
+
     @Value("${file.upload.video-dir}")
     private String videoDir;
 
@@ -20,25 +58,230 @@ public class FileStorageService {
     private String imageDir;
 
     /**
-     * Save video file to the server
+     * A file written by one of the streaming store methods, with its size and SHA-256 digest
+     */
+    public record StoredFile(String fileName, long size, String sha256) {
+    }
+
+    /**
+     * Stream an uploaded video to a temp file in the video directory, hashing and counting
+     * it in the same pass. The file becomes part of the store with {@link #prepareVideo}
+     * and {@link #publishVideo}
+     */
+    public StoredFile receiveVideo(InputStream in, long maxBytes) throws IOException {
+        Files.createDirectories(Paths.get(videoDir));
+        return writeHashed(in, Paths.get(videoDir, UUID.randomUUID() + ".part"), maxBytes);
+    }
+
+    /**
+     * Move the MP4 moov box of a received video to the front before it is published, and
+     * return it with the digest of the optimized bytes. Faststart runs first so a published
+     * name (and its ETag) never refers to bytes that are rewritten later. Running it again
+     * on a prepared file changes nothing.
+     */
+    public StoredFile prepareVideo(StoredFile received, String originalFilename) throws IOException {
+        Mp4FaststartService.Layout layout = mp4FaststartService.optimize(videoPath(received.fileName()));
+        StoredFile prepared = layout != null && layout.relocated() ? hashVideo(received.fileName()) : received;
+        if (layout != null) {
+            mp4FaststartService.saveLayout(prepared.sha256() + extensionOf(originalFilename), layout);
+        }
+        return prepared;
+    }
+
+    /**
+     * Move a prepared video to its content-addressed name
+     */
+    public StoredFile publishVideo(StoredFile prepared, String originalFilename) throws IOException {
+        return publish(videoPath(prepared.fileName()), Paths.get(videoDir), prepared, extensionOf(originalFilename));
+    }
+
+    /**
+     * The stored video with the given digest, if a previous publish of it got as far as
+     * moving the file; null otherwise
+     */
+    public StoredFile findPublishedVideo(String sha256, String originalFilename) throws IOException {
+        String fileName = sha256 + extensionOf(originalFilename);
+        Path path = videoPath(fileName);
+        return Files.exists(path) ? new StoredFile(fileName, Files.size(path), sha256) : null;
+    }
+
+    /**
+     * Stream an image into the store, hashing and counting it in the same pass
+     */
+    public StoredFile storeImage(InputStream in, String originalFilename, long maxBytes) throws IOException {
+        Files.createDirectories(Paths.get(imageDir));
+        Path temp = Paths.get(imageDir, UUID.randomUUID() + ".part");
+        StoredFile written = writeHashed(in, temp, maxBytes);
+        return publish(temp, Paths.get(imageDir), written, extensionOf(originalFilename));
+    }
+
+    /**
+     * Move a fully written temp file to its content-addressed name, or drop it if that
+     * content is already stored, and count the new reference
+     */
+    private StoredFile publish(Path temp, Path dir, StoredFile written, String extension) throws IOException {
+        String fileName = written.sha256() + extension;
+        Path target = dir.resolve(fileName);
+        synchronized (lockFor(fileName)) {
+            try {
+                if (Files.exists(target)) {
+                    Files.delete(temp);
+                } else {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            } catch (FileAlreadyExistsException e) {
+                Files.deleteIfExists(temp);
+            }
+            mediaObjectRepository.acquire(fileName, written.sha256(), written.size());
+        }
+        return new StoredFile(fileName, written.size(), written.sha256());
+    }
+
+    private StoredFile writeHashed(InputStream in, Path path, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        long size = 0;
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new PayloadTooLargeException("File exceeds the maximum size of " + maxBytes + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    out.write(chunk);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        return new StoredFile(path.getFileName().toString(), size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Create an empty video file preallocated to its final size for a resumable upload
      */
-    public String saveVideo(MultipartFile file) throws IOException {
+    public String allocateVideo(String originalFilename, long size) throws IOException {
         Files.createDirectories(Paths.get(videoDir));
-        String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-        Path path = Paths.get(videoDir, fileName);
-        Files.copy(file.getInputStream(), path);
+        String fileName = UUID.randomUUID() + "_" + Paths.get(originalFilename).getFileName();
+        try (RandomAccessFile file = new RandomAccessFile(Paths.get(videoDir, fileName).toFile(), "rw")) {
+            file.setLength(size);
+        }
         return fileName;
     }
 
+    /**
+     * Resolve the path of a stored video file
+     */
+    public Path videoPath(String fileName) {
+        return Paths.get(videoDir, fileName);
+    }
+
+    /**
+     * Hash a video that was written in place (a resumable upload) so it can be published
+     */
+    public StoredFile hashVideo(String fileName) throws IOException {
+        MessageDigest digest = sha256();
+        long size = 0;
+        try (FileChannel channel = FileChannel.open(videoPath(fileName), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+            int read;
+            while ((read = channel.read(buffer)) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+                size += read;
+            }
+        }
+        return new StoredFile(fileName, size, HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Drop one reference to a stored video; the file is deleted once nothing refers to it
+     */
+    public void deleteVideo(String fileName) throws IOException {
+        release(videoPath(fileName));
+    }
+
+    /**
+     * Drop one reference to a stored image; the file is deleted once nothing refers to it
+     */
+    public void deleteImage(String fileName) throws IOException {
+        release(Paths.get(imageDir, fileName));
+    }
+
+    private void release(Path path) throws IOException {
+        String fileName = path.getFileName().toString();
+        synchronized (lockFor(fileName)) {
+            // Files from before the store was content-addressed (and temp files) have no row and one owner
+            if (mediaObjectRepository.existsById(fileName)) {
+                mediaObjectRepository.release(fileName);
+                if (mediaObjectRepository.deleteUnreferenced(fileName) == 0) {
+                    return;
+                }
+            }
+            Files.deleteIfExists(path);
+            // A later upload of the same content must not be served from the deleted file's state
+            fileChannelCache.invalidate(path);
+            hotSegmentCache.invalidate(fileName);
+            initSegmentCache.invalidate(fileName);
+        }
+    }
+
     /**
      * Save image file (poster/thumbnail) to the server
      */
     public String saveImage(MultipartFile file) throws IOException {
-        Files.createDirectories(Paths.get(imageDir));
-        String fileName = UUID.randomUUID() + "_" + file.getOriginalFilename();
-        Path path = Paths.get(imageDir, fileName);
-        Files.copy(file.getInputStream(), path);
-        return fileName;
+        try (InputStream in = file.getInputStream()) {
+            return storeImage(in, file.getOriginalFilename(), Long.MAX_VALUE).fileName();
+        }
+    }
+
+    /**
+     * Strong ETag for a content-addressed file name, or null for legacy UUID names
+     */
+    public static String etagOf(String fileName) {
+        Matcher matcher = CONTENT_ADDRESSED.matcher(fileName);
+        return matcher.matches() ? ETags.strong(matcher.group(1)) : null;
+    }
+
+    /**
+     * Strong ETag for a derived representation (e.g. a resized image) of a content-addressed file
+     */
+    public static String etagOf(String fileName, String representation) {
+        Matcher matcher = CONTENT_ADDRESSED.matcher(fileName);
+        return matcher.matches() ? ETags.strong(matcher.group(1) + "-" + representation) : null;
+    }
+
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename == null) {
+            return "";
+        }
+        Matcher matcher = EXTENSION.matcher(originalFilename);
+        return matcher.find() ? "." + matcher.group(1).toLowerCase(Locale.ROOT) : "";
+    }
+
+    private Object lockFor(String fileName) {
+        return locks[Math.floorMod(fileName.hashCode(), locks.length)];
+    }
+
+    private static Object[] newLocks(int count) {
+        Object[] locks = new Object[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
     }
 
 }
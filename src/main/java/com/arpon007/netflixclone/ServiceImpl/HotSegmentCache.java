@@ -0,0 +1,327 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Off-heap cache of the leading segments of recently streamed files. Segments are
+ * memory-mapped and faulted in by a background loader, never on the request thread; a
+ * range that lies entirely in cached segments is written from the mappings, anything
+ * else goes to sendfile as before and queues its missing hot segments for loading.
+ * Hits and misses count ranges served from the mappings and ranges that were not.
+ * <p>
+ * Eviction is LRU with a second chance for frequently read segments: an eldest segment
+ * read more than once since it was last considered has its count halved and is moved to
+ * the young end instead of being dropped. Each segment has its own arena and a reference
+ * count, so an evicted or invalidated segment is unmapped as soon as the last response
+ * writing from it is done.
+ */
+@Component
+@Slf4j
+public class HotSegmentCache implements CacheStatsSource {
+
+    private static final int MAX_FREQUENCY = 15;
+
+    @Value("${file.stream.segment-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.stream.segment-cache.segment-size:1048576}")
+    private int segmentSize;
+
+    @Value("${file.stream.segment-cache.max-bytes:268435456}")
+    private long maxBytes;
+
+    @Value("${file.stream.segment-cache.hot-prefix-segments:64}")
+    private long hotPrefixSegments;
+
+    @Value("${file.stream.segment-cache.load-queue:256}")
+    private int loadQueue;
+
+    private final LinkedHashMap<SegmentKey, Segment> segments = new LinkedHashMap<>(256, 0.75f, true);
+    // Segments queued for loading; guarded by segments, like cachedBytes
+    private final Set<SegmentKey> loading = new HashSet<>();
+    private long cachedBytes;
+
+    private ThreadPoolExecutor loader;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        loader = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(loadQueue),
+                Thread.ofPlatform().name("segment-loader").daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Whether the segment containing the given file offset is eligible for caching.
+     */
+    private boolean isHot(long offset) {
+        return enabled && offset / segmentSize < hotPrefixSegments;
+    }
+
+    /**
+     * Write the range from the cache if every segment it touches is cached. Otherwise
+     * nothing is written, the hot segments of the range that are missing are queued for
+     * loading and false is returned, so the caller serves the range from the file.
+     */
+    public boolean write(Path file, long start, long count, WritableByteChannel target) throws IOException {
+        if (count <= 0 || !isHot(start)) {
+            return false;
+        }
+        String fileKey = file.getFileName().toString();
+        long first = start / segmentSize;
+        long last = (start + count - 1) / segmentSize;
+        List<Segment> acquired = new ArrayList<>();
+        boolean complete = last < hotPrefixSegments;
+        synchronized (segments) {
+            for (long index = first; index <= last && complete; index++) {
+                Segment segment = segments.get(new SegmentKey(fileKey, index));
+                // A short segment is the end of the file; nothing after it can be served
+                if (segment == null || (index < last && segment.size < segmentSize)) {
+                    complete = false;
+                } else {
+                    acquired.add(segment);
+                }
+            }
+            if (complete) {
+                for (Segment segment : acquired) {
+                    segment.refs++;
+                    segment.frequency = Math.min(MAX_FREQUENCY, segment.frequency + 1);
+                }
+            }
+        }
+        if (!complete) {
+            misses.incrementAndGet();
+            load(file, first, Math.min(last, hotPrefixSegments - 1));
+            return false;
+        }
+
+        hits.incrementAndGet();
+        try {
+            long position = start;
+            long end = start + count;
+            for (Segment segment : acquired) {
+                long segmentStart = (position / segmentSize) * segmentSize;
+                long to = Math.min(end, segmentStart + segment.size);
+                ByteBuffer bytes = segment.memory.asSlice(position - segmentStart, to - position).asByteBuffer();
+                while (bytes.hasRemaining()) {
+                    target.write(bytes);
+                }
+                position = to;
+            }
+        } finally {
+            release(acquired);
+        }
+        return true;
+    }
+
+    /**
+     * Queue the leading segments of a file for loading ahead of the first request.
+     */
+    public void warm(Path file, int segmentCount) {
+        load(file, 0, Math.min(segmentCount, hotPrefixSegments) - 1);
+    }
+
+    /**
+     * Unmap every cached segment of a file and forget its pending loads.
+     */
+    public void invalidate(String fileKey) {
+        List<Segment> dropped = new ArrayList<>();
+        synchronized (segments) {
+            loading.removeIf(key -> key.fileKey().equals(fileKey));
+            Iterator<Map.Entry<SegmentKey, Segment>> it = segments.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<SegmentKey, Segment> entry = it.next();
+                if (entry.getKey().fileKey().equals(fileKey)) {
+                    it.remove();
+                    remove(entry.getValue(), dropped);
+                }
+            }
+        }
+        dropped.forEach(Segment::unmap);
+    }
+
+    @PreDestroy
+    void close() throws InterruptedException {
+        loader.shutdownNow();
+        loader.awaitTermination(10, TimeUnit.SECONDS);
+        List<Segment> dropped = new ArrayList<>();
+        synchronized (segments) {
+            loading.clear();
+            for (Segment segment : segments.values()) {
+                remove(segment, dropped);
+            }
+            segments.clear();
+        }
+        dropped.forEach(Segment::unmap);
+    }
+
+    private void load(Path file, long firstIndex, long lastIndex) {
+        if (!enabled) {
+            return;
+        }
+        String fileKey = file.getFileName().toString();
+        for (long index = firstIndex; index <= lastIndex; index++) {
+            SegmentKey key = new SegmentKey(fileKey, index);
+            synchronized (segments) {
+                if (segments.containsKey(key) || !loading.add(key)) {
+                    continue;
+                }
+            }
+            try {
+                loader.execute(() -> map(key, file));
+            } catch (RejectedExecutionException e) {
+                // The loader is behind; the segment is queued again by a later miss
+                synchronized (segments) {
+                    loading.remove(key);
+                }
+                return;
+            }
+        }
+    }
+
+    private void map(SegmentKey key, Path file) {
+        Arena arena = Arena.ofShared();
+        Segment segment;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long offset = key.index() * segmentSize;
+            long size = Math.max(0, Math.min(segmentSize, channel.size() - offset));
+            if (size == 0) {
+                arena.close();
+                synchronized (segments) {
+                    loading.remove(key);
+                }
+                return;
+            }
+            // The mapping stays valid after the channel is closed
+            MemorySegment memory = channel.map(FileChannel.MapMode.READ_ONLY, offset, size, arena);
+            memory.load();
+            segment = new Segment(arena, memory, size);
+        } catch (IOException | RuntimeException e) {
+            arena.close();
+            synchronized (segments) {
+                loading.remove(key);
+            }
+            log.debug("Could not load segment {} of {}: {}", key.index(), key.fileKey(), e.getMessage());
+            return;
+        }
+
+        List<Segment> dropped = new ArrayList<>();
+        synchronized (segments) {
+            // Invalidated while loading
+            if (!loading.remove(key)) {
+                dropped.add(segment);
+            } else {
+                segments.put(key, segment);
+                cachedBytes += segment.size;
+                evict(segment, dropped);
+            }
+        }
+        // Unmapped outside the lock, once no response is writing from them
+        dropped.forEach(Segment::unmap);
+    }
+
+    // Caller holds the lock
+    private void evict(Segment keep, List<Segment> dropped) {
+        while (cachedBytes > maxBytes && segments.size() > 1) {
+            List<SegmentKey> secondChance = new ArrayList<>();
+            Iterator<Map.Entry<SegmentKey, Segment>> it = segments.entrySet().iterator();
+            while (cachedBytes > maxBytes && it.hasNext()) {
+                Map.Entry<SegmentKey, Segment> eldest = it.next();
+                Segment segment = eldest.getValue();
+                if (segment == keep) {
+                    continue;
+                }
+                if (segment.frequency > 1) {
+                    segment.frequency /= 2;
+                    secondChance.add(eldest.getKey());
+                    continue;
+                }
+                it.remove();
+                remove(segment, dropped);
+                evictions.incrementAndGet();
+            }
+            // Move the spared segments to the young end
+            secondChance.forEach(segments::get);
+        }
+    }
+
+    // Caller holds the lock
+    private void remove(Segment segment, List<Segment> dropped) {
+        cachedBytes -= segment.size;
+        if (--segment.refs == 0) {
+            dropped.add(segment);
+        }
+    }
+
+    private void release(List<Segment> acquired) {
+        List<Segment> dropped = new ArrayList<>();
+        synchronized (segments) {
+            for (Segment segment : acquired) {
+                if (--segment.refs == 0) {
+                    dropped.add(segment);
+                }
+            }
+        }
+        dropped.forEach(Segment::unmap);
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        synchronized (segments) {
+            return new CacheStatsResponse("video-segments", segments.size(), cachedBytes,
+                    hits.get(), misses.get(), evictions.get());
+        }
+    }
+
+    private record SegmentKey(String fileKey, long index) {
+    }
+
+    private static final class Segment {
+        private final Arena arena;
+        private final MemorySegment memory;
+        private final long size;
+        // One reference is the cache's own, the others responses writing from it; guarded by segments
+        private int refs = 1;
+        private int frequency = 1;
+
+        Segment(Arena arena, MemorySegment memory, long size) {
+            this.arena = arena;
+            this.memory = memory;
+            this.size = size;
+        }
+
+        void unmap() {
+            arena.close();
+        }
+    }
+}
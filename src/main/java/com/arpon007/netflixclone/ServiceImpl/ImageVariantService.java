@@ -0,0 +1,303 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.util.PosterVariants;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Downscaled copies of poster images, kept under {@code <image-dir>/variants}, at the
+ * widths of {@link PosterVariants}. Variants are generated by the media pipeline or on first request,
+ * the directory is held to a size budget (least recently served first out), and small
+ * variants are additionally served from {@link ThumbnailCache}. Stored images never
+ * change content, so a variant never goes stale.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImageVariantService implements CacheStatsSource {
+
+    private static final int MAX_PASSTHROUGH_ENTRIES = 10_000;
+
+    private final ThumbnailCache thumbnailCache;
+
+    @Value("${file.upload.image-dir}")
+    private String imageDir;
+
+    @Value("${file.image.variant-cache.max-bytes:1073741824}")
+    private long maxDiskBytes;
+
+    // Variant files on disk in least-recently-served order, with their sizes
+    private final LinkedHashMap<Path, Long> onDisk = new LinkedHashMap<>(256, 0.75f, true);
+    private long diskBytes;
+
+    // Images that are not decodable or already no wider than the variant; served as the original
+    private final Set<String> passthrough = ConcurrentHashMap.newKeySet();
+
+    private final Object[] locks = newLocks(32);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * A resized image ready to be written to the response
+     */
+    public record ImageVariant(Resource resource, MediaType contentType, int width) {
+    }
+
+    @PostConstruct
+    void loadExistingVariants() {
+        Path dir = Paths.get(imageDir, "variants");
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            List<Path> existing = new ArrayList<>(files.filter(Files::isRegularFile).toList());
+            existing.sort(Comparator.comparing(ImageVariantService::lastModified));
+            for (Path file : existing) {
+                if (file.getFileName().toString().endsWith(".part")) {
+                    Files.deleteIfExists(file);
+                } else {
+                    record(file, Files.size(file));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not index poster variants in {}: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * Variant of an image at least the requested width wide, generating it if needed.
+     * Returns null when the original should be served instead.
+     */
+    public ImageVariant variant(String fileName, int requestedWidth) throws IOException {
+        Integer width = PosterVariants.snapWidth(requestedWidth);
+        if (width == null) {
+            return null;
+        }
+        Path path = variantPath(fileName, width);
+        String key = path.getFileName().toString();
+        if (passthrough.contains(key)) {
+            return null;
+        }
+        MediaType contentType = contentTypeOf(fileName);
+
+        byte[] cached = thumbnailCache.get(key);
+        if (cached != null) {
+            touch(path);
+            return new ImageVariant(new ByteArrayResource(cached), contentType, width);
+        }
+
+        synchronized (lockFor(key)) {
+            if (Files.exists(path)) {
+                hits.incrementAndGet();
+                touch(path);
+            } else {
+                misses.incrementAndGet();
+                BufferedImage source = ImageIO.read(Paths.get(imageDir, fileName).toFile());
+                if (source == null || width >= source.getWidth()) {
+                    rememberPassthrough(key);
+                    return null;
+                }
+                write(scale(source, width, formatOf(fileName)), fileName, width);
+            }
+        }
+
+        try {
+            if (thumbnailCache.accepts(Files.size(path))) {
+                byte[] bytes = Files.readAllBytes(path);
+                thumbnailCache.put(key, bytes);
+                return new ImageVariant(new ByteArrayResource(bytes), contentType, width);
+            }
+        } catch (NoSuchFileException e) {
+            // Evicted by a concurrent request; the original is always there
+            return null;
+        }
+        return new ImageVariant(new FileSystemResource(path), contentType, width);
+    }
+
+    /**
+     * Generate all variants of an image ahead of the first request
+     */
+    public void generateVariants(String fileName) throws IOException {
+        BufferedImage source = null;
+        for (int width : PosterVariants.WIDTHS) {
+            Path path = variantPath(fileName, width);
+            if (Files.exists(path)) {
+                continue;
+            }
+            if (source == null) {
+                source = ImageIO.read(Paths.get(imageDir, fileName).toFile());
+                if (source == null) {
+                    log.debug("Not generating variants of {}: unsupported image format", fileName);
+                    return;
+                }
+            }
+            if (width < source.getWidth()) {
+                synchronized (lockFor(path.getFileName().toString())) {
+                    if (!Files.exists(path)) {
+                        write(scale(source, width, formatOf(fileName)), fileName, width);
+                    }
+                }
+            }
+        }
+    }
+
+    Path variantPath(String fileName, int width) {
+        int dot = fileName.lastIndexOf('.');
+        String base = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return Paths.get(imageDir, "variants", base + "_w" + width + "." + formatOf(fileName));
+    }
+
+    BufferedImage scale(BufferedImage source, int width, String format) {
+        int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+        // JPEG has no alpha channel
+        boolean alpha = source.getColorModel().hasAlpha() && !format.equals("jpg");
+        BufferedImage scaled = new BufferedImage(width, height,
+                alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    Path write(BufferedImage image, String fileName, int width) throws IOException {
+        Path target = variantPath(fileName, width);
+        Files.createDirectories(target.getParent());
+        // Write under a unique name first so concurrent readers never see a partial file
+        Path temp = target.resolveSibling(UUID.randomUUID() + ".part");
+        try {
+            if (!ImageIO.write(image, formatOf(fileName), temp.toFile())) {
+                throw new IOException("No image writer for " + formatOf(fileName));
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        record(target, Files.size(target));
+        return target;
+    }
+
+    private void record(Path path, long size) {
+        List<Path> evicted = new ArrayList<>();
+        synchronized (onDisk) {
+            Long previous = onDisk.put(path, size);
+            diskBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<Path, Long>> it = onDisk.entrySet().iterator();
+            while (diskBytes > maxDiskBytes && it.hasNext()) {
+                Map.Entry<Path, Long> eldest = it.next();
+                if (eldest.getKey().equals(path)) {
+                    break;
+                }
+                diskBytes -= eldest.getValue();
+                evicted.add(eldest.getKey());
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        for (Path file : evicted) {
+            // Evicted variants are regenerated on their next request
+            thumbnailCache.invalidate(file.getFileName().toString());
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete evicted poster variant {}: {}", file, e.getMessage());
+            }
+        }
+    }
+
+    private void touch(Path path) {
+        synchronized (onDisk) {
+            onDisk.get(path);
+        }
+    }
+
+    private void rememberPassthrough(String key) {
+        if (passthrough.size() >= MAX_PASSTHROUGH_ENTRIES) {
+            passthrough.clear();
+        }
+        passthrough.add(key);
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        synchronized (onDisk) {
+            return new CacheStatsResponse("image-variants", onDisk.size(), diskBytes,
+                    hits.get(), misses.get(), evictions.get());
+        }
+    }
+
+    private Object lockFor(String key) {
+        return locks[Math.floorMod(key.hashCode(), locks.length)];
+    }
+
+    private static Object[] newLocks(int count) {
+        Object[] locks = new Object[count];
+        for (int i = 0; i < count; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.readAttributes(file, BasicFileAttributes.class).lastModifiedTime().toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static MediaType contentTypeOf(String fileName) {
+        String format = formatOf(fileName);
+        return MediaType.parseMediaType("image/" + (format.equals("jpg") ? "jpeg" : format));
+    }
+
+    private static String formatOf(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".png")) {
+            return "png";
+        }
+        if (lower.endsWith(".gif")) {
+            return "gif";
+        }
+        return "jpg";
+    }
+}
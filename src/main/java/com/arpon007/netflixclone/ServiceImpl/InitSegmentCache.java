@@ -0,0 +1,116 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.dao.Mp4LayoutRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the init segment (ftyp + moov) of faststart MP4 files in memory so that the
+ * player's first request for a title is answered without touching the disk. Files
+ * without a recorded layout are remembered as such to avoid repeated lookups.
+ */
+@Component
+@RequiredArgsConstructor
+public class InitSegmentCache implements CacheStatsSource {
+
+    private static final byte[] NONE = new byte[0];
+
+    private final Mp4LayoutRepository mp4LayoutRepository;
+
+    @Value("${file.stream.init-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${file.stream.init-cache.max-segment-bytes:4194304}")
+    private long maxSegmentBytes;
+
+    @Value("${file.stream.init-cache.max-entries:4096}")
+    private int maxEntries;
+
+    private final LinkedHashMap<String, byte[]> segments = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Return the init segment of a file, or null if it has none (or it is too large to keep).
+     */
+    public byte[] get(String srcUuid, FileChannel channel) throws IOException {
+        byte[] cached;
+        synchronized (segments) {
+            cached = segments.get(srcUuid);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached == NONE ? null : cached;
+        }
+        misses.incrementAndGet();
+
+        long length = mp4LayoutRepository.findInitSegmentLengthBySrcUuid(srcUuid).orElse(0L);
+        byte[] segment = NONE;
+        if (length > 0 && length <= maxSegmentBytes && length <= channel.size()) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) length);
+            long position = 0;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new EOFException("File truncated while reading init segment");
+                }
+                position += read;
+            }
+            segment = buffer.array();
+        }
+        put(srcUuid, segment);
+        return segment == NONE ? null : segment;
+    }
+
+    public void invalidate(String srcUuid) {
+        synchronized (segments) {
+            byte[] removed = segments.remove(srcUuid);
+            if (removed != null) {
+                cachedBytes -= removed.length;
+            }
+        }
+    }
+
+    private void put(String srcUuid, byte[] segment) {
+        synchronized (segments) {
+            byte[] previous = segments.put(srcUuid, segment);
+            if (previous != null) {
+                cachedBytes -= previous.length;
+            }
+            cachedBytes += segment.length;
+            Iterator<Map.Entry<String, byte[]>> it = segments.entrySet().iterator();
+            while ((cachedBytes > maxBytes || segments.size() > maxEntries) && it.hasNext()) {
+                Map.Entry<String, byte[]> eldest = it.next();
+                if (eldest.getKey().equals(srcUuid)) {
+                    break;
+                }
+                cachedBytes -= eldest.getValue().length;
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        synchronized (segments) {
+            return new CacheStatsResponse("mp4-init-segments", segments.size(), cachedBytes,
+                    hits.get(), misses.get(), evictions.get());
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Writes a query result as a JSON array without materialising it: rows come from a
+ * forward-only scroll and go out through a {@link JsonGenerator} one batch at a time,
+ * and the persistence context is cleared after every batch, so memory use is bounded by
+ * the batch size rather than the table size. Must run inside a (read-only) transaction
+ * so the scroll keeps its connection.
+ * <p>
+ * Collections are loaded lazily through an empty fetch graph and then initialised for a
+ * whole batch at once by their {@code @BatchSize}, instead of one query per row.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class JsonExportService {
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.export.batch-size:100}")
+    private int batchSize;
+
+    public <E> long writeArray(String hql, Class<E> type, Map<String, Object> parameters,
+                               Function<E, ?> mapper, OutputStream out) {
+        Session session = entityManager.unwrap(Session.class);
+        SelectionQuery<E> query = session.createSelectionQuery(hql, type);
+        parameters.forEach(query::setParameter);
+        query.setFetchSize(batchSize);
+        query.setReadOnly(true);
+        query.setCacheMode(CacheMode.IGNORE);
+        query.setHint("jakarta.persistence.fetchgraph", session.createEntityGraph(type));
+
+        long rows = 0;
+        List<E> batch = new ArrayList<>(batchSize);
+        try (JsonGenerator generator = objectMapper.createGenerator(out);
+             ScrollableResults<E> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+            generator.writeStartArray();
+            while (results.next()) {
+                batch.add(results.get());
+                if (batch.size() == batchSize) {
+                    rows += flush(batch, mapper, generator, session);
+                }
+            }
+            rows += flush(batch, mapper, generator, session);
+            generator.writeEndArray();
+        }
+        log.debug("Exported {} {} rows", rows, type.getSimpleName());
+        return rows;
+    }
+
+    private <E> int flush(List<E> batch, Function<E, ?> mapper, JsonGenerator generator, Session session) {
+        for (E entity : batch) {
+            generator.writePOJO(mapper.apply(entity));
+        }
+        generator.flush();
+        int written = batch.size();
+        batch.clear();
+        session.clear();
+        return written;
+    }
+}
@@ -0,0 +1,293 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.ProcessingJobResponse;
+import com.arpon007.netflixclone.Service.MediaPipelineService;
+import com.arpon007.netflixclone.dao.ProcessingJobRepository;
+import com.arpon007.netflixclone.dao.VideoRepository;
+import com.arpon007.netflixclone.entity.ProcessingJob;
+import com.arpon007.netflixclone.entity.Video;
+import com.arpon007.netflixclone.enums.ProcessingStage;
+import com.arpon007.netflixclone.enums.VideoStatus;
+import com.arpon007.netflixclone.event.VideoChangedEvent;
+import com.arpon007.netflixclone.exception.ResourceNotFoundExCeption;
+import com.arpon007.netflixclone.util.Mp4Probe;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs uploaded videos through hash, probe, poster variants and mark-ready on two
+ * small dedicated pools, off the request threads. Disk-bound stages (hashing, moov
+ * relocation, probing) share the IO pool; image scaling runs on the CPU pool, whose
+ * threads run at reduced priority so a large ingest does not starve request handling.
+ * <p>
+ * A stage is never run on the thread that schedules it. When a pool's queue is full the
+ * job is parked (it is already saved at its current stage) and handed to the pool again
+ * by a background requeuer once there is room, so uploads and startup never block on it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MediaPipelineServiceImpl implements MediaPipelineService {
+
+    private final ProcessingJobRepository processingJobRepository;
+    private final VideoRepository videoRepository;
+    private final FileStorageService fileStorageService;
+    private final ImageVariantService imageVariantService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${media.pipeline.io-threads:2}")
+    private int ioThreads;
+
+    // 0 means one less than the number of cores
+    @Value("${media.pipeline.cpu-threads:0}")
+    private int cpuThreads;
+
+    @Value("${media.pipeline.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${media.pipeline.requeue-seconds:5}")
+    private long requeueSeconds;
+
+    private ExecutorService ioExecutor;
+    private ExecutorService cpuExecutor;
+    private ScheduledExecutorService requeuer;
+
+    // Jobs a full queue turned away; none of them is queued or running anywhere
+    private final Queue<ProcessingJob> parked = new ConcurrentLinkedQueue<>();
+
+    @PostConstruct
+    void startExecutors() {
+        int cpu = cpuThreads > 0 ? cpuThreads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        ioExecutor = newPool("media-io-", Math.max(1, ioThreads), Thread.NORM_PRIORITY, queueCapacity);
+        cpuExecutor = newPool("media-cpu-", cpu, Thread.NORM_PRIORITY - 1, queueCapacity);
+        requeuer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("media-requeue").daemon(true).factory());
+        requeuer.scheduleWithFixedDelay(this::requeueParked, requeueSeconds, requeueSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stopExecutors() throws InterruptedException {
+        requeuer.shutdownNow();
+        ioExecutor.shutdownNow();
+        cpuExecutor.shutdownNow();
+        // Interrupted jobs keep their saved stage and are resumed on the next start
+        ioExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        cpuExecutor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public ProcessingJobResponse submit(Long videoId, FileStorageService.StoredFile received, String originalFileName) {
+        ProcessingJob job = new ProcessingJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setVideoId(videoId);
+        job.setStage(ProcessingStage.HASH);
+        job.setFileName(received.fileName());
+        job.setOriginalFileName(originalFileName);
+        job.setSha256(received.sha256());
+        job.setSize(received.size());
+        job = processingJobRepository.save(job);
+
+        if (schedule(job)) {
+            log.info("Processing job {} queued for video {}", job.getId(), videoId);
+        } else {
+            log.info("Processing job {} parked for video {} until the pipeline has room", job.getId(), videoId);
+        }
+        return ProcessingJobResponse.from(job);
+    }
+
+    @Override
+    public ProcessingJobResponse getJob(String jobId) {
+        return processingJobRepository.findById(jobId)
+                .map(ProcessingJobResponse::from)
+                .orElseThrow(() -> new ResourceNotFoundExCeption("Processing job not found: " + jobId));
+    }
+
+    @Override
+    public int resumeUnfinished() {
+        List<ProcessingJob> unfinished = processingJobRepository.findByStageNotInOrderByCreatedAt(
+                EnumSet.of(ProcessingStage.DONE, ProcessingStage.FAILED));
+        unfinished.forEach(this::schedule);
+        return unfinished.size();
+    }
+
+    /**
+     * Hand the job to the pool of its stage, or park it if that pool's queue is full
+     *
+     * @return whether the job was queued
+     */
+    private boolean schedule(ProcessingJob job) {
+        ExecutorService executor = job.getStage() == ProcessingStage.POSTER_VARIANTS ? cpuExecutor : ioExecutor;
+        try {
+            executor.execute(() -> run(job));
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (!executor.isShutdown()) {
+                parked.add(job);
+            }
+            return false;
+        }
+    }
+
+    private void requeueParked() {
+        // Stop at the first job that does not fit; it is parked again and retried next time
+        for (int count = parked.size(); count > 0; count--) {
+            ProcessingJob job = parked.poll();
+            if (job == null || !schedule(job)) {
+                return;
+            }
+        }
+    }
+
+    private void run(ProcessingJob job) {
+        try {
+            Video video = videoRepository.findById(job.getVideoId()).orElse(null);
+            if (video == null) {
+                // Deleted while queued; nothing left to process
+                advance(job, ProcessingStage.DONE);
+                return;
+            }
+            switch (job.getStage()) {
+                case HASH -> hash(job, video);
+                case PROBE -> probe(job, video);
+                case POSTER_VARIANTS -> imageVariantService.generateVariants(video.getPosterUuid());
+                case MARK_READY -> markReady(video);
+                default -> {
+                    return;
+                }
+            }
+            ProcessingStage next = ProcessingStage.values()[job.getStage().ordinal() + 1];
+            advance(job, next);
+            if (next != ProcessingStage.DONE) {
+                schedule(job);
+            } else {
+                log.info("Processing job {} finished for video {}", job.getId(), job.getVideoId());
+            }
+        } catch (Exception e) {
+            fail(job, e);
+        }
+    }
+
+    private void hash(ProcessingJob job, Video video) throws IOException {
+        FileStorageService.StoredFile stored;
+        if (Files.exists(fileStorageService.videoPath(job.getFileName()))) {
+            FileStorageService.StoredFile received = job.getSha256() != null
+                    ? new FileStorageService.StoredFile(job.getFileName(), job.getSize(), job.getSha256())
+                    : fileStorageService.hashVideo(job.getFileName());
+            FileStorageService.StoredFile prepared = fileStorageService.prepareVideo(received,
+                    job.getOriginalFileName());
+            // Saved before the move, so a run that stops after it can find the published file
+            if (!prepared.sha256().equals(job.getSha256())) {
+                job.setSha256(prepared.sha256());
+                job.setSize(prepared.size());
+                save(job);
+            }
+            stored = fileStorageService.publishVideo(prepared, job.getOriginalFileName());
+        } else {
+            // A previous run published the file (and counted its reference) but stopped before the job was saved
+            stored = job.getSha256() != null
+                    ? fileStorageService.findPublishedVideo(job.getSha256(), job.getOriginalFileName())
+                    : null;
+            if (stored == null) {
+                throw new NoSuchFileException(job.getFileName());
+            }
+        }
+
+        job.setFileName(stored.fileName());
+        job.setSha256(stored.sha256());
+        job.setSize(stored.size());
+        video.setSrcUuid(stored.fileName());
+        saveAndPublish(video);
+    }
+
+    private void probe(ProcessingJob job, Video video) throws IOException {
+        Mp4Probe.MediaInfo info;
+        try (FileChannel channel = FileChannel.open(fileStorageService.videoPath(job.getFileName()),
+                StandardOpenOption.READ)) {
+            info = Mp4Probe.probe(channel);
+        }
+        if (info == null) {
+            log.info("Video {} is not a probeable MP4; keeping the metadata supplied on upload", video.getVideo_id());
+            return;
+        }
+        // Duration is stored in minutes
+        video.setDuration((int) Math.max(1, Math.round(info.durationSeconds() / 60)));
+        video.setBitrate(info.bitrate());
+        if (info.width() > 0 && info.height() > 0) {
+            video.setWidth(info.width());
+            video.setHeight(info.height());
+        }
+        videoRepository.save(video);
+    }
+
+    private void markReady(Video video) {
+        video.setStatus(VideoStatus.READY);
+        saveAndPublish(video);
+    }
+
+    private void advance(ProcessingJob job, ProcessingStage stage) {
+        job.setStage(stage);
+        save(job);
+    }
+
+    private void save(ProcessingJob job) {
+        ProcessingJob saved = processingJobRepository.save(job);
+        job.setUpdatedAt(saved.getUpdatedAt());
+    }
+
+    private void fail(ProcessingJob job, Exception e) {
+        log.error("Processing job {} failed in stage {}", job.getId(), job.getStage(), e);
+        String message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        job.setError(job.getStage() + ": " + (message.length() > 900 ? message.substring(0, 900) : message));
+        try {
+            advance(job, ProcessingStage.FAILED);
+            videoRepository.findById(job.getVideoId()).ifPresent(video -> {
+                video.setStatus(VideoStatus.FAILED);
+                saveAndPublish(video);
+            });
+        } catch (RuntimeException saveError) {
+            log.error("Could not record failure of processing job {}", job.getId(), saveError);
+        }
+    }
+
+    private void saveAndPublish(Video video) {
+        Video saved = videoRepository.save(video);
+        eventPublisher.publishEvent(new VideoChangedEvent(VideoChangedEvent.Type.UPDATED, saved));
+    }
+
+    private static ExecutorService newPool(String namePrefix, int threads, int priority, int queueCapacity) {
+        ThreadFactory factory = Thread.ofPlatform().name(namePrefix, 0).daemon(true).factory();
+        // A full queue rejects the task; schedule() parks the job instead of running it on the caller
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = factory.newThread(runnable);
+                    thread.setPriority(priority);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
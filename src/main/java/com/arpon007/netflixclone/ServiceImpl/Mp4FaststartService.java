@@ -0,0 +1,91 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.dao.Mp4LayoutRepository;
+import com.arpon007.netflixclone.entity.Mp4Layout;
+import com.arpon007.netflixclone.util.Mp4Faststart;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class Mp4FaststartService {
+
+    private final Mp4LayoutRepository mp4LayoutRepository;
+
+    @Value("${file.upload.faststart-enabled:true}")
+    private boolean faststartEnabled;
+
+    /**
+     * The box layout of an MP4 and whether its moov box was moved to the front
+     */
+    public record Layout(List<Mp4Faststart.Box> boxes, boolean relocated) {
+    }
+
+    /**
+     * Move the moov box of an uploaded MP4 to the front before it is published. Returns
+     * its box layout, or null for files that are not MP4 or cannot be parsed, which are
+     * left untouched.
+     */
+    public Layout optimize(Path file) {
+        try {
+            List<Mp4Faststart.Box> boxes;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                boxes = Mp4Faststart.scan(channel);
+            }
+            if (boxes.isEmpty()) {
+                return null;
+            }
+
+            boolean relocated = false;
+            if (faststartEnabled && Mp4Faststart.needsRelocation(boxes)) {
+                boxes = Mp4Faststart.relocateMoov(file, boxes);
+                relocated = true;
+                log.info("Relocated moov box to the front of {}", file.getFileName());
+            }
+            return new Layout(boxes, relocated);
+        } catch (IOException e) {
+            log.warn("Skipping faststart for {}: {}", file.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Record the box layout of a published video under its stored name
+     */
+    public void saveLayout(String srcUuid, Layout scanned) {
+        List<Mp4Faststart.Box> boxes = scanned.boxes();
+        Mp4Layout layout = mp4LayoutRepository.findBySrcUuid(srcUuid).orElseGet(Mp4Layout::new);
+        layout.setSrcUuid(srcUuid);
+        layout.setRelocated(scanned.relocated());
+
+        Mp4Faststart.Box last = boxes.get(boxes.size() - 1);
+        layout.setFileSize(last.end());
+
+        Mp4Faststart.Box moov = Mp4Faststart.find(boxes, "moov");
+        if (moov != null) {
+            layout.setMoovOffset(moov.offset());
+            layout.setMoovSize(moov.size());
+        }
+        Mp4Faststart.Box mdat = Mp4Faststart.find(boxes, "mdat");
+        if (mdat != null) {
+            layout.setMdatOffset(mdat.offset());
+            layout.setMdatSize(mdat.size());
+        }
+        // Only a front-loaded moov gives players everything they need before the media data
+        boolean moovFirst = moov != null && (mdat == null || moov.offset() < mdat.offset());
+        layout.setInitSegmentLength(moovFirst ? (mdat != null ? mdat.offset() : moov.end()) : 0);
+
+        String description = Mp4Faststart.describe(boxes);
+        layout.setBoxes(description.length() > 2000 ? description.substring(0, 2000) : description);
+        mp4LayoutRepository.save(layout);
+    }
+}
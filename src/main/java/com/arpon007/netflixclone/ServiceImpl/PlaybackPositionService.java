@@ -0,0 +1,287 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.event.VideoChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Playback positions for "continue watching". A heartbeat only replaces the user's
+ * position for the video in memory (last write wins) and marks it dirty; a background
+ * flusher upserts the dirty positions into playback_positions in JDBC batches, so a
+ * session sending a heartbeat every few seconds costs one row write per flush interval.
+ * <p>
+ * Positions stay in memory until they have been written and the user has not watched
+ * the video for app.playback.idle-minutes. Reads are served from memory and fall back to
+ * the table for everything older. Like the view beacons, positions are keyed by email
+ * (the JWT subject); a flush resolves the user ids of its batch with one query.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlaybackPositionService implements CacheStatsSource {
+
+    // A plain VALUES upsert, so the driver sends a batch as one multi-row statement; IGNORE skips
+    // positions of videos deleted since the heartbeat, which fail the foreign key
+    private static final String UPSERT_POSITION = "INSERT IGNORE INTO playback_positions "
+            + "(user_id, video_id, position_seconds, updated_at) VALUES (?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE position_seconds = VALUES(position_seconds), updated_at = VALUES(updated_at)";
+
+    private static final String SELECT_RECENT = "SELECT p.video_id, p.position_seconds, p.updated_at "
+            + "FROM playback_positions p JOIN users u ON u.id = p.user_id WHERE u.email = ? "
+            + "ORDER BY p.updated_at DESC LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.playback.flush-seconds:15}")
+    private long flushSeconds;
+
+    @Value("${app.playback.idle-minutes:30}")
+    private long idleMinutes;
+
+    @Value("${app.views.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * A user's position in a video and when it was reported
+     */
+    public record Position(long videoId, int seconds, long updatedAt) {
+    }
+
+    private record Key(String email, long videoId) {
+    }
+
+    // Per user, so continue watching reads one small map; changed only inside compute on the user
+    private final Map<String, Map<Long, Position>> positions = new ConcurrentHashMap<>();
+    private final Set<Key> dirty = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService flusher;
+
+    private final AtomicLong heartbeats = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("playback-flusher").daemon(true).factory());
+        flusher.scheduleWithFixedDelay(this::flush, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Record the user's position in the video; a report older than the one held is ignored
+     */
+    public void heartbeat(String email, long videoId, int seconds) {
+        heartbeats.incrementAndGet();
+        Position position = new Position(videoId, seconds, System.currentTimeMillis());
+        positions.compute(email, (key, videos) -> {
+            if (videos == null) {
+                videos = new ConcurrentHashMap<>();
+            }
+            videos.merge(videoId, position, (held, reported) ->
+                    reported.updatedAt() >= held.updatedAt() ? reported : held);
+            dirty.add(new Key(email, videoId));
+            return videos;
+        });
+    }
+
+    /**
+     * The user's position in the video in seconds, or 0 if they have not watched it
+     */
+    public int position(String email, long videoId) {
+        Map<Long, Position> videos = positions.get(email);
+        Position position = videos != null ? videos.get(videoId) : null;
+        if (position != null) {
+            hits.incrementAndGet();
+            return position.seconds();
+        }
+        misses.incrementAndGet();
+        List<Integer> stored = jdbcTemplate.queryForList("SELECT p.position_seconds FROM playback_positions p "
+                + "JOIN users u ON u.id = p.user_id WHERE u.email = ? AND p.video_id = ?", Integer.class, email, videoId);
+        return stored.isEmpty() ? 0 : stored.get(0);
+    }
+
+    /**
+     * The user's most recently watched positions, newest first
+     */
+    public List<Position> recent(String email, int limit) {
+        Map<Long, Position> merged = new HashMap<>();
+        Map<Long, Position> videos = positions.get(email);
+        if (videos != null) {
+            merged.putAll(videos);
+        }
+        // Everything not in memory is older than what is, so memory alone answers a full page
+        if (merged.size() >= limit) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            jdbcTemplate.query(SELECT_RECENT, row -> {
+                long videoId = row.getLong(1);
+                merged.putIfAbsent(videoId, new Position(videoId, row.getInt(2), row.getTimestamp(3).getTime()));
+            }, email, limit + merged.size());
+        }
+        return merged.values().stream()
+                .sorted(Comparator.comparingLong(Position::updatedAt).reversed()
+                        .thenComparing(Comparator.comparingLong(Position::videoId)))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Move the positions held for a user to their new email, once the transaction that
+     * changes it has committed
+     */
+    public void renameUser(String oldEmail, String newEmail) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    moveUser(oldEmail, newEmail);
+                }
+            });
+        } else {
+            moveUser(oldEmail, newEmail);
+        }
+    }
+
+    private void moveUser(String oldEmail, String newEmail) {
+        Map<Long, Position> videos = positions.remove(oldEmail);
+        if (videos == null) {
+            return;
+        }
+        dirty.removeIf(key -> key.email().equals(oldEmail));
+        for (Position position : videos.values()) {
+            positions.compute(newEmail, (key, held) -> {
+                if (held == null) {
+                    held = new ConcurrentHashMap<>();
+                }
+                held.merge(position.videoId(), position, (mine, moved) ->
+                        moved.updatedAt() > mine.updatedAt() ? moved : mine);
+                dirty.add(new Key(newEmail, position.videoId()));
+                return held;
+            });
+        }
+    }
+
+    /**
+     * Drop every position of a deleted user
+     */
+    public void deleteUser(String email, long userId) {
+        positions.remove(email);
+        dirty.removeIf(key -> key.email().equals(email));
+        jdbcTemplate.update("DELETE FROM playback_positions WHERE user_id = ?", userId);
+    }
+
+    @EventListener
+    public void onVideoChanged(VideoChangedEvent event) {
+        if (event.getType() != VideoChangedEvent.Type.DELETED) {
+            return;
+        }
+        long videoId = event.getVideoId();
+        for (String email : positions.keySet()) {
+            positions.computeIfPresent(email, (key, videos) -> {
+                videos.remove(videoId);
+                dirty.remove(new Key(email, videoId));
+                return videos.isEmpty() ? null : videos;
+            });
+        }
+        jdbcTemplate.update("DELETE FROM playback_positions WHERE video_id = ?", videoId);
+    }
+
+    /**
+     * Write the dirty positions and drop written positions that have gone idle
+     */
+    void flush() {
+        List<Key> keys = new ArrayList<>(dirty);
+        dirty.removeAll(keys);
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            List<Key> batch = keys.subList(from, Math.min(keys.size(), from + batchSize));
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                // Retried with the next flush
+                dirty.addAll(batch);
+                log.warn("Failed to write {} playback positions: {}", batch.size(), e.getMessage());
+            }
+        }
+
+        long idleBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(idleMinutes);
+        for (String email : positions.keySet()) {
+            positions.computeIfPresent(email, (key, videos) -> {
+                int before = videos.size();
+                videos.values().removeIf(position -> position.updatedAt() < idleBefore
+                        && !dirty.contains(new Key(email, position.videoId())));
+                evictions.addAndGet(before - videos.size());
+                return videos.isEmpty() ? null : videos;
+            });
+        }
+    }
+
+    private void write(List<Key> batch) {
+        List<String> emails = batch.stream().map(Key::email).distinct().toList();
+        Map<String, Long> userIds = new HashMap<>();
+        jdbcTemplate.queryForList("SELECT id, email FROM users WHERE email IN ("
+                        + String.join(", ", Collections.nCopies(emails.size(), "?")) + ")", emails.toArray())
+                .forEach(row -> userIds.put((String) row.get("email"), ((Number) row.get("id")).longValue()));
+
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (Key key : batch) {
+            Map<Long, Position> videos = positions.get(key.email());
+            Position position = videos != null ? videos.get(key.videoId()) : null;
+            // Users deleted since the heartbeat have no id
+            Long userId = userIds.get(key.email());
+            if (position != null && userId != null) {
+                rows.add(new Object[]{userId, key.videoId(), position.seconds(), new Timestamp(position.updatedAt())});
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_POSITION, rows));
+        log.debug("Wrote {} playback positions ({} heartbeats so far)", rows.size(), heartbeats.get());
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        long entries = 0;
+        for (Map<Long, Position> videos : positions.values()) {
+            entries += videos.size();
+        }
+        // Hits are reads answered from memory alone, misses reads that also queried the table;
+        // the size of the maps is not measured
+        return new CacheStatsResponse("playback-positions", entries, 0,
+                hits.get(), misses.get(), evictions.get());
+    }
+}
@@ -0,0 +1,329 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.DTO.response.PosterAtlasResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.dao.VideoRepository;
+import com.arpon007.netflixclone.entity.Video;
+import com.arpon007.netflixclone.event.VideoChangedEvent;
+import com.arpon007.netflixclone.exception.ServiceBusyException;
+import com.arpon007.netflixclone.util.PosterVariants;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Packs the posters of a list of videos into one JPEG sprite so a catalog row costs a
+ * single image request. Atlases are cached by a hash of the (width, sorted id set) and
+ * dropped when one of their videos is deleted or gets a different poster. The version of
+ * an atlas is a hash of the poster files it was built from, so it only changes with them.
+ * <p>
+ * The endpoint is public, so building is bounded: concurrent requests for the same atlas
+ * share one build, and at most max-concurrent-builds different atlases are built at once;
+ * requests beyond that are told to retry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PosterAtlasService implements CacheStatsSource {
+
+    private final VideoRepository videoRepository;
+    private final ImageVariantService imageVariantService;
+
+    @Value("${file.upload.image-dir}")
+    private String imageDir;
+
+    @Value("${file.image.atlas.max-ids:100}")
+    private int maxIds;
+
+    @Value("${file.image.atlas.cache-max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${file.image.atlas.max-concurrent-builds:2}")
+    private int maxConcurrentBuilds;
+
+    private final LinkedHashMap<String, Atlas> atlases = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Long, Set<String>> atlasesByVideo = new HashMap<>();
+    private long cachedBytes;
+
+    // Builds in progress by key; later requests for the same atlas wait for the first
+    private final Map<String, CompletableFuture<Atlas>> building = new ConcurrentHashMap<>();
+    private Semaphore builds;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * A packed sprite with its coordinate map. For invalidation, ids are all the videos it
+     * was requested for (drawn or not) and posters records which poster file each tile was
+     * drawn from.
+     */
+    public record Atlas(String key, String version, byte[] image, int width, int height, List<Long> ids,
+                        Map<Long, PosterAtlasResponse.Tile> tiles, Map<Long, String> posters) {
+    }
+
+    @PostConstruct
+    void start() {
+        builds = new Semaphore(maxConcurrentBuilds);
+    }
+
+    /**
+     * The atlas of the given videos. Ids are deduplicated and sorted, so every ordering of
+     * the same set maps to the same atlas; tiles are packed in ascending id order.
+     */
+    public Atlas atlas(List<Long> videoIds, int requestedWidth) throws IOException {
+        List<Long> ids = new ArrayList<>(new TreeSet<>(videoIds));
+        if (ids.isEmpty() || ids.size() > maxIds) {
+            throw new IllegalArgumentException("Between 1 and " + maxIds + " video ids are required");
+        }
+        Integer tileWidth = PosterVariants.snapWidth(requestedWidth);
+        if (tileWidth == null) {
+            throw new IllegalArgumentException("Tile width must be at most " + PosterVariants.WIDTHS.getLast());
+        }
+
+        String key = sha256Hex("w=" + tileWidth + ";ids=" + ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+        Atlas cached = cached(key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<Atlas> pending = new CompletableFuture<>();
+        CompletableFuture<Atlas> inFlight = building.putIfAbsent(key, pending);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            // Built and removed from building between our lookup and putIfAbsent
+            Atlas built = cached(key);
+            if (built == null) {
+                if (!builds.tryAcquire()) {
+                    throw new ServiceBusyException("Too many atlases are being built, please retry later", 1);
+                }
+                try {
+                    built = build(key, ids, tileWidth);
+                } finally {
+                    builds.release();
+                }
+                put(built);
+            }
+            pending.complete(built);
+            return built;
+        } catch (IOException | RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            building.remove(key, pending);
+        }
+    }
+
+    private Atlas cached(String key) {
+        synchronized (atlases) {
+            return atlases.get(key);
+        }
+    }
+
+    private static Atlas await(CompletableFuture<Atlas> inFlight) throws IOException {
+        try {
+            return inFlight.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+
+    private Atlas build(String key, List<Long> ids, int tileWidth) throws IOException {
+        Map<Long, Video> videos = new HashMap<>();
+        for (Video video : videoRepository.findAllById(ids)) {
+            videos.put(video.getVideo_id(), video);
+        }
+
+        List<Long> placed = new ArrayList<>();
+        List<BufferedImage> thumbnails = new ArrayList<>();
+        Map<Long, String> posters = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Video video = videos.get(id);
+            if (video == null || !video.isPlayable() || video.getPosterUuid() == null) {
+                continue;
+            }
+            BufferedImage thumbnail = thumbnail(video.getPosterUuid(), tileWidth);
+            if (thumbnail == null) {
+                continue;
+            }
+            placed.add(id);
+            thumbnails.add(thumbnail);
+            posters.put(id, video.getPosterUuid());
+        }
+
+        // Shelf packing: a near-square grid of fixed-width columns, each row as tall as its tallest tile
+        int columns = Math.max(1, (int) Math.ceil(Math.sqrt(thumbnails.size())));
+        Map<Long, PosterAtlasResponse.Tile> tiles = new LinkedHashMap<>();
+        int y = 0;
+        for (int row = 0; row * columns < thumbnails.size(); row++) {
+            int rowHeight = 0;
+            for (int col = 0; col < columns && row * columns + col < thumbnails.size(); col++) {
+                int index = row * columns + col;
+                BufferedImage thumbnail = thumbnails.get(index);
+                tiles.put(placed.get(index), new PosterAtlasResponse.Tile(col * tileWidth, y,
+                        thumbnail.getWidth(), thumbnail.getHeight()));
+                rowHeight = Math.max(rowHeight, thumbnail.getHeight());
+            }
+            y += rowHeight;
+        }
+        int width = Math.min(columns, Math.max(1, thumbnails.size())) * tileWidth;
+        int height = Math.max(1, y);
+
+        BufferedImage sprite = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = sprite.createGraphics();
+        try {
+            graphics.setColor(Color.BLACK);
+            graphics.fillRect(0, 0, width, height);
+            for (int i = 0; i < placed.size(); i++) {
+                PosterAtlasResponse.Tile tile = tiles.get(placed.get(i));
+                graphics.drawImage(thumbnails.get(i), tile.getX(), tile.getY(), null);
+            }
+        } finally {
+            graphics.dispose();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(sprite, "jpg", out);
+
+        String version = sha256Hex(key + ";" + posters).substring(0, 32);
+        return new Atlas(key, version, out.toByteArray(), width, height, List.copyOf(ids), tiles, posters);
+    }
+
+    /**
+     * Poster scaled to exactly the tile width, starting from the smallest variant that is wide enough
+     */
+    private BufferedImage thumbnail(String posterUuid, int tileWidth) throws IOException {
+        Path original = Paths.get(imageDir, posterUuid);
+        if (!Files.exists(original)) {
+            return null;
+        }
+        ImageVariantService.ImageVariant variant = imageVariantService.variant(posterUuid, tileWidth);
+        BufferedImage image;
+        try (InputStream in = variant != null ? variant.resource().getInputStream() : Files.newInputStream(original)) {
+            image = ImageIO.read(in);
+        }
+        if (image == null) {
+            log.debug("Skipping undecodable poster {} in atlas", posterUuid);
+            return null;
+        }
+        return image.getWidth() == tileWidth ? image : imageVariantService.scale(image, tileWidth, "jpg");
+    }
+
+    private void put(Atlas atlas) {
+        synchronized (atlases) {
+            Atlas previous = atlases.put(atlas.key(), atlas);
+            if (previous != null) {
+                cachedBytes -= previous.image().length;
+            }
+            cachedBytes += atlas.image().length;
+            for (Long id : atlas.ids()) {
+                atlasesByVideo.computeIfAbsent(id, k -> new HashSet<>()).add(atlas.key());
+            }
+            Iterator<Map.Entry<String, Atlas>> it = atlases.entrySet().iterator();
+            while (cachedBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, Atlas> eldest = it.next();
+                if (eldest.getKey().equals(atlas.key())) {
+                    break;
+                }
+                it.remove();
+                unlink(eldest.getValue());
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    @EventListener
+    public void onVideoChanged(VideoChangedEvent event) {
+        Video video = event.getVideo();
+        boolean deleted = event.getType() == VideoChangedEvent.Type.DELETED;
+        synchronized (atlases) {
+            Set<String> keys = atlasesByVideo.get(event.getVideoId());
+            if (keys == null) {
+                return;
+            }
+            for (String key : List.copyOf(keys)) {
+                Atlas atlas = atlases.get(key);
+                // A video requested but not drawn (not created yet, not ready, no poster) may now have a tile
+                String drawn = atlas != null ? atlas.posters().get(event.getVideoId()) : null;
+                if (atlas != null && (deleted || drawn == null || !video.isPlayable()
+                        || !drawn.equals(video.getPosterUuid()))) {
+                    atlases.remove(key);
+                    unlink(atlas);
+                }
+            }
+        }
+    }
+
+    private void unlink(Atlas atlas) {
+        cachedBytes -= atlas.image().length;
+        for (Long id : atlas.ids()) {
+            Set<String> keys = atlasesByVideo.get(id);
+            if (keys != null) {
+                keys.remove(atlas.key());
+                if (keys.isEmpty()) {
+                    atlasesByVideo.remove(id);
+                }
+            }
+        }
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        synchronized (atlases) {
+            return new CacheStatsResponse("poster-atlases", atlases.size(), cachedBytes,
+                    hits.get(), misses.get(), evictions.get());
+        }
+    }
+
+    private static String sha256Hex(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.StreamUrlResponse;
+import com.arpon007.netflixclone.Security.StreamUrlSigner;
+import com.arpon007.netflixclone.dao.UserRepository;
+import com.arpon007.netflixclone.entity.User;
+import com.arpon007.netflixclone.exception.InvalidStreamUrlException;
+import com.arpon007.netflixclone.exception.ResourceNotFoundExCeption;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Issues signed stream URLs for /api/files/video/{file} and checks them on each request.
+ * A URL is bound to the user it was issued to and expires within minutes; a request that
+ * also carries a JWT must come from that same user.
+ */
+@Service
+@RequiredArgsConstructor
+public class StreamUrlService {
+
+    public static final String TOKEN_PARAM = "st";
+
+    private final StreamUrlSigner streamUrlSigner;
+    private final VideoLocatorCache videoLocatorCache;
+    private final UserRepository userRepository;
+
+    // Disable only for local development with clients that still use plain /api/files/video URLs
+    @Value("${app.stream-url.required:true}")
+    private boolean required;
+
+    public StreamUrlResponse issue(String email, Long videoId) throws IOException {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundExCeption("User not found: " + email));
+        String srcUuid = videoLocatorCache.resolve(videoId).srcUuid();
+        Instant now = Instant.now();
+        String url = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/files/video/{file}")
+                .queryParam(TOKEN_PARAM, streamUrlSigner.sign(user.getId(), srcUuid, now))
+                .buildAndExpand(srcUuid)
+                .toUriString();
+        return new StreamUrlResponse(url, streamUrlSigner.expiryOf(now));
+    }
+
+    /**
+     * Reject the request unless it carries a valid token for this file (or tokens are optional and absent),
+     * issued to the authenticated user if there is one
+     */
+    public void check(String fileName, String token) {
+        if (token == null && !required) {
+            return;
+        }
+        Long userId = streamUrlSigner.verify(token, fileName, Instant.now());
+        if (userId == null) {
+            throw new InvalidStreamUrlException("Stream URL is invalid or has expired");
+        }
+        // Players do not send the JWT with media requests; when a client does, it must be the URL's user
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return;
+        }
+        Long callerId = userRepository.findByEmail(authentication.getName()).map(User::getId).orElse(null);
+        if (!userId.equals(callerId)) {
+            throw new InvalidStreamUrlException("Stream URL was issued to another user");
+        }
+    }
+}
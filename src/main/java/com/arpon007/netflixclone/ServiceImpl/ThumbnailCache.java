@@ -0,0 +1,85 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small in-heap LRU of encoded poster variants. Only images up to max-entry-bytes are
+ * kept, which in practice means the catalog-grid thumbnails requested on every browse.
+ */
+@Component
+public class ThumbnailCache implements CacheStatsSource {
+
+    @Value("${file.image.thumbnail-cache.max-bytes:16777216}")
+    private long maxBytes;
+
+    @Value("${file.image.thumbnail-cache.max-entry-bytes:262144}")
+    private long maxEntryBytes;
+
+    private final LinkedHashMap<String, byte[]> images = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public byte[] get(String key) {
+        byte[] image;
+        synchronized (images) {
+            image = images.get(key);
+        }
+        (image != null ? hits : misses).incrementAndGet();
+        return image;
+    }
+
+    public boolean accepts(long size) {
+        return size <= maxEntryBytes && size <= maxBytes;
+    }
+
+    public void put(String key, byte[] image) {
+        if (!accepts(image.length)) {
+            return;
+        }
+        synchronized (images) {
+            byte[] previous = images.put(key, image);
+            if (previous != null) {
+                cachedBytes -= previous.length;
+            }
+            cachedBytes += image.length;
+            Iterator<Map.Entry<String, byte[]>> it = images.entrySet().iterator();
+            while (cachedBytes > maxBytes && it.hasNext()) {
+                Map.Entry<String, byte[]> eldest = it.next();
+                if (eldest.getKey().equals(key)) {
+                    break;
+                }
+                cachedBytes -= eldest.getValue().length;
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidate(String key) {
+        synchronized (images) {
+            byte[] removed = images.remove(key);
+            if (removed != null) {
+                cachedBytes -= removed.length;
+            }
+        }
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        synchronized (images) {
+            return new CacheStatsResponse("image-thumbnails", images.size(), cachedBytes,
+                    hits.get(), misses.get(), evictions.get());
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.DTO.response.VideoResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.util.TrendingSketch;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * "Trending now": videos ranked by recent views, decayed by age. Views are counted into
+ * a {@link TrendingSketch} of hourly buckets covering a week, fed by
+ * {@link ViewIngestService} as views are written, so ranking costs constant memory and
+ * never queries video_views. Rankings are recomputed at most every
+ * app.trending.refresh-seconds per window and category. The overall ranking scores the
+ * sketch's own candidates; a category's ranking scores every member listed by the
+ * {@link CategoryIndexService}, so a niche category is ranked even when none of its
+ * videos is among the heaviest overall.
+ */
+@Service
+@RequiredArgsConstructor
+public class TrendingService implements CacheStatsSource {
+
+    private static final long BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final int BUCKETS = 168;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final VideoSearchService videoSearchService;
+    private final CategoryIndexService categoryIndexService;
+
+    @Value("${app.trending.refresh-seconds:30}")
+    private long refreshSeconds;
+
+    @Value("${app.trending.sketch-width:2048}")
+    private int sketchWidth;
+
+    @Value("${app.trending.candidates-per-hour:256}")
+    private int candidatesPerHour;
+
+    /**
+     * Supported windows: buckets counted and the age at which a bucket weighs half
+     */
+    private enum Window {
+        HOUR("1h", 2, 1),
+        DAY("24h", 24, 6),
+        WEEK("7d", BUCKETS, 24);
+
+        final String name;
+        final int buckets;
+        final double halfLife;
+
+        Window(String name, int buckets, double halfLife) {
+            this.name = name;
+            this.buckets = buckets;
+            this.halfLife = halfLife;
+        }
+
+        static Window of(String name) {
+            for (Window window : values()) {
+                if (window.name.equalsIgnoreCase(name)) {
+                    return window;
+                }
+            }
+            throw new IllegalArgumentException("Window must be one of 1h, 24h, 7d");
+        }
+    }
+
+    private record Ranking(long computedAt, List<TrendingSketch.Scored> videos) {
+    }
+
+    // Category is lower-cased, or null for the overall ranking
+    private record RankingKey(Window window, String category) {
+    }
+
+    private TrendingSketch sketch;
+    private final Map<RankingKey, Ranking> rankings = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        sketch = new TrendingSketch(BUCKETS, BUCKET_MILLIS, sketchWidth, 4, candidatesPerHour);
+    }
+
+    /**
+     * Replay the last week of video_views into the sketch; returns the number of views read
+     */
+    public long load() {
+        AtomicLong count = new AtomicLong();
+        Timestamp since = new Timestamp(System.currentTimeMillis() - BUCKETS * BUCKET_MILLIS);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT video_id, viewed_at FROM video_views WHERE viewed_at >= ?");
+            statement.setTimestamp(1, since);
+            statement.setFetchSize(1000);
+            return statement;
+        }, row -> {
+            sketch.add(row.getLong(1), row.getTimestamp(2).getTime());
+            count.incrementAndGet();
+        });
+        rankings.clear();
+        return count.get();
+    }
+
+    public void record(long videoId, long viewedAt) {
+        sketch.add(videoId, viewedAt);
+    }
+
+    /**
+     * Most trending videos of the window, optionally only those in a category
+     */
+    public List<VideoResponse> trending(String window, String category, int limit) {
+        if (limit < 1 || limit > VideoSearchService.MAX_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + VideoSearchService.MAX_RESULTS);
+        }
+        Window parsed = Window.of(window);
+        boolean byCategory = category != null && !category.isBlank();
+        List<Long> ids = new ArrayList<>(limit);
+        for (TrendingSketch.Scored scored : ranking(parsed, byCategory ? category : null)) {
+            if (ids.size() == limit) {
+                break;
+            }
+            if (videoSearchService.contains(scored.id())
+                    && (!byCategory || categoryIndexService.hasCategory(scored.id(), category))) {
+                ids.add(scored.id());
+            }
+        }
+        return videoSearchService.toResponses(ids);
+    }
+
+    private List<TrendingSketch.Scored> ranking(Window window, String category) {
+        RankingKey key = new RankingKey(window, category != null ? category.trim().toLowerCase(Locale.ROOT) : null);
+        long now = System.currentTimeMillis();
+        Ranking ranking = rankings.get(key);
+        if (ranking != null && now - ranking.computedAt() < TimeUnit.SECONDS.toMillis(refreshSeconds)) {
+            hits.incrementAndGet();
+            return ranking.videos();
+        }
+        misses.incrementAndGet();
+        List<Long> members = category != null ? categoryIndexService.videoIds(category) : null;
+        if (members != null && members.isEmpty()) {
+            // Not cached, so unknown category names cannot grow the map
+            return List.of();
+        }
+        // One recomputation per ranking at a time; concurrent callers get its result
+        return rankings.compute(key, (k, previous) ->
+                previous != null && previous != ranking ? previous
+                        : new Ranking(now, members == null
+                        ? sketch.top(window.buckets, window.halfLife, now)
+                        : sketch.score(members, window.buckets, window.halfLife, now))).videos();
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        // Entries are the cached window and category rankings; hits and misses are ranking lookups
+        return new CacheStatsResponse("trending-sketch", rankings.size(), sketch.sizeInBytes(),
+                hits.get(), misses.get(), 0);
+    }
+}
@@ -0,0 +1,225 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.util.HyperLogLog;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distinct viewers per video and (UTC) day as {@link HyperLogLog} sketches. Every view
+ * beacon updates today's sketch of its video and of the whole catalog in memory; a
+ * background flusher merges the changed sketches into video_daily_viewers in batches.
+ * The distinct viewers of a date range are the estimate of the union of its daily
+ * sketches, so a report reads one small blob per day instead of counting distinct users
+ * over video_views.
+ * <p>
+ * Merging is idempotent, so the flusher can always merge memory into the stored sketch
+ * (which also restores today's sketch after a restart). Only the last two days are kept
+ * in memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UniqueViewerService implements CacheStatsSource {
+
+    /**
+     * Video id under which the viewers of the whole catalog are counted
+     */
+    public static final long ALL_VIDEOS = 0;
+    public static final int MAX_RANGE_DAYS = 366;
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private static final String SELECT_DAY = "SELECT video_id, sketch FROM video_daily_viewers "
+            + "WHERE view_day = ? AND video_id IN (%s)";
+    private static final String UPSERT_SKETCH = "INSERT INTO video_daily_viewers (video_id, view_day, sketch, updated_at) "
+            + "VALUES (?, ?, ?, ?) ON DUPLICATE KEY UPDATE sketch = VALUES(sketch), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VideoSearchService videoSearchService;
+
+    @Value("${app.views.unique.flush-seconds:60}")
+    private long flushSeconds;
+
+    @Value("${app.views.batch-size:500}")
+    private int batchSize;
+
+    private record Key(long videoId, long day) {
+    }
+
+    /**
+     * Distinct viewers over a range and per day of it
+     */
+    public record Range(long uniqueViewers, Map<LocalDate, Long> perDay) {
+    }
+
+    private final Map<Key, HyperLogLog> sketches = new ConcurrentHashMap<>();
+    private final Set<Key> dirty = ConcurrentHashMap.newKeySet();
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("unique-viewer-flush").daemon(true).factory());
+        flusher.scheduleWithFixedDelay(this::flush, flushSeconds, flushSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Count a viewer (any stable 64-bit id of the user) of the video at the given time
+     */
+    public void record(long viewer, long videoId, long timeMillis) {
+        // Unknown ids would otherwise grow the map with sketches nobody reads
+        if (!videoSearchService.contains(videoId)) {
+            return;
+        }
+        long day = Math.floorDiv(timeMillis, DAY_MILLIS);
+        add(new Key(videoId, day), viewer);
+        add(new Key(ALL_VIDEOS, day), viewer);
+    }
+
+    private void add(Key key, long viewer) {
+        if (sketches.computeIfAbsent(key, k -> new HyperLogLog()).add(viewer)) {
+            dirty.add(key);
+        }
+    }
+
+    /**
+     * Distinct viewers of the video (or {@link #ALL_VIDEOS}) from one day to another, inclusive
+     */
+    public Range uniqueViewers(long videoId, LocalDate from, LocalDate to) {
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        if (days < 1 || days > MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Range must be between 1 and " + MAX_RANGE_DAYS + " days");
+        }
+        Map<LocalDate, HyperLogLog> byDay = new TreeMap<>();
+        jdbcTemplate.query("SELECT view_day, sketch FROM video_daily_viewers "
+                        + "WHERE video_id = ? AND view_day BETWEEN ? AND ?",
+                row -> {
+                    byDay.put(row.getObject(1, LocalDate.class), HyperLogLog.fromBytes(row.getBytes(2)));
+                }, videoId, Date.valueOf(from), Date.valueOf(to));
+
+        HyperLogLog union = new HyperLogLog();
+        Map<LocalDate, Long> perDay = new LinkedHashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            // Views not flushed yet
+            HyperLogLog pending = sketches.get(new Key(videoId, date.toEpochDay()));
+            HyperLogLog sketch = byDay.get(date);
+            if (pending != null) {
+                if (sketch == null) {
+                    sketch = new HyperLogLog();
+                }
+                sketch.merge(pending);
+            }
+            if (sketch == null) {
+                perDay.put(date, 0L);
+            } else {
+                union.merge(sketch);
+                perDay.put(date, sketch.estimate());
+            }
+        }
+        return new Range(union.estimate(), perDay);
+    }
+
+    /**
+     * Merge the changed sketches into the stored ones and drop sketches of past days
+     */
+    void flush() {
+        List<Key> keys = new ArrayList<>(dirty);
+        dirty.removeAll(keys);
+        Map<Long, List<Key>> byDay = new HashMap<>();
+        for (Key key : keys) {
+            byDay.computeIfAbsent(key.day(), d -> new ArrayList<>()).add(key);
+        }
+        for (Map.Entry<Long, List<Key>> day : byDay.entrySet()) {
+            List<Key> dayKeys = day.getValue();
+            for (int from = 0; from < dayKeys.size(); from += batchSize) {
+                List<Key> batch = dayKeys.subList(from, Math.min(dayKeys.size(), from + batchSize));
+                try {
+                    write(day.getKey(), batch);
+                } catch (RuntimeException e) {
+                    // Retried with the next flush
+                    dirty.addAll(batch);
+                    log.warn("Failed to write {} unique viewer sketches: {}", batch.size(), e.getMessage());
+                }
+            }
+        }
+
+        long today = Math.floorDiv(System.currentTimeMillis(), DAY_MILLIS);
+        sketches.keySet().removeIf(key -> key.day() < today - 1 && !dirty.contains(key));
+    }
+
+    private void write(long day, List<Key> batch) {
+        Date date = Date.valueOf(LocalDate.ofEpochDay(day));
+        String placeholders = String.join(", ", Collections.nCopies(batch.size(), "?"));
+        Object[] params = new Object[batch.size() + 1];
+        params[0] = date;
+        for (int i = 0; i < batch.size(); i++) {
+            params[i + 1] = batch.get(i).videoId();
+        }
+        Map<Long, byte[]> stored = new HashMap<>();
+        jdbcTemplate.query(SELECT_DAY.formatted(placeholders),
+                row -> {
+                    stored.put(row.getLong(1), row.getBytes(2));
+                }, params);
+
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (Key key : batch) {
+            HyperLogLog sketch = sketches.get(key);
+            if (sketch == null) {
+                continue;
+            }
+            byte[] previous = stored.get(key.videoId());
+            if (previous != null) {
+                sketch.merge(HyperLogLog.fromBytes(previous));
+            }
+            rows.add(new Object[]{key.videoId(), date, sketch.toBytes(), now});
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SKETCH, rows));
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        // Entries are the in-memory daily sketches. Queries always read the stored days as
+        // well, so there is nothing that hits or misses
+        long bytes = 0;
+        int entries = 0;
+        for (HyperLogLog sketch : sketches.values()) {
+            bytes += sketch.sizeInBytes();
+            entries++;
+        }
+        return new CacheStatsResponse("unique-viewers", entries, bytes, 0, 0, 0);
+    }
+}
@@ -2,21 +2,28 @@ package com.arpon007.netflixclone.ServiceImpl;
 
 import com.arpon007.netflixclone.DTO.request.UpdateProfileRequest;
 import com.arpon007.netflixclone.DTO.response.MessageResponse;
+import com.arpon007.netflixclone.DTO.response.PageResponse;
+import com.arpon007.netflixclone.DTO.response.PlaybackPositionResponse;
 import com.arpon007.netflixclone.DTO.response.UserResponse;
 import com.arpon007.netflixclone.DTO.response.VideoResponse;
 import com.arpon007.netflixclone.Service.UserService;
 import com.arpon007.netflixclone.dao.UserRepository;
 import com.arpon007.netflixclone.dao.VideoRepository;
-import com.arpon007.netflixclone.dao.VideoViewRepository;
+import com.arpon007.netflixclone.dao.WatchlistEntryRepository;
 import com.arpon007.netflixclone.entity.User;
-import com.arpon007.netflixclone.entity.Video;
-import com.arpon007.netflixclone.entity.VideoView;
+import com.arpon007.netflixclone.entity.WatchlistEntry;
 import com.arpon007.netflixclone.exception.ResourceNotFoundExCeption;
+import com.arpon007.netflixclone.exception.ServiceBusyException;
+import com.arpon007.netflixclone.util.CatalogCursor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -26,8 +33,19 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final VideoRepository videoRepository;
-    private final VideoViewRepository videoViewRepository;
+    private final WatchlistEntryRepository watchlistEntryRepository;
     private final FileStorageService fileStorageService;
+    private final WatchlistCache watchlistCache;
+    private final ViewIngestService viewIngestService;
+    private final ViewCounterService viewCounterService;
+    private final PlaybackPositionService playbackPositionService;
+    private final VideoSearchService videoSearchService;
+
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_CONTINUE_WATCHING = 20;
+    // Share of a video after which it counts as finished
+    private static final double FINISHED_FRACTION = 0.95;
 
     @Override
     public UserResponse getUserProfile(String email) {
@@ -53,70 +71,151 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @Transactional
     public MessageResponse addToWatchlist(String email, Long videoId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundExCeption("User not found"));
-
-        Video video = videoRepository.findById(videoId)
-                .orElseThrow(() -> new ResourceNotFoundExCeption("Video not found"));
-
-        user.addToWatchList(video);
-        userRepository.save(user);
+        // 0 rows means the entry already existed, or the video does not exist
+        if (watchlistEntryRepository.add(email, videoId, Instant.now()) == 0 && !videoRepository.existsById(videoId)) {
+            throw new ResourceNotFoundExCeption("Video not found");
+        }
+        watchlistCache.added(email, videoId);
 
         return new MessageResponse("Video added to watchlist");
     }
 
     @Override
-    @Transactional
     public MessageResponse removeFromWatchlist(String email, Long videoId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundExCeption("User not found"));
-
-        Video video = videoRepository.findById(videoId)
-                .orElseThrow(() -> new ResourceNotFoundExCeption("Video not found"));
-
-        user.removeFromWatchList(video);
-        userRepository.save(user);
+        if (watchlistEntryRepository.remove(email, videoId) == 0 && !videoRepository.existsById(videoId)) {
+            throw new ResourceNotFoundExCeption("Video not found");
+        }
+        watchlistCache.removed(email, videoId);
 
         return new MessageResponse("Video removed from watchlist");
     }
 
     @Override
     public List<VideoResponse> getWatchlist(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundExCeption("User not found"));
+        return toResponses(watchlistEntryRepository.findPage(email, Limit.unlimited()));
+    }
+
+    @Override
+    public PageResponse<VideoResponse> getWatchlist(String email, String cursor, Integer size) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+
+        Limit limit = Limit.of(pageSize + 1);
+        List<WatchlistEntry> entries;
+        if (cursor == null || cursor.isBlank()) {
+            entries = watchlistEntryRepository.findPage(email, limit);
+        } else {
+            CatalogCursor after = CatalogCursor.decode(cursor);
+            entries = watchlistEntryRepository.findPageAfter(email, after.createdAt(), after.id(), limit);
+        }
+        boolean hasNext = entries.size() > pageSize;
+        if (hasNext) {
+            entries = entries.subList(0, pageSize);
+        }
+
+        List<VideoResponse> videos = toResponses(entries);
+        String nextCursor = null;
+        if (hasNext) {
+            WatchlistEntry last = entries.getLast();
+            nextCursor = new CatalogCursor(last.getAddedAt(), last.getId().getVideoId()).encode();
+        }
+        return PageResponse.keyset(videos, pageSize, nextCursor);
+    }
 
-        return user.getWatchList().stream()
-                .map(video -> {
-                    video.setIsInWatchList(true);
-                    return VideoResponse.from(video);
+    private static List<VideoResponse> toResponses(List<WatchlistEntry> entries) {
+        return entries.stream()
+                .map(entry -> {
+                    entry.getVideo().setIsInWatchList(true);
+                    return VideoResponse.from(entry.getVideo());
                 })
                 .collect(Collectors.toList());
     }
 
     @Override
-    @Transactional
     public MessageResponse recordVideoView(String email, Long videoId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundExCeption("User not found"));
+        return switch (viewIngestService.record(email, videoId)) {
+            case ACCEPTED -> new MessageResponse("Video view recorded");
+            case DUPLICATE -> new MessageResponse("Video already viewed");
+            // 503 with Retry-After, so the client sends the beacon again
+            case DROPPED -> throw new ServiceBusyException("Video view not recorded, please retry later", 1);
+        };
+    }
 
-        Video video = videoRepository.findById(videoId)
-                .orElseThrow(() -> new ResourceNotFoundExCeption("Video not found"));
+    @Override
+    public long getVideoViewCount(long videoId) {
+        return viewCounterService.get(videoId);
+    }
 
-        // Only record if user hasn't viewed this video before
-        if (!videoViewRepository.existsByUserIdAndVideoId(user.getId(), videoId)) {
-            VideoView view = new VideoView(user, video);
-            videoViewRepository.save(view);
-            return new MessageResponse("Video view recorded");
+    @Override
+    public Map<Long, Long> getVideoViewCounts(List<Long> videoIds) {
+        if (videoIds.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " video ids per request");
         }
+        return viewCounterService.getAll(videoIds);
+    }
 
-        return new MessageResponse("Video already viewed");
+    @Override
+    public void updatePlaybackPosition(String email, Long videoId, Integer seconds) {
+        if (seconds == null || seconds < 0) {
+            throw new IllegalArgumentException("Position must be zero or more seconds");
+        }
+        if (!videoSearchService.contains(videoId)) {
+            throw new ResourceNotFoundExCeption("Video not found");
+        }
+        playbackPositionService.heartbeat(email, videoId, seconds);
     }
 
     @Override
-    public Long getVideoViewCount(Long videoId) {
-        return videoViewRepository.countViewsByVideoId(videoId);
+    public Integer getPlaybackPosition(String email, Long videoId) {
+        return playbackPositionService.position(email, videoId);
+    }
+
+    @Override
+    public List<PlaybackPositionResponse> getContinueWatching(String email, Integer limit) {
+        int size = limit == null ? DEFAULT_CONTINUE_WATCHING : limit;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        // Read just the page; only when finished or deleted videos were skipped, read further back
+        int fetch = size;
+        while (true) {
+            List<PlaybackPositionService.Position> positions = playbackPositionService.recent(email, fetch);
+            List<PlaybackPositionResponse> results = continueWatching(positions, size);
+            if (results.size() == size || positions.size() < fetch || fetch >= MAX_PAGE_SIZE) {
+                return results;
+            }
+            fetch = Math.min(MAX_PAGE_SIZE, fetch * 2);
+        }
+    }
+
+    private List<PlaybackPositionResponse> continueWatching(List<PlaybackPositionService.Position> positions,
+                                                            int size) {
+        Map<Long, VideoResponse> videos = videoSearchService.toResponses(
+                        positions.stream().map(PlaybackPositionService.Position::videoId).toList())
+                .stream()
+                .collect(Collectors.toMap(VideoResponse::getId, video -> video));
+        List<PlaybackPositionResponse> results = new ArrayList<>(size);
+        for (PlaybackPositionService.Position position : positions) {
+            VideoResponse video = videos.get(position.videoId());
+            if (video == null || position.seconds() == 0 || isFinished(video, position.seconds())) {
+                continue;
+            }
+            results.add(new PlaybackPositionResponse(video, position.seconds(),
+                    Instant.ofEpochMilli(position.updatedAt())));
+            if (results.size() == size) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    // Duration is stored in minutes
+    private static boolean isFinished(VideoResponse video, int seconds) {
+        return video.getDuration() != null && video.getDuration() > 0
+                && seconds >= video.getDuration() * 60 * FINISHED_FRACTION;
     }
 
     @Override
@@ -131,6 +230,8 @@ public class UserServiceImpl implements UserService {
                 throw new IllegalArgumentException("Email already in use");
             }
             user.setEmail(request.getEmail());
+            watchlistCache.invalidate(email);
+            playbackPositionService.renameUser(email, request.getEmail());
         }
 
         user.setFullName(request.getFullName());
@@ -167,7 +268,10 @@ public class UserServiceImpl implements UserService {
             throw new IllegalArgumentException("Admin accounts cannot be deleted");
         }
 
+        watchlistEntryRepository.deleteByUserId(user.getId());
+        playbackPositionService.deleteUser(email, user.getId());
         userRepository.delete(user);
+        watchlistCache.invalidate(email);
         return new MessageResponse("Account deleted successfully");
     }
 }
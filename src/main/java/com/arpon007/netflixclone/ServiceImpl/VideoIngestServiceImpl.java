@@ -0,0 +1,137 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.request.VideoRequest;
+import com.arpon007.netflixclone.DTO.response.ProcessingJobResponse;
+import com.arpon007.netflixclone.DTO.response.VideoResponse;
+import com.arpon007.netflixclone.Service.MediaPipelineService;
+import com.arpon007.netflixclone.Service.VideoIngestService;
+import com.arpon007.netflixclone.Service.VideoService;
+import com.arpon007.netflixclone.exception.PayloadTooLargeException;
+import com.arpon007.netflixclone.util.MultipartStreamParser;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Single-pass ingest of the multipart upload request. Parts are read straight off the
+ * request body: the video and poster are written to disk while being hashed and
+ * size-checked. The rest of the work is handed to the media pipeline.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VideoIngestServiceImpl implements VideoIngestService {
+
+    private static final int MAX_DATA_PART_BYTES = 64 * 1024;
+
+    private final FileStorageService fileStorageService;
+    private final VideoService videoService;
+    private final MediaPipelineService mediaPipelineService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Value("${file.upload.max-video-size:5368709120}")
+    private long maxVideoSize;
+
+    @Value("${file.upload.max-image-size:20971520}")
+    private long maxImageSize;
+
+    @Override
+    public ProcessingJobResponse ingest(String contentType, long contentLength, InputStream body) throws IOException {
+        String boundary = boundaryOf(contentType);
+        if (contentLength > maxVideoSize + maxImageSize + MAX_DATA_PART_BYTES) {
+            throw new PayloadTooLargeException("Upload exceeds the maximum request size");
+        }
+
+        VideoRequest request = null;
+        FileStorageService.StoredFile video = null;
+        String videoFileName = null;
+        FileStorageService.StoredFile poster = null;
+        try {
+            MultipartStreamParser parser = new MultipartStreamParser(body, boundary);
+            MultipartStreamParser.Part part;
+            while ((part = parser.next()) != null) {
+                if ("data".equals(part.name())) {
+                    request = readRequest(part.body());
+                } else if ("video".equals(part.name()) && part.isFile() && video == null) {
+                    video = fileStorageService.receiveVideo(part.body(), maxVideoSize);
+                    videoFileName = part.filename();
+                } else if ("poster".equals(part.name()) && part.isFile() && poster == null) {
+                    poster = fileStorageService.storeImage(part.body(), part.filename(), maxImageSize);
+                }
+            }
+
+            if (request == null) {
+                throw new IllegalArgumentException("Video metadata ('data' part) is required");
+            }
+            if (video == null || video.size() == 0) {
+                throw new IllegalArgumentException("Video file is required");
+            }
+            if (poster == null || poster.size() == 0) {
+                throw new IllegalArgumentException("Poster image is required");
+            }
+
+            log.info("Received video {} ({} bytes, sha256 {})", videoFileName, video.size(), video.sha256());
+            VideoResponse created = videoService.upload(request, video.fileName(), poster.fileName());
+            return mediaPipelineService.submit(created.getId(), video, videoFileName);
+        } catch (IOException | RuntimeException e) {
+            // Do not leave orphaned files behind when the request fails part way
+            discard(video, poster);
+            throw e;
+        }
+    }
+
+    private void discard(FileStorageService.StoredFile video, FileStorageService.StoredFile poster) {
+        try {
+            if (video != null) {
+                fileStorageService.deleteVideo(video.fileName());
+            }
+            if (poster != null) {
+                fileStorageService.deleteImage(poster.fileName());
+            }
+        } catch (IOException e) {
+            log.warn("Failed to clean up files of an aborted upload", e);
+        }
+    }
+
+    private VideoRequest readRequest(InputStream in) throws IOException {
+        byte[] json = in.readNBytes(MAX_DATA_PART_BYTES + 1);
+        if (json.length > MAX_DATA_PART_BYTES) {
+            throw new PayloadTooLargeException("Video metadata is too large");
+        }
+        VideoRequest request = objectMapper.readValue(json, VideoRequest.class);
+        Set<ConstraintViolation<VideoRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return request;
+    }
+
+    private static String boundaryOf(String contentType) {
+        if (contentType == null) {
+            throw new IllegalArgumentException("Content-Type multipart/form-data is required");
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        String boundary = mediaType.getParameter("boundary");
+        if (!MediaType.MULTIPART_FORM_DATA.includes(mediaType) || boundary == null || boundary.isEmpty()) {
+            throw new IllegalArgumentException("Content-Type multipart/form-data with a boundary is required");
+        }
+        if (boundary.length() >= 2 && boundary.startsWith("\"") && boundary.endsWith("\"")) {
+            boundary = boundary.substring(1, boundary.length() - 1);
+        }
+        return boundary;
+    }
+}
@@ -0,0 +1,100 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.dao.VideoRepository;
+import com.arpon007.netflixclone.event.VideoChangedEvent;
+import com.arpon007.netflixclone.exception.ResourceNotFoundExCeption;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache resolving a video id to the file that backs it, so that seeks on
+ * /api/videos/stream/{id} do not hit the database. Entries are dropped when the video
+ * is updated or deleted.
+ */
+@Component
+@RequiredArgsConstructor
+public class VideoLocatorCache implements CacheStatsSource {
+
+    private final VideoRepository videoRepository;
+
+    @Value("${file.upload.video-dir}")
+    private String videoDir;
+
+    @Value("${file.stream.locator-cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final LinkedHashMap<Long, VideoLocation> locations = new LinkedHashMap<>(256, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public VideoLocation resolve(Long videoId) throws IOException {
+        synchronized (locations) {
+            VideoLocation cached = locations.get(videoId);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+
+        String srcUuid = videoRepository.findPlayableSrcUuidById(videoId)
+                .orElseThrow(() -> new ResourceNotFoundExCeption("Video not found with id: " + videoId));
+        Path path = Paths.get(videoDir).resolve(srcUuid).normalize();
+        long length;
+        try {
+            length = Files.size(path);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundExCeption("Video file not found for id: " + videoId);
+        }
+        VideoLocation location = new VideoLocation(srcUuid, path, VideoStreamingService.contentTypeOf(path), length);
+
+        synchronized (locations) {
+            locations.put(videoId, location);
+            if (locations.size() > maxEntries) {
+                Long eldest = locations.keySet().iterator().next();
+                locations.remove(eldest);
+                evictions.incrementAndGet();
+            }
+        }
+        return location;
+    }
+
+    public void invalidate(Long videoId) {
+        synchronized (locations) {
+            locations.remove(videoId);
+        }
+    }
+
+    @EventListener
+    public void onVideoChanged(VideoChangedEvent event) {
+        if (event.getType() != VideoChangedEvent.Type.CREATED) {
+            invalidate(event.getVideoId());
+        }
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        synchronized (locations) {
+            return new CacheStatsResponse("video-locations", locations.size(), 0,
+                    hits.get(), misses.get(), evictions.get());
+        }
+    }
+
+    public record VideoLocation(String srcUuid, Path path, MediaType contentType, long length) {
+    }
+}
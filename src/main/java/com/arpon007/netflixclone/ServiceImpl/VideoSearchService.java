@@ -0,0 +1,111 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.DTO.response.VideoResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.entity.Video;
+import com.arpon007.netflixclone.event.VideoChangedEvent;
+import com.arpon007.netflixclone.util.Bm25Index;
+import com.arpon007.netflixclone.util.IdBitmap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full-text search over the titles, descriptions and categories of playable videos
+ * ({@link Video#isPlayable()}). The index and the
+ * videos it returns are held in memory, loaded once at startup by
+ * {@link com.arpon007.netflixclone.config.CatalogIndexLoader} and kept current from
+ * {@link VideoChangedEvent}, so a search never queries the database.
+ */
+@Service
+@RequiredArgsConstructor
+public class VideoSearchService implements CacheStatsSource {
+
+    public static final int MAX_RESULTS = 100;
+
+    // Title, description, categories
+    private final Bm25Index index = new Bm25Index(3f, 1f, 2f);
+    private final Map<Long, Video> videos = new ConcurrentHashMap<>();
+
+    private final WatchlistCache watchlistCache;
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong emptySearches = new AtomicLong();
+
+    public void index(Video video) {
+        if (!video.isPlayable()) {
+            remove(video.getVideo_id());
+            return;
+        }
+        videos.put(video.getVideo_id(), video);
+        index.put(video.getVideo_id(), video.getTitle(), video.getDescription(),
+                video.getCategories() != null ? String.join(" ", video.getCategories()) : null);
+    }
+
+    @EventListener
+    public void onVideoChanged(VideoChangedEvent event) {
+        if (event.getType() == VideoChangedEvent.Type.DELETED) {
+            remove(event.getVideoId());
+        } else {
+            index(event.getVideo());
+        }
+    }
+
+    private void remove(long videoId) {
+        videos.remove(videoId);
+        index.remove(videoId);
+    }
+
+    /**
+     * Best matching videos first
+     */
+    public List<VideoResponse> search(String query, int limit) {
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_RESULTS);
+        }
+        searches.incrementAndGet();
+        List<Bm25Index.Hit> hits = index.search(query, limit);
+        if (hits.isEmpty()) {
+            emptySearches.incrementAndGet();
+            return List.of();
+        }
+        return toResponses(hits.stream().map(Bm25Index.Hit::key).toList());
+    }
+
+    /**
+     * Responses for the given videos in order, with the caller's watchlist flags; unknown ids are skipped
+     */
+    public List<VideoResponse> toResponses(List<Long> videoIds) {
+        IdBitmap watchList = watchlistCache.forCurrentUser();
+        List<VideoResponse> results = new ArrayList<>(videoIds.size());
+        for (Long videoId : videoIds) {
+            Video video = videos.get(videoId);
+            if (video != null) {
+                VideoResponse response = VideoResponse.from(video);
+                if (watchList != null) {
+                    response.setIsWatchList(watchList.contains(videoId));
+                }
+                results.add(response);
+            }
+        }
+        return results;
+    }
+
+    public boolean contains(long videoId) {
+        return videos.containsKey(videoId);
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        // Hits and misses are searches with and without results
+        return new CacheStatsResponse("search-index", index.size(), index.sizeInBytes(),
+                searches.get() - emptySearches.get(), emptySearches.get(), 0);
+    }
+}
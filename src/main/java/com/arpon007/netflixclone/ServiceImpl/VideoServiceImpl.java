@@ -1,54 +1,103 @@
 package com.arpon007.netflixclone.ServiceImpl;
 
 import com.arpon007.netflixclone.DTO.request.VideoRequest;
+import com.arpon007.netflixclone.DTO.response.PageResponse;
 import com.arpon007.netflixclone.DTO.response.VideoResponse;
 import com.arpon007.netflixclone.Service.VideoService;
 import com.arpon007.netflixclone.dao.VideoRepository;
+import com.arpon007.netflixclone.dao.WatchlistEntryRepository;
 import com.arpon007.netflixclone.entity.Video;
+import com.arpon007.netflixclone.enums.VideoStatus;
+import com.arpon007.netflixclone.event.VideoChangedEvent;
+import com.arpon007.netflixclone.util.CatalogCursor;
+import com.arpon007.netflixclone.util.IdBitmap;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class VideoServiceImpl implements VideoService {
 
     private final com.arpon007.netflixclone.dao.UserRepository userRepository;
     private final VideoRepository videoRepository;
+    private final WatchlistEntryRepository watchlistEntryRepository;
     private final FileStorageService fileStorageService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JsonExportService jsonExportService;
+    private final WatchlistCache watchlistCache;
 
-    @Override
-    public List<VideoResponse> getAll() {
-        List<VideoResponse> responses = videoRepository.findAll()
-                .stream()
-                .map(VideoResponse::from)
-                .toList();
+    private static final int DEFAULT_PAGE_SIZE = 24;
+    private static final int MAX_PAGE_SIZE = 100;
 
-        try {
-            String email = org.springframework.security.core.context.SecurityContextHolder.getContext()
-                    .getAuthentication().getName();
-            if (email != null && !email.equals("anonymousUser")) {
-                com.arpon007.netflixclone.entity.User user = userRepository.findByEmail(email).orElse(null);
-                if (user != null) {
-                    java.util.Set<Long> watchlistIds = user.getWatchList().stream()
-                            .map(Video::getVideo_id)
-                            .collect(java.util.stream.Collectors.toSet());
-
-                    responses.forEach(v -> v.setIsWatchList(watchlistIds.contains(v.getId())));
-                }
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(OutputStream out) {
+        IdBitmap watchList = watchlistCache.forCurrentUser();
+        jsonExportService.writeArray("FROM Video v WHERE " + VideoRepository.PLAYABLE + " ORDER BY v.video_id", Video.class, Map.of(), video -> {
+            VideoResponse response = VideoResponse.from(video);
+            if (watchList != null) {
+                response.setIsWatchList(watchList.contains(response.getId()));
             }
-        } catch (Exception e) {
-            // Ignore if no auth or error
+            return response;
+        }, out);
+    }
+
+    @Override
+    public PageResponse<VideoResponse> getPage(String cursor, Integer size, String category, Boolean published) {
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        String categoryFilter = category == null || category.isBlank() ? null : category.trim();
+
+        // One row past the page tells whether there is a next page without a count query
+        Limit limit = Limit.of(pageSize + 1);
+        List<Video> videos;
+        if (cursor == null || cursor.isBlank()) {
+            videos = videoRepository.findCatalogPage(categoryFilter, published, limit);
+        } else {
+            CatalogCursor after = CatalogCursor.decode(cursor);
+            videos = videoRepository.findCatalogPageAfter(categoryFilter, published, after.createdAt(), after.id(), limit);
+        }
+        boolean hasNext = videos.size() > pageSize;
+        if (hasNext) {
+            videos = videos.subList(0, pageSize);
+        }
+
+        List<VideoResponse> responses = videos.stream().map(VideoResponse::from).toList();
+        markWatchList(responses);
+
+        String nextCursor = null;
+        if (hasNext) {
+            Video last = videos.getLast();
+            nextCursor = new CatalogCursor(last.getCreatedAt(), last.getVideo_id()).encode();
         }
+        return PageResponse.keyset(responses, pageSize, nextCursor);
+    }
 
-        return responses;
+    /**
+     * Flag the videos of a page that are in the current user's watchlist, looking up only those ids
+     */
+    private void markWatchList(List<VideoResponse> responses) {
+        IdBitmap watchList = watchlistCache.forCurrentUser();
+        if (watchList != null) {
+            responses.forEach(v -> v.setIsWatchList(watchList.contains(v.getId())));
+        }
     }
 
     @Override
-    public VideoResponse upload(VideoRequest request, MultipartFile videoFile, MultipartFile posterFile) throws IOException {
+    public VideoResponse upload(VideoRequest request, String srcUuid, String posterUuid) {
         Video video = new Video();
 
         // Map all required fields from request
@@ -66,17 +115,17 @@ public class VideoServiceImpl implements VideoService {
             video.setCategories(request.getCategories());
         }
 
-        // Save video file (required)
-        video.setSrcUuid(fileStorageService.saveVideo(videoFile));
-
-        // Save poster image (required)
-        if (posterFile != null && !posterFile.isEmpty()) {
-            video.setPosterUuid(fileStorageService.saveImage(posterFile));
-        } else {
-            throw new IllegalArgumentException("Poster image is required");
+        // Video file and poster image are stored by the caller (both required)
+        if (srcUuid == null || posterUuid == null) {
+            throw new IllegalArgumentException("Video file and poster image are required");
         }
+        video.setSrcUuid(srcUuid);
+        video.setPosterUuid(posterUuid);
+        // The media pipeline marks the video ready once the file is processed
+        video.setStatus(VideoStatus.PROCESSING);
 
         Video saved = videoRepository.save(video);
+        eventPublisher.publishEvent(new VideoChangedEvent(VideoChangedEvent.Type.CREATED, saved));
         return VideoResponse.from(saved);
     }
 
@@ -99,23 +148,33 @@ public class VideoServiceImpl implements VideoService {
             video.setDescription(request.getDescription());
         }
 
+        String previousPoster = null;
         if (poster != null && !poster.isEmpty()) {
-            // Delete old poster if exists (optional cleanup)
-            // Save new poster
+            previousPoster = video.getPosterUuid();
             video.setPosterUuid(fileStorageService.saveImage(poster));
         }
 
         Video updatedVideo = videoRepository.save(video);
+        eventPublisher.publishEvent(new VideoChangedEvent(VideoChangedEvent.Type.UPDATED, updatedVideo));
+        if (previousPoster != null && !previousPoster.equals(updatedVideo.getPosterUuid())) {
+            fileStorageService.deleteImage(previousPoster);
+        }
         return VideoResponse.from(updatedVideo);
     }
 
     @Override
     public void delete(Long id) {
         Video video = getById(id);
-        // Delete files (optional: implement file deletion in FileStorageService)
-        // fileStorageService.deleteFile(video.getSrcUuid());
-        // fileStorageService.deleteFile(video.getPosterUuid());
-
+        watchlistEntryRepository.deleteByVideoId(id);
         videoRepository.delete(video);
+        eventPublisher.publishEvent(new VideoChangedEvent(VideoChangedEvent.Type.DELETED, video));
+
+        // Media files are shared by content, so this only drops this video's references
+        try {
+            fileStorageService.deleteVideo(video.getSrcUuid());
+            fileStorageService.deleteImage(video.getPosterUuid());
+        } catch (IOException e) {
+            log.warn("Failed to release media files of video {}", id, e);
+        }
     }
 }
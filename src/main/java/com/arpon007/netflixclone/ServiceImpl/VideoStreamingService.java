@@ -0,0 +1,237 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.exception.RangeNotSatisfiableException;
+import com.arpon007.netflixclone.exception.ResourceNotFoundExCeption;
+import com.arpon007.netflixclone.util.ByteRange;
+import com.arpon007.netflixclone.util.ETags;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Serves (partial) file content straight from the page cache. Ranges within the MP4
+ * init segment are answered from {@link InitSegmentCache}; everything else is handed to
+ * the connector's sendfile support when available and otherwise pushed with
+ * {@link FileChannel#transferTo}.
+ * Ranges that lie in the cached hot prefix of a file are written from {@link HotSegmentCache}.
+ * Multi-range requests are answered as multipart/byteranges.
+ */
+@Service
+@RequiredArgsConstructor
+public class VideoStreamingService {
+
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+    public static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final FileChannelCache fileChannelCache;
+    private final HotSegmentCache hotSegmentCache;
+    private final InitSegmentCache initSegmentCache;
+
+    @Value("${file.stream.max-chunk-size:4194304}")
+    private long maxChunkSize;
+
+    @Value("${file.stream.max-ranges:16}")
+    private int maxRanges;
+
+    @Value("${file.stream.sendfile-enabled:true}")
+    private boolean sendfileEnabled;
+
+    public static MediaType contentTypeOf(Path file) {
+        return MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+    }
+
+    /**
+     * Stream the given file honouring the request's Range header.
+     */
+    public void stream(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        stream(file, contentTypeOf(file), -1, request, response);
+    }
+
+    /**
+     * Stream a file whose content type and length are already known to the caller.
+     * A negative length is looked up from the open channel.
+     */
+    public void stream(Path file, MediaType contentType, long knownLength,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        stream(file, contentType, knownLength, null, request, response);
+    }
+
+    /**
+     * Stream an immutable file identified by a strong ETag. The response is marked as
+     * cacheable forever, If-None-Match is answered with 304 and a Range request whose
+     * If-Range does not match the ETag gets the full file. A null ETag disables all of this.
+     */
+    public void stream(Path file, MediaType contentType, long knownLength, String etag,
+                       HttpServletRequest request, HttpServletResponse response) throws IOException {
+        try (FileChannelCache.Lease lease = acquire(file)) {
+            FileChannel channel = lease.channel();
+            long length = knownLength >= 0 ? knownLength : channel.size();
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            if (etag != null) {
+                response.setHeader(HttpHeaders.ETAG, etag);
+                response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL);
+                if (ETags.noneMatchHits(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                    response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                    return;
+                }
+            }
+
+            String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+            if (etag != null && !ETags.ifRangeHolds(request.getHeader(HttpHeaders.IF_RANGE), etag)) {
+                rangeHeader = null;
+            }
+
+            List<ByteRange> ranges;
+            try {
+                ranges = ByteRange.parse(rangeHeader, length, maxRanges);
+            } catch (RangeNotSatisfiableException e) {
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + e.getResourceLength());
+                return;
+            }
+
+            boolean headRequest = HttpMethod.HEAD.matches(request.getMethod());
+            if (ranges.isEmpty()) {
+                response.setStatus(HttpServletResponse.SC_OK);
+                response.setContentType(contentType.toString());
+                response.setContentLengthLong(length);
+                if (!headRequest) {
+                    writeRegion(file, channel, 0, length, request, response);
+                }
+            } else if (ranges.size() == 1) {
+                ByteRange range = ranges.get(0).capTo(maxChunkSize);
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setContentType(contentType.toString());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, range.toContentRange(length));
+                response.setContentLengthLong(range.length());
+                if (!headRequest) {
+                    writeRegion(file, channel, range.getStart(), range.length(), request, response);
+                }
+            } else {
+                writeMultipart(file, channel, ranges, length, contentType, headRequest, response);
+            }
+        }
+    }
+
+    private FileChannelCache.Lease acquire(Path file) throws IOException {
+        try {
+            return fileChannelCache.acquire(file);
+        } catch (NoSuchFileException e) {
+            throw new ResourceNotFoundExCeption("File not found: " + file.getFileName());
+        }
+    }
+
+    private void writeRegion(Path file, FileChannel channel, long start, long count,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (count == 0) {
+            return;
+        }
+        String fileKey = file.getFileName().toString();
+        byte[] initSegment = initSegmentCache.get(fileKey, channel);
+        // Only ranges inside the init segment come from the heap; a longer one (a full GET) is worth sendfile
+        if (initSegment != null && start + count <= initSegment.length) {
+            Channels.newChannel(response.getOutputStream()).write(ByteBuffer.wrap(initSegment, (int) start, (int) count));
+            return;
+        }
+        if (hotSegmentCache.write(file, start, count, Channels.newChannel(response.getOutputStream()))) {
+            return;
+        }
+        if (sendfileEnabled && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+            // Let the connector push the region with sendfile once the response is committed
+            request.setAttribute(SENDFILE_FILENAME_ATTR, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START_ATTR, start);
+            request.setAttribute(SENDFILE_END_ATTR, start + count);
+            return;
+        }
+        transfer(channel, start, count, Channels.newChannel(response.getOutputStream()));
+    }
+
+    private void writeMultipart(Path file, FileChannel channel, List<ByteRange> ranges, long length,
+                                MediaType contentType, boolean headRequest, HttpServletResponse response)
+            throws IOException {
+        String boundary = UUID.randomUUID().toString().replace("-", "");
+        byte[][] partHeaders = new byte[ranges.size()][];
+        long contentLength = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            partHeaders[i] = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + range.toContentRange(length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            contentLength += partHeaders[i].length + range.length();
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (headRequest) {
+            return;
+        }
+
+        String fileKey = file.getFileName().toString();
+        byte[] initSegment = initSegmentCache.get(fileKey, channel);
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        for (int i = 0; i < ranges.size(); i++) {
+            ByteRange range = ranges.get(i);
+            out.write(partHeaders[i]);
+            if (initSegment != null && range.getStart() < initSegment.length
+                    || !hotSegmentCache.write(file, range.getStart(), range.length(), target)) {
+                copyRange(initSegment, channel, range.getStart(), range.length(), target);
+            }
+        }
+        out.write(closing);
+    }
+
+    private void copyRange(byte[] initSegment, FileChannel channel, long start, long count,
+                           WritableByteChannel target) throws IOException {
+        long position = start;
+        long end = start + count;
+        if (initSegment != null && position < initSegment.length) {
+            int to = (int) Math.min(initSegment.length, end);
+            target.write(ByteBuffer.wrap(initSegment, (int) position, to - (int) position));
+            position = to;
+        }
+        if (position < end) {
+            transfer(channel, position, end - position, target);
+        }
+    }
+
+    private void transfer(FileChannel channel, long start, long count, WritableByteChannel target) throws IOException {
+        long position = start;
+        long remaining = count;
+        while (remaining > 0) {
+            long sent = channel.transferTo(position, remaining, target);
+            if (sent <= 0) {
+                throw new EOFException("File truncated while streaming");
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+}
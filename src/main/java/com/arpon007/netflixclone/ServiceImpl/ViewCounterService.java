@@ -0,0 +1,295 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.dao.VideoViewRepository;
+import com.arpon007.netflixclone.event.VideoChangedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * View count per video, kept in memory as one {@link LongAdder} per video in an array
+ * indexed by video id (ids are dense), so a read is an array load and a sum with no
+ * query and no allocation. Counts are bumped by {@link ViewIngestService} for every row
+ * it writes, and checkpointed to video_view_counts in the background; only counts that
+ * changed since the last checkpoint are written.
+ * <p>
+ * At startup the checkpoint is used if it still adds up to the number of rows in
+ * video_views; otherwise (first start, crash between checkpoints) the counts are rebuilt
+ * from video_views with one grouped scan and checkpointed in full.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ViewCounterService implements CacheStatsSource {
+
+    private static final String UPSERT_COUNT = "INSERT INTO video_view_counts (video_id, view_count, updated_at) "
+            + "VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE view_count = VALUES(view_count), updated_at = VALUES(updated_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final VideoViewRepository videoViewRepository;
+
+    @Value("${app.views.counters.checkpoint-seconds:60}")
+    private long checkpointSeconds;
+
+    @Value("${app.views.batch-size:500}")
+    private int batchSize;
+
+    // Replaced (grown) under the lock; slots are filled in once and then only incremented
+    private volatile LongAdder[] counters = new LongAdder[1024];
+    // Count last written per video; only touched by load and checkpoint, under the lock
+    private long[] persisted = new long[1024];
+    private volatile boolean loaded;
+    private final Object lock = new Object();
+
+    private ScheduledExecutorService checkpointer;
+
+    // Summed only for stats, so concurrent reads do not contend on one cache line
+    private final LongAdder reads = new LongAdder();
+    private final AtomicLong fallbackReads = new AtomicLong();
+
+    @PostConstruct
+    void start() {
+        checkpointer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("view-counter-checkpoint").daemon(true).factory());
+        checkpointer.scheduleWithFixedDelay(this::checkpoint, checkpointSeconds, checkpointSeconds, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        checkpointer.shutdown();
+        checkpointer.awaitTermination(10, TimeUnit.SECONDS);
+        // Views flushed on shutdown are counted by now, as the ingest service is stopped first
+        checkpoint();
+    }
+
+    /**
+     * Fill the counters from the checkpoint, or from video_views if the checkpoint is stale.
+     * Must run before any view is counted.
+     */
+    public void load() {
+        long viewRows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM video_views", Long.class);
+        long checkpointed = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(view_count), 0) FROM video_view_counts", Long.class);
+        boolean warm = viewRows > 0 && checkpointed == viewRows;
+        String sql = warm
+                ? "SELECT video_id, view_count FROM video_view_counts"
+                : "SELECT video_id, COUNT(*) FROM video_views GROUP BY video_id";
+        synchronized (lock) {
+            jdbcTemplate.query(sql, row -> {
+                long videoId = row.getLong(1);
+                long count = row.getLong(2);
+                if (slot(videoId) >= 0) {
+                    adderFor(videoId).add(count);
+                    if (warm) {
+                        persisted[slot(videoId)] = count;
+                    }
+                }
+            });
+            if (!warm) {
+                // Drop rows of videos that no longer have views before writing the full checkpoint
+                jdbcTemplate.update("DELETE FROM video_view_counts");
+            }
+            loaded = true;
+        }
+        log.info("Loaded view counts of {} views from {}", viewRows, warm ? "the checkpoint" : "video_views");
+        if (!warm) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Count one more view of the video
+     */
+    public void increment(long videoId) {
+        int slot = slot(videoId);
+        if (slot < 0) {
+            return;
+        }
+        LongAdder[] current = counters;
+        LongAdder counter = slot < current.length ? current[slot] : null;
+        if (counter == null) {
+            synchronized (lock) {
+                counter = adderFor(videoId);
+            }
+        }
+        counter.increment();
+    }
+
+    public long get(long videoId) {
+        reads.increment();
+        if (!loaded) {
+            fallbackReads.incrementAndGet();
+            return videoViewRepository.countViewsByVideoId(videoId);
+        }
+        return sum(counters, videoId);
+    }
+
+    /**
+     * View counts of many videos at once, in the order given; unknown videos count 0
+     */
+    public long[] get(long[] videoIds) {
+        reads.add(videoIds.length);
+        long[] counts = new long[videoIds.length];
+        if (!loaded) {
+            fallbackReads.addAndGet(videoIds.length);
+            for (int i = 0; i < videoIds.length; i++) {
+                counts[i] = videoViewRepository.countViewsByVideoId(videoIds[i]);
+            }
+            return counts;
+        }
+        LongAdder[] current = counters;
+        for (int i = 0; i < videoIds.length; i++) {
+            counts[i] = sum(current, videoIds[i]);
+        }
+        return counts;
+    }
+
+    /**
+     * Views of all videos together
+     */
+    public long total() {
+        if (!loaded) {
+            return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM video_views", Long.class);
+        }
+        long total = 0;
+        for (LongAdder counter : counters) {
+            if (counter != null) {
+                total += counter.sum();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Map of video id to count for the given ids, for service callers
+     */
+    public Map<Long, Long> getAll(List<Long> videoIds) {
+        long[] ids = videoIds.stream().mapToLong(Long::longValue).toArray();
+        long[] counts = get(ids);
+        Map<Long, Long> result = new LinkedHashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            result.put(ids[i], counts[i]);
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onVideoChanged(VideoChangedEvent event) {
+        if (event.getType() != VideoChangedEvent.Type.DELETED) {
+            return;
+        }
+        int slot = slot(event.getVideoId());
+        synchronized (lock) {
+            if (slot >= 0 && slot < counters.length) {
+                counters[slot] = null;
+                persisted[slot] = 0;
+            }
+        }
+        jdbcTemplate.update("DELETE FROM video_view_counts WHERE video_id = ?", event.getVideoId());
+    }
+
+    /**
+     * Write the counts that changed since the last checkpoint
+     */
+    void checkpoint() {
+        if (!loaded) {
+            return;
+        }
+        try {
+            synchronized (lock) {
+                LongAdder[] current = counters;
+                List<long[]> changed = new ArrayList<>();
+                for (int slot = 0; slot < current.length; slot++) {
+                    if (current[slot] != null) {
+                        long count = current[slot].sum();
+                        if (count != persisted[slot]) {
+                            changed.add(new long[]{slot, count});
+                        }
+                    }
+                }
+                if (changed.isEmpty()) {
+                    return;
+                }
+                Timestamp now = new Timestamp(System.currentTimeMillis());
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.batchUpdate(UPSERT_COUNT, changed, batchSize, (statement, entry) -> {
+                            statement.setLong(1, entry[0]);
+                            statement.setLong(2, entry[1]);
+                            statement.setTimestamp(3, now);
+                        }));
+                for (long[] entry : changed) {
+                    persisted[(int) entry[0]] = entry[1];
+                }
+                log.debug("Checkpointed view counts of {} videos", changed.size());
+            }
+        } catch (RuntimeException e) {
+            // Retried with the next checkpoint
+            log.warn("View count checkpoint failed: {}", e.getMessage());
+        }
+    }
+
+    private static long sum(LongAdder[] current, long videoId) {
+        int slot = slot(videoId);
+        if (slot < 0 || slot >= current.length) {
+            return 0;
+        }
+        LongAdder counter = current[slot];
+        return counter != null ? counter.sum() : 0;
+    }
+
+    // Index of the video's counter, or -1 for ids that do not fit an array
+    private static int slot(long videoId) {
+        return videoId >= 0 && videoId < Integer.MAX_VALUE - 8 ? (int) videoId : -1;
+    }
+
+    // Callers hold the lock
+    private LongAdder adderFor(long videoId) {
+        int slot = slot(videoId);
+        LongAdder[] current = counters;
+        if (slot >= current.length) {
+            int grown = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(slot + 1L, current.length * 2L));
+            current = Arrays.copyOf(current, grown);
+            persisted = Arrays.copyOf(persisted, grown);
+        }
+        if (current[slot] == null) {
+            current[slot] = new LongAdder();
+        }
+        counters = current;
+        return current[slot];
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        LongAdder[] current = counters;
+        long entries = 0;
+        for (LongAdder counter : current) {
+            if (counter != null) {
+                entries++;
+            }
+        }
+        // Hits are reads served from memory, misses reads that fell back to COUNT queries
+        return new CacheStatsResponse("view-counters", entries, current.length * 16L + entries * 48,
+                reads.sum() - fallbackReads.get(), fallbackReads.get(), 0);
+    }
+}
@@ -0,0 +1,316 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.ViewIngestStatsResponse;
+import com.arpon007.netflixclone.util.BloomFilter;
+import com.arpon007.netflixclone.util.ScalableBloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind ingestion of view beacons. A beacon is screened against a Bloom filter of
+ * (user, video) pairs already written and a set of pairs still queued and, if new, put
+ * on a bounded lock-free queue; the request thread never touches the database. A
+ * background flusher drains the queue and writes each batch with one multi-row
+ * INSERT IGNORE in one transaction, after resolving the batch's users with one query.
+ * A pair enters the filter only once its batch is committed; a failed batch is queued
+ * again, up to MAX_ATTEMPTS times.
+ * <p>
+ * The filter is keyed by email (the JWT subject), so no user lookup is needed per
+ * beacon. The unique (user_id, video_id) key makes the insert skip pairs already in
+ * video_views, so a filter miss (after an email change, or a concurrent instance) never
+ * produces a duplicate row or a double count. A filter false positive drops a first
+ * view, at the configured rate; the filter is sized from video_views at startup and
+ * grows with the views written, so that rate holds as the table grows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ViewIngestService {
+
+    public static final String UNIQUE_KEY = "uk_video_views_user_video";
+
+    // Rows of unknown videos fail the foreign key and are skipped like duplicates
+    private static final String INSERT_VIEWS = "INSERT IGNORE INTO video_views (user_id, video_id, viewed_at) VALUES ";
+
+    private static final String SELECT_VIEWED = "SELECT u.email, w.video_id FROM video_views w "
+            + "JOIN users u ON u.id = w.user_id";
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ViewCounterService viewCounterService;
+    private final TrendingService trendingService;
+    private final UniqueViewerService uniqueViewerService;
+
+    @Value("${app.views.queue-capacity:65536}")
+    private int queueCapacity;
+
+    @Value("${app.views.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.views.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${app.views.filter.expected-views:1000000}")
+    private long expectedViews;
+
+    @Value("${app.views.filter.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    public enum Outcome { ACCEPTED, DUPLICATE, DROPPED }
+
+    private record PendingView(String email, long videoId, long viewedAt, int attempts) {
+    }
+
+    private record Pair(long user, long videoId) {
+    }
+
+    // Pairs written to video_views; replaced by one sized for the table once it is loaded
+    private volatile ScalableBloomFilter seen;
+    // Pairs queued but not written yet, so a repeated beacon is not queued twice
+    private final Set<Pair> pending = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<PendingView> queue = new ConcurrentLinkedQueue<>();
+    // Reserved before offering, so the queue never holds more than queueCapacity views
+    private final AtomicInteger queued = new AtomicInteger();
+    private ScheduledExecutorService flusher;
+    // Nothing is written before the view counters are loaded, so no view is counted twice
+    private volatile boolean ready;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final long startedAt = System.currentTimeMillis();
+
+    @PostConstruct
+    void start() {
+        seen = new ScalableBloomFilter(expectedViews, falsePositiveRate);
+        flusher = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("view-flusher").daemon(true).factory());
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /**
+     * Add the unique (user_id, video_id) key to a video_views table created without it,
+     * deleting duplicate rows first. Must run before the counters are loaded.
+     */
+    public void ensureUniqueKey() {
+        Integer present = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.statistics "
+                + "WHERE table_schema = DATABASE() AND table_name = 'video_views' AND index_name = ?",
+                Integer.class, UNIQUE_KEY);
+        if (present != null && present > 0) {
+            return;
+        }
+        int removed = jdbcTemplate.update("DELETE w FROM video_views w JOIN video_views o "
+                + "ON o.user_id = w.user_id AND o.video_id = w.video_id AND o.id < w.id");
+        jdbcTemplate.execute("ALTER TABLE video_views ADD CONSTRAINT " + UNIQUE_KEY + " UNIQUE (user_id, video_id)");
+        log.info("Added unique key {} to video_views after deleting {} duplicate views", UNIQUE_KEY, removed);
+    }
+
+    /**
+     * Add every (user, video) pair already in video_views to the filter and start writing
+     * queued views; returns the number of pairs read
+     */
+    public long loadViewed() {
+        long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM video_views", Long.class);
+        // Headroom for the views of the coming days before the filter needs to grow
+        ScalableBloomFilter loaded = new ScalableBloomFilter(Math.max(expectedViews, rows * 2), falsePositiveRate);
+        AtomicLong count = new AtomicLong();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SELECT_VIEWED);
+            statement.setFetchSize(batchSize);
+            return statement;
+        }, row -> {
+            loaded.put(BloomFilter.hash(row.getString(1)), row.getLong(2));
+            count.incrementAndGet();
+        });
+        // Nothing has been written yet, so the filter being replaced is still empty
+        seen = loaded;
+        ready = true;
+        return count.get();
+    }
+
+    /**
+     * Queue a view for writing unless the user has (probably) viewed the video already
+     */
+    public Outcome record(String email, long videoId) {
+        long user = BloomFilter.hash(email);
+        // Daily unique viewers count repeat views too, so this comes before the duplicate filter
+        uniqueViewerService.record(user, videoId, System.currentTimeMillis());
+        Pair pair = new Pair(user, videoId);
+        if (seen.mightContain(user, videoId) || !pending.add(pair)) {
+            duplicates.incrementAndGet();
+            return Outcome.DUPLICATE;
+        }
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            // Not marked, so the client can retry the beacon
+            pending.remove(pair);
+            dropped.incrementAndGet();
+            return Outcome.DROPPED;
+        }
+        queue.offer(new PendingView(email, videoId, System.currentTimeMillis(), 0));
+        accepted.incrementAndGet();
+        return Outcome.ACCEPTED;
+    }
+
+    /**
+     * Write everything queued so far, in batches
+     */
+    void flush() {
+        if (!ready) {
+            return;
+        }
+        List<PendingView> batch = new ArrayList<>(batchSize);
+        List<PendingView> retries = new ArrayList<>();
+        PendingView view;
+        while ((view = queue.poll()) != null) {
+            queued.decrementAndGet();
+            batch.add(view);
+            if (batch.size() == batchSize) {
+                write(batch, retries);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch, retries);
+        }
+        // Queued again only after draining, so a failing database is retried once per flush
+        for (PendingView retry : retries) {
+            if (queued.incrementAndGet() > queueCapacity) {
+                queued.decrementAndGet();
+                pending.remove(new Pair(BloomFilter.hash(retry.email()), retry.videoId()));
+                failed.incrementAndGet();
+            } else {
+                queue.offer(retry);
+            }
+        }
+    }
+
+    private void write(List<PendingView> rows, List<PendingView> retries) {
+        try {
+            Map<String, Long> userIds = userIds(rows);
+            boolean[] stored = transactionTemplate.execute(status -> insert(rows, userIds));
+            long inserted = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                Pair pair = new Pair(BloomFilter.hash(rows.get(i).email()), rows.get(i).videoId());
+                seen.put(pair.user(), pair.videoId());
+                pending.remove(pair);
+                if (stored[i]) {
+                    viewCounterService.increment(rows.get(i).videoId());
+                    trendingService.record(rows.get(i).videoId(), rows.get(i).viewedAt());
+                    inserted++;
+                }
+            }
+            written.addAndGet(inserted);
+            batches.incrementAndGet();
+        } catch (RuntimeException e) {
+            int given = 0;
+            for (PendingView view : rows) {
+                if (view.attempts() + 1 < MAX_ATTEMPTS) {
+                    retries.add(new PendingView(view.email(), view.videoId(), view.viewedAt(), view.attempts() + 1));
+                } else {
+                    // Given up; a later beacon for the pair is queued afresh
+                    pending.remove(new Pair(BloomFilter.hash(view.email()), view.videoId()));
+                    given++;
+                }
+            }
+            failed.addAndGet(given);
+            log.warn("Failed to write {} video views ({} given up): {}", rows.size(), given, e.getMessage());
+        }
+    }
+
+    /**
+     * Ids of the batch's users by email; users deleted since their beacon are missing
+     */
+    private Map<String, Long> userIds(List<PendingView> rows) {
+        List<String> emails = rows.stream().map(PendingView::email).distinct().toList();
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.queryForList("SELECT id, email FROM users WHERE email IN ("
+                        + String.join(", ", Collections.nCopies(emails.size(), "?")) + ")", emails.toArray())
+                .forEach(row -> ids.put((String) row.get("email"), ((Number) row.get("id")).longValue()));
+        return ids;
+    }
+
+    /**
+     * Insert the rows with one statement and report which of them were stored. When fewer
+     * rows than given were inserted, the rows carrying this batch's view times are read back.
+     */
+    private boolean[] insert(List<PendingView> rows, Map<String, Long> userIds) {
+        boolean[] stored = new boolean[rows.size()];
+        List<Object> args = new ArrayList<>(rows.size() * 3);
+        StringBuilder sql = new StringBuilder(INSERT_VIEWS);
+        for (PendingView view : rows) {
+            Long userId = userIds.get(view.email());
+            if (userId != null) {
+                sql.append(args.isEmpty() ? "(?, ?, ?)" : ", (?, ?, ?)");
+                args.add(userId);
+                args.add(view.videoId());
+                args.add(new Timestamp(view.viewedAt()));
+            }
+        }
+        if (args.isEmpty()) {
+            return stored;
+        }
+        int given = args.size() / 3;
+        int inserted = jdbcTemplate.update(sql.toString(), args.toArray());
+        if (inserted == given) {
+            for (int i = 0; i < rows.size(); i++) {
+                stored[i] = userIds.containsKey(rows.get(i).email());
+            }
+            return stored;
+        }
+
+        // Bound the same way as in the insert, so the database compares the times exactly as it stored them
+        Set<Pair> ours = new HashSet<>();
+        jdbcTemplate.queryForList("SELECT user_id, video_id FROM video_views WHERE (user_id, video_id, viewed_at) IN ("
+                        + String.join(", ", Collections.nCopies(given, "(?, ?, ?)")) + ")", args.toArray())
+                .forEach(row -> ours.add(new Pair(((Number) row.get("user_id")).longValue(),
+                        ((Number) row.get("video_id")).longValue())));
+        for (int i = 0; i < rows.size(); i++) {
+            Long userId = userIds.get(rows.get(i).email());
+            stored[i] = userId != null && ours.contains(new Pair(userId, rows.get(i).videoId()));
+        }
+        return stored;
+    }
+
+    public ViewIngestStatsResponse getStats() {
+        double seconds = Math.max(1, System.currentTimeMillis() - startedAt) / 1000.0;
+        return new ViewIngestStatsResponse(queued.get(), queueCapacity, accepted.get(), duplicates.get(),
+                dropped.get(), written.get(), failed.get(), batches.get(),
+                accepted.get() / seconds, written.get() / seconds, seen.sizeInBytes());
+    }
+}
@@ -0,0 +1,152 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
+import com.arpon007.netflixclone.Service.CacheStatsSource;
+import com.arpon007.netflixclone.dao.WatchlistEntryRepository;
+import com.arpon007.netflixclone.util.IdBitmap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watchlisted video ids per user as an {@link IdBitmap}, in a bounded LRU keyed by email.
+ * A bitmap is loaded with one id-only query the first time a user's flags are needed and
+ * is then kept current in place by the watchlist mutations, so flagging a page of the
+ * catalog is a set of bitmap lookups with no SQL.
+ */
+@Component
+@RequiredArgsConstructor
+public class WatchlistCache implements CacheStatsSource {
+
+    private final WatchlistEntryRepository watchlistEntryRepository;
+
+    @Value("${app.watchlist.cache.max-entries:10000}")
+    private int maxEntries;
+
+    private final LinkedHashMap<String, IdBitmap> bitmaps = new LinkedHashMap<>(256, 0.75f, true);
+
+    // Bumped on every change; a load that overlaps one is not cached, as it may predate it
+    private final AtomicLong changes = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * The user's watchlist. The returned bitmap is live and must not be modified by callers.
+     */
+    public IdBitmap get(String email) {
+        IdBitmap bitmap;
+        synchronized (bitmaps) {
+            bitmap = bitmaps.get(email);
+        }
+        if (bitmap != null) {
+            hits.incrementAndGet();
+            return bitmap;
+        }
+        misses.incrementAndGet();
+
+        long before = changes.get();
+        IdBitmap loaded = IdBitmap.of(watchlistEntryRepository.findVideoIdsByEmail(email));
+        synchronized (bitmaps) {
+            IdBitmap raced = bitmaps.get(email);
+            if (raced != null) {
+                return raced;
+            }
+            if (changes.get() == before) {
+                bitmaps.put(email, loaded);
+                if (bitmaps.size() > maxEntries) {
+                    Map.Entry<String, IdBitmap> eldest = bitmaps.entrySet().iterator().next();
+                    bitmaps.remove(eldest.getKey());
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Watchlist of the authenticated user, or null for anonymous requests
+     */
+    public IdBitmap forCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication.getName() == null
+                || authentication.getName().equals("anonymousUser")) {
+            return null;
+        }
+        return get(authentication.getName());
+    }
+
+    /**
+     * Record an added entry once the surrounding transaction (if any) has committed
+     */
+    public void added(String email, long videoId) {
+        afterCommit(() -> {
+            IdBitmap bitmap = cached(email);
+            if (bitmap != null) {
+                bitmap.add(videoId);
+            }
+        });
+    }
+
+    public void removed(String email, long videoId) {
+        afterCommit(() -> {
+            IdBitmap bitmap = cached(email);
+            if (bitmap != null) {
+                bitmap.remove(videoId);
+            }
+        });
+    }
+
+    /**
+     * Forget a user, e.g. when their email changes or the account is deleted
+     */
+    public void invalidate(String email) {
+        afterCommit(() -> {
+            synchronized (bitmaps) {
+                bitmaps.remove(email);
+            }
+        });
+    }
+
+    private IdBitmap cached(String email) {
+        synchronized (bitmaps) {
+            return bitmaps.get(email);
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        changes.incrementAndGet();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    changes.incrementAndGet();
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+
+    @Override
+    public CacheStatsResponse getCacheStats() {
+        synchronized (bitmaps) {
+            long bytes = 0;
+            for (IdBitmap bitmap : bitmaps.values()) {
+                bytes += bitmap.sizeInBytes();
+            }
+            return new CacheStatsResponse("watchlist-bitmaps", bitmaps.size(), bytes,
+                    hits.get(), misses.get(), evictions.get());
+        }
+    }
+}
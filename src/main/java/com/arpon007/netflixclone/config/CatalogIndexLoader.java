@@ -0,0 +1,48 @@
+package com.arpon007.netflixclone.config;
+
+import com.arpon007.netflixclone.ServiceImpl.AutocompleteService;
+import com.arpon007.netflixclone.ServiceImpl.CategoryIndexService;
+import com.arpon007.netflixclone.ServiceImpl.VideoSearchService;
+import com.arpon007.netflixclone.dao.CategoryRepository;
+import com.arpon007.netflixclone.dao.VideoRepository;
+import com.arpon007.netflixclone.entity.Category;
+import com.arpon007.netflixclone.entity.Video;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fills the in-memory catalog indexes (search, category facets, autocomplete) at startup
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(6) // Run after the seeders; later changes arrive as VideoChangedEvents
+public class CatalogIndexLoader implements CommandLineRunner {
+
+    private final VideoRepository videoRepository;
+    private final CategoryRepository categoryRepository;
+    private final VideoSearchService videoSearchService;
+    private final CategoryIndexService categoryIndexService;
+    private final AutocompleteService autocompleteService;
+
+    @Override
+    public void run(String... args) {
+        long start = System.nanoTime();
+        for (Category category : categoryRepository.findByActiveTrue()) {
+            categoryIndexService.registerCategory(category.getName());
+        }
+        int count = 0;
+        // Oldest first, so each video takes the next category ordinal without renumbering
+        for (Video video : videoRepository.findAllPlayable()) {
+            videoSearchService.index(video);
+            categoryIndexService.index(video);
+            count++;
+        }
+        log.info("Indexed {} videos for search and category browsing in {} ms", count,
+                (System.nanoTime() - start) / 1_000_000);
+        autocompleteService.requestRebuild();
+    }
+}
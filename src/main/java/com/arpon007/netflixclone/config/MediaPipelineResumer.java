@@ -0,0 +1,25 @@
+package com.arpon007.netflixclone.config;
+
+import com.arpon007.netflixclone.Service.MediaPipelineService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(4) // Run after the seeders and cache warm-up
+public class MediaPipelineResumer implements CommandLineRunner {
+
+    private final MediaPipelineService mediaPipelineService;
+
+    @Override
+    public void run(String... args) {
+        int resumed = mediaPipelineService.resumeUnfinished();
+        if (resumed > 0) {
+            log.info("Resumed {} unfinished processing jobs", resumed);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.arpon007.netflixclone.config;
+
+import com.arpon007.netflixclone.ServiceImpl.HotSegmentCache;
+import com.arpon007.netflixclone.dao.VideoViewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(3) // Run after the seeders
+public class SegmentCacheWarmer implements CommandLineRunner {
+
+    private final VideoViewRepository videoViewRepository;
+    private final HotSegmentCache hotSegmentCache;
+
+    @Value("${file.upload.video-dir}")
+    private String videoDir;
+
+    @Value("${file.stream.segment-cache.prewarm-videos:10}")
+    private int prewarmVideos;
+
+    @Value("${file.stream.segment-cache.prewarm-segments:8}")
+    private int prewarmSegments;
+
+    @Override
+    public void run(String... args) {
+        if (prewarmVideos <= 0 || prewarmSegments <= 0) {
+            return;
+        }
+
+        List<String> mostViewed = videoViewRepository.findMostViewedSrcUuids(PageRequest.of(0, prewarmVideos));
+        int warmed = 0;
+        for (String srcUuid : mostViewed) {
+            Path path = Paths.get(videoDir, srcUuid);
+            if (Files.isRegularFile(path)) {
+                hotSegmentCache.warm(path, prewarmSegments);
+                warmed++;
+            } else {
+                log.warn("Could not pre-warm segments of {}: file not found", srcUuid);
+            }
+        }
+
+        // The segments are loaded in the background
+        log.info("Segment cache pre-warm queued: {} of {} most viewed videos", warmed, mostViewed.size());
+    }
+}
@@ -0,0 +1,38 @@
+package com.arpon007.netflixclone.config;
+
+import com.arpon007.netflixclone.ServiceImpl.TrendingService;
+import com.arpon007.netflixclone.ServiceImpl.ViewCounterService;
+import com.arpon007.netflixclone.ServiceImpl.ViewIngestService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Loads the view counters, the trending sketch and the view beacon duplicate filter at
+ * startup. Beacons received before this are queued and written once all are loaded.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@Order(5) // Before the catalog indexes, whose autocomplete ranking reads the view counts
+public class ViewStateLoader implements CommandLineRunner {
+
+    private final ViewCounterService viewCounterService;
+    private final ViewIngestService viewIngestService;
+    private final TrendingService trendingService;
+
+    @Override
+    public void run(String... args) {
+        long start = System.nanoTime();
+        // Duplicate rows are deleted before anything counts them
+        viewIngestService.ensureUniqueKey();
+        // Counters and trending first: loading the filter lets the flusher start counting new views
+        viewCounterService.load();
+        long recent = trendingService.load();
+        long count = viewIngestService.loadViewed();
+        log.info("Loaded {} video views into the duplicate filter and {} recent ones into trending in {} ms",
+                count, recent, (System.nanoTime() - start) / 1_000_000);
+    }
+}
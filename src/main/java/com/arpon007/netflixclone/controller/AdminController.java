@@ -2,16 +2,24 @@ package com.arpon007.netflixclone.controller;
 
 import com.arpon007.netflixclone.DTO.request.SuspendUserRequest;
 import com.arpon007.netflixclone.DTO.request.UpdateAdminProfileRequest;
+import com.arpon007.netflixclone.DTO.response.CacheStatsResponse;
 import com.arpon007.netflixclone.DTO.response.MessageResponse;
 import com.arpon007.netflixclone.DTO.response.UserResponse;
+import com.arpon007.netflixclone.DTO.response.VideoStatsResponse;
+import com.arpon007.netflixclone.DTO.response.ViewIngestStatsResponse;
 import com.arpon007.netflixclone.Service.AdminService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -23,12 +31,12 @@ public class AdminController {
     private final AdminService adminService;
 
     /**
-     * Get all users
+     * Get all users, streamed as they are read
      */
     @GetMapping("/users")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> users = adminService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public void getAllUsers(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        adminService.exportUsers(response.getOutputStream());
     }
 
     /**
@@ -81,4 +89,41 @@ public class AdminController {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
         return ResponseEntity.ok(adminService.updateAdminProfile(email, request));
     }
+
+    /**
+     * Get hit/miss/eviction counters of the in-memory caches
+     */
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(adminService.getCacheStats());
+    }
+
+    /**
+     * Get throughput and backpressure counters of view beacon ingestion
+     */
+    @GetMapping("/views/ingest")
+    public ResponseEntity<ViewIngestStatsResponse> getViewIngestStats() {
+        return ResponseEntity.ok(adminService.getViewIngestStats());
+    }
+
+    /**
+     * Get all-time views and estimated distinct viewers of the whole catalog over a date range (UTC, inclusive)
+     */
+    @GetMapping("/videos/stats")
+    public ResponseEntity<VideoStatsResponse> getCatalogStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(adminService.getCatalogStats(from, to));
+    }
+
+    /**
+     * Get all-time views and estimated distinct viewers of a video over a date range (UTC, inclusive)
+     */
+    @GetMapping("/videos/{videoId}/stats")
+    public ResponseEntity<VideoStatsResponse> getVideoStats(
+            @PathVariable Long videoId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(adminService.getVideoStats(videoId, from, to));
+    }
 }
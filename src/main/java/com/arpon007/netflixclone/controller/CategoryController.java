@@ -1,12 +1,15 @@
 package com.arpon007.netflixclone.controller;
 
 import com.arpon007.netflixclone.DTO.response.CategoryResponse;
+import com.arpon007.netflixclone.DTO.response.PageResponse;
+import com.arpon007.netflixclone.DTO.response.VideoResponse;
 import com.arpon007.netflixclone.Service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -33,6 +36,28 @@ public class CategoryController {
         return ResponseEntity.ok(categories);
     }
 
+    /**
+     * Browse videos by category: in every category of all and at least one of any, newest first
+     */
+    @GetMapping("/videos")
+    public ResponseEntity<PageResponse<VideoResponse>> browse(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(categoryService.browse(all, any, cursor, size));
+    }
+
+    /**
+     * Number of videos per category among the videos matching the same filters
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Integer>> getFacetCounts(
+            @RequestParam(required = false) List<String> all,
+            @RequestParam(required = false) List<String> any) {
+        return ResponseEntity.ok(categoryService.getFacetCounts(all, any));
+    }
+
     /**
      * Get category by ID
      */
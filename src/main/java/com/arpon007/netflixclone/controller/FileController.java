@@ -1,15 +1,27 @@
 package com.arpon007.netflixclone.controller;
 
+import com.arpon007.netflixclone.ServiceImpl.FileStorageService;
+import com.arpon007.netflixclone.ServiceImpl.ImageVariantService;
+import com.arpon007.netflixclone.ServiceImpl.StreamUrlService;
+import com.arpon007.netflixclone.ServiceImpl.VideoStreamingService;
+import com.arpon007.netflixclone.exception.ResourceNotFoundExCeption;
+import com.arpon007.netflixclone.util.ETags;
+import com.arpon007.netflixclone.util.PosterVariants;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
-import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
@@ -19,8 +31,13 @@ import java.nio.file.Paths;
 
 @RestController
 @RequestMapping("/api/files")
+@RequiredArgsConstructor
 public class FileController {
 
+    private final VideoStreamingService videoStreamingService;
+    private final ImageVariantService imageVariantService;
+    private final StreamUrlService streamUrlService;
+
     @Value("${file.upload.video-dir}")
     private String videoDir;
 
@@ -28,50 +45,28 @@ public class FileController {
     private String imageDir;
 
     @GetMapping("/video/{filename}")
-    public ResponseEntity<org.springframework.core.io.support.ResourceRegion> streamVideo(
-            @PathVariable String filename,
-            @org.springframework.web.bind.annotation.RequestHeader(value = "Range", required = false) String rangeHeader) {
-        try {
-            Path filePath = Paths.get(videoDir).resolve(filename).normalize();
-            FileSystemResource resource = new FileSystemResource(filePath);
-
-            if (!resource.exists()) {
-                return ResponseEntity.notFound().build();
-            }
-
-            long contentLength = resource.contentLength();
-            org.springframework.core.io.support.ResourceRegion region;
-
-            if (rangeHeader == null) {
-                long rangeLength = Math.min(1024 * 1024, contentLength); // 1MB chunk
-                region = new org.springframework.core.io.support.ResourceRegion(resource, 0, rangeLength);
-            } else {
-                long start = 0;
-                long end = contentLength - 1;
-                // Basic parsing "bytes=start-end"
-                String[] ranges = rangeHeader.replace("bytes=", "").split("-");
-                if (ranges.length > 0 && !ranges[0].isEmpty()) {
-                    start = Long.parseLong(ranges[0]);
-                }
-                if (ranges.length > 1 && !ranges[1].isEmpty()) {
-                    end = Long.parseLong(ranges[1]);
-                }
-
-                long rangeLength = Math.min(1024 * 1024, end - start + 1); // Cap at 1MB per request
-                region = new org.springframework.core.io.support.ResourceRegion(resource, start, rangeLength);
-            }
-
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                    .contentType(MediaTypeFactory.getMediaType(resource).orElse(MediaType.APPLICATION_OCTET_STREAM))
-                    .body(region);
-
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
+    public void streamVideo(@PathVariable String filename,
+                            @RequestParam(value = StreamUrlService.TOKEN_PARAM, required = false) String token,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        streamUrlService.check(filename, token);
+        Path baseDir = Paths.get(videoDir).normalize();
+        Path filePath = baseDir.resolve(filename).normalize();
+        if (!filePath.startsWith(baseDir)) {
+            throw new ResourceNotFoundExCeption("File not found: " + filename);
         }
+        videoStreamingService.stream(filePath, VideoStreamingService.contentTypeOf(filePath), -1,
+                FileStorageService.etagOf(filename), request, response);
     }
 
+    /**
+     * Serve a poster; with ?w= a downscaled variant at least that wide is returned
+     */
     @GetMapping("/image/{filename}")
-    public ResponseEntity<Resource> serveImage(@PathVariable String filename) {
+    public ResponseEntity<Resource> serveImage(@PathVariable String filename,
+                                               @RequestParam(value = "w", required = false) Integer width,
+                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                               String ifNoneMatch) {
         try {
             Path filePath = Paths.get(imageDir).resolve(filename).normalize();
             Resource resource = new FileSystemResource(filePath);
@@ -80,14 +75,36 @@ public class FileController {
                 return ResponseEntity.notFound().build();
             }
 
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = "application/octet-stream";
+            Integer variantWidth = width != null && width > 0 ? PosterVariants.snapWidth(width) : null;
+
+            // Content-addressed names never change content, so caches may keep them forever
+            String etag = variantWidth != null
+                    ? FileStorageService.etagOf(filename, "w" + variantWidth)
+                    : FileStorageService.etagOf(filename);
+            if (etag != null && ETags.noneMatchHits(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(etag)
+                        .header(HttpHeaders.CACHE_CONTROL, VideoStreamingService.IMMUTABLE_CACHE_CONTROL)
+                        .build();
             }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.parseMediaType(contentType))
-                    .body(resource);
+            MediaType contentType;
+            ImageVariantService.ImageVariant variant = variantWidth != null
+                    ? imageVariantService.variant(filename, variantWidth)
+                    : null;
+            if (variant != null) {
+                resource = variant.resource();
+                contentType = variant.contentType();
+            } else {
+                String probed = Files.probeContentType(filePath);
+                contentType = probed != null ? MediaType.parseMediaType(probed) : MediaType.APPLICATION_OCTET_STREAM;
+            }
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(contentType);
+            if (etag != null) {
+                builder.eTag(etag).header(HttpHeaders.CACHE_CONTROL, VideoStreamingService.IMMUTABLE_CACHE_CONTROL);
+            }
+            return builder.body(resource);
         } catch (IOException e) {
             return ResponseEntity.internalServerError().build();
         }
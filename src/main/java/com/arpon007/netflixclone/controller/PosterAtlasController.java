@@ -0,0 +1,72 @@
+package com.arpon007.netflixclone.controller;
+
+import com.arpon007.netflixclone.DTO.response.PosterAtlasResponse;
+import com.arpon007.netflixclone.ServiceImpl.PosterAtlasService;
+import com.arpon007.netflixclone.ServiceImpl.VideoStreamingService;
+import com.arpon007.netflixclone.util.ETags;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/files/atlas")
+@RequiredArgsConstructor
+public class PosterAtlasController {
+
+    private final PosterAtlasService posterAtlasService;
+
+    /**
+     * Coordinate map of the poster sprite for the given videos
+     */
+    @GetMapping
+    public ResponseEntity<PosterAtlasResponse> getAtlas(@RequestParam List<Long> ids,
+                                                        @RequestParam(defaultValue = "320") int w) throws IOException {
+        PosterAtlasService.Atlas atlas = posterAtlasService.atlas(ids, w);
+        String image = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/files/atlas/image")
+                .queryParam("ids", atlas.ids().stream().map(String::valueOf).collect(Collectors.joining(",")))
+                .queryParam("w", w)
+                .queryParam("v", atlas.version())
+                .toUriString();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(ETags.strong(atlas.version()))
+                .body(new PosterAtlasResponse(atlas.version(), image, atlas.width(), atlas.height(), atlas.tiles()));
+    }
+
+    /**
+     * The sprite image itself. URLs carrying the current version (as returned by the map) are immutable
+     */
+    @GetMapping("/image")
+    public ResponseEntity<byte[]> getAtlasImage(@RequestParam List<Long> ids,
+                                                @RequestParam(defaultValue = "320") int w,
+                                                @RequestParam(value = "v", required = false) String version,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                                String ifNoneMatch) throws IOException {
+        PosterAtlasService.Atlas atlas = posterAtlasService.atlas(ids, w);
+        String etag = ETags.strong(atlas.version());
+        String cacheControl = atlas.version().equals(version)
+                ? VideoStreamingService.IMMUTABLE_CACHE_CONTROL
+                : CacheControl.noCache().getHeaderValue();
+        if (ETags.noneMatchHits(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.IMAGE_JPEG)
+                .eTag(etag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .body(atlas.image());
+    }
+}
@@ -3,6 +3,7 @@ package com.arpon007.netflixclone.controller;
 import com.arpon007.netflixclone.DTO.request.UpdateFavoriteCategoriesRequest;
 import com.arpon007.netflixclone.DTO.request.UpdateProfileRequest;
 import com.arpon007.netflixclone.DTO.response.MessageResponse;
+import com.arpon007.netflixclone.DTO.response.PlaybackPositionResponse;
 import com.arpon007.netflixclone.DTO.response.UserResponse;
 import com.arpon007.netflixclone.DTO.response.VideoResponse;
 import com.arpon007.netflixclone.Service.UserService;
@@ -13,6 +14,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/user")
@@ -87,12 +89,18 @@ public class UserController {
     }
 
     /**
-     * Get user's watchlist
+     * Get user's watchlist, most recently added first: the whole list, or one keyset page
+     * of it when cursor or size is given
      */
     @GetMapping("/watchlist")
-    public ResponseEntity<List<VideoResponse>> getWatchlist() {
+    public ResponseEntity<?> getWatchlist(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
         String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        return ResponseEntity.ok(userService.getWatchlist(email));
+        if (cursor == null && size == null) {
+            return ResponseEntity.ok(userService.getWatchlist(email));
+        }
+        return ResponseEntity.ok(userService.getWatchlist(email, cursor, size));
     }
 
     /**
@@ -111,4 +119,41 @@ public class UserController {
     public ResponseEntity<Long> getViewCount(@PathVariable Long videoId) {
         return ResponseEntity.ok(userService.getVideoViewCount(videoId));
     }
+
+    /**
+     * Get view counts of several videos, keyed by video id
+     */
+    @GetMapping("/videos/views")
+    public ResponseEntity<Map<Long, Long>> getViewCounts(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(userService.getVideoViewCounts(ids));
+    }
+
+    /**
+     * Playback heartbeat: the current position in the video, sent periodically by the player
+     */
+    @PutMapping("/videos/{videoId}/position")
+    public ResponseEntity<Void> updatePlaybackPosition(@PathVariable Long videoId, @RequestParam Integer seconds) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        userService.updatePlaybackPosition(email, videoId, seconds);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Get the position to resume the video at, in seconds
+     */
+    @GetMapping("/videos/{videoId}/position")
+    public ResponseEntity<Integer> getPlaybackPosition(@PathVariable Long videoId) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        return ResponseEntity.ok(userService.getPlaybackPosition(email, videoId));
+    }
+
+    /**
+     * Get started but unfinished videos, most recently watched first
+     */
+    @GetMapping("/continue-watching")
+    public ResponseEntity<List<PlaybackPositionResponse>> getContinueWatching(
+            @RequestParam(required = false) Integer limit) {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        return ResponseEntity.ok(userService.getContinueWatching(email, limit));
+    }
 }
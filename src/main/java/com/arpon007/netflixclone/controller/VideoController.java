@@ -1,12 +1,26 @@
 package com.arpon007.netflixclone.controller;
 
-import com.arpon007.netflixclone.DTO.request.VideoRequest;
+import com.arpon007.netflixclone.DTO.response.ProcessingJobResponse;
+import com.arpon007.netflixclone.DTO.response.SuggestionResponse;
 import com.arpon007.netflixclone.DTO.response.VideoResponse;
+import com.arpon007.netflixclone.Service.MediaPipelineService;
+import com.arpon007.netflixclone.Service.VideoIngestService;
 import com.arpon007.netflixclone.Service.VideoService;
-import jakarta.validation.Valid;
+import com.arpon007.netflixclone.ServiceImpl.AutocompleteService;
+import com.arpon007.netflixclone.ServiceImpl.CatalogSnapshotService;
+import com.arpon007.netflixclone.ServiceImpl.TrendingService;
+import com.arpon007.netflixclone.ServiceImpl.VideoSearchService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -18,19 +32,105 @@ import java.util.List;
 @RequiredArgsConstructor
 public class VideoController {
     private final VideoService videoService;
+    private final VideoIngestService videoIngestService;
+    private final MediaPipelineService mediaPipelineService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final VideoSearchService videoSearchService;
+    private final AutocompleteService autocompleteService;
+    private final TrendingService trendingService;
 
     @PostMapping("/upload")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<VideoResponse> uploadVideo(
-            @Valid @RequestPart("data") VideoRequest request,
-            @RequestPart("video") MultipartFile video,
-            @RequestPart("poster") MultipartFile poster) throws IOException {
-        return ResponseEntity.ok(videoService.upload(request, video, poster));
+    public ResponseEntity<ProcessingJobResponse> uploadVideo(HttpServletRequest request) throws IOException {
+        // Parts ("data", "video", "poster") are streamed straight from the body, see VideoIngestService
+        return ResponseEntity.accepted().body(videoIngestService.ingest(request.getContentType(),
+                request.getContentLengthLong(), request.getInputStream()));
     }
 
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ProcessingJobResponse> getProcessingJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(mediaPipelineService.getJob(jobId));
+    }
+
+    /**
+     * Whole catalog, or one keyset page of it (newest first) when any paging or filter parameter is given
+     */
     @GetMapping
-    public ResponseEntity<List<VideoResponse>> list() {
-        return ResponseEntity.ok(videoService.getAll());
+    public ResponseEntity<?> list(@RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer size,
+                                  @RequestParam(required = false) String category,
+                                  @RequestParam(required = false) Boolean published,
+                                  HttpServletRequest request) {
+        if (cursor == null && size == null && category == null && published == null) {
+            return catalog(request);
+        }
+        return ResponseEntity.ok(videoService.getPage(cursor, size, category, published));
+    }
+
+    /**
+     * Full-text search over title, description and categories, best match first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<VideoResponse>> search(@RequestParam String q,
+                                                      @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(videoSearchService.search(q, limit));
+    }
+
+    /**
+     * Title completions for a search-box prefix, most viewed first
+     */
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<SuggestionResponse>> autocomplete(@RequestParam String q,
+                                                                 @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok(autocompleteService.complete(q, limit).stream()
+                .map(completion -> new SuggestionResponse(completion.id(), completion.text()))
+                .toList());
+    }
+
+    /**
+     * Most viewed videos of the last hour, day or week, recent views weighing more
+     */
+    @GetMapping("/trending")
+    public ResponseEntity<List<VideoResponse>> trending(@RequestParam(defaultValue = "24h") String window,
+                                                        @RequestParam(required = false) String category,
+                                                        @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(trendingService.trending(window, category, limit));
+    }
+
+    /**
+     * Every video, streamed from the database as it is read
+     */
+    @GetMapping("/export")
+    public void exportVideos(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        videoService.exportAll(response.getOutputStream());
+    }
+
+    /**
+     * Whole catalog from the in-memory snapshot, with the caller's watchlist flags applied
+     */
+    private ResponseEntity<byte[]> catalog(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String email = authentication != null && !"anonymousUser".equals(authentication.getName())
+                ? authentication.getName() : null;
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        CatalogSnapshotService.CatalogBody catalog = catalogSnapshotService.render(email,
+                request.getHeader(HttpHeaders.IF_NONE_MATCH), acceptEncoding != null && acceptEncoding.contains("gzip"));
+
+        ResponseEntity.BodyBuilder builder = catalog.body() == null
+                ? ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                : ResponseEntity.ok();
+        builder.eTag(catalog.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING, HttpHeaders.AUTHORIZATION);
+        if (catalog.body() == null) {
+            return builder.build();
+        }
+        if (catalog.gzipped()) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).contentLength(catalog.body().length).body(catalog.body());
     }
 
     @PutMapping(value = "/{id}", consumes = { "multipart/form-data" })
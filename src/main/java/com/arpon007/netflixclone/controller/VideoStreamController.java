@@ -1,33 +1,43 @@
 package com.arpon007.netflixclone.controller;
 
-import com.arpon007.netflixclone.Service.VideoService;
-import com.arpon007.netflixclone.entity.Video;
+import com.arpon007.netflixclone.DTO.response.StreamUrlResponse;
+import com.arpon007.netflixclone.ServiceImpl.FileStorageService;
+import com.arpon007.netflixclone.ServiceImpl.StreamUrlService;
+import com.arpon007.netflixclone.ServiceImpl.VideoLocatorCache;
+import com.arpon007.netflixclone.ServiceImpl.VideoStreamingService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.IOException;
 
 @RestController
 @RequestMapping("/api/videos")
 @RequiredArgsConstructor
 public class VideoStreamController {
 
-    private final VideoService videoService;
+    private final VideoLocatorCache videoLocatorCache;
+    private final VideoStreamingService videoStreamingService;
+    private final StreamUrlService streamUrlService;
+
+    /**
+     * Signed, short-lived URL for streaming a video from /api/files/video without a JWT on every chunk
+     */
+    @GetMapping("/{id}/stream-url")
+    public ResponseEntity<StreamUrlResponse> getStreamUrl(@PathVariable Long id) throws IOException {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        return ResponseEntity.ok(streamUrlService.issue(email, id));
+    }
 
     @GetMapping("/stream/{id}")
-    public ResponseEntity<Resource> stream(@PathVariable Long id) throws Exception {
-
-        Video video = videoService.getById(id);
-
-        Path path = Paths.get("uploads/videos", video.getSrcUuid());
-        Resource resource = new UrlResource(path.toUri());
-
-        return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .body(resource);
+    public void stream(@PathVariable Long id,
+                       HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        VideoLocatorCache.VideoLocation location = videoLocatorCache.resolve(id);
+        videoStreamingService.stream(location.path(), location.contentType(), location.length(),
+                FileStorageService.etagOf(location.srcUuid()), request, response);
     }
 }
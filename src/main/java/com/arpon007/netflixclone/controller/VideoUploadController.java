@@ -0,0 +1,80 @@
+package com.arpon007.netflixclone.controller;
+
+import com.arpon007.netflixclone.DTO.request.CreateUploadRequest;
+import com.arpon007.netflixclone.DTO.request.VideoRequest;
+import com.arpon007.netflixclone.DTO.response.MessageResponse;
+import com.arpon007.netflixclone.DTO.response.ProcessingJobResponse;
+import com.arpon007.netflixclone.DTO.response.UploadSessionResponse;
+import com.arpon007.netflixclone.Service.ChunkedUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/videos/uploads")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class VideoUploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    /**
+     * Start a resumable upload; the target file is preallocated to the given size
+     */
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> createSession(@Valid @RequestBody CreateUploadRequest request)
+            throws IOException {
+        return ResponseEntity.status(HttpStatus.CREATED).body(chunkedUploadService.createSession(currentEmail(), request));
+    }
+
+    /**
+     * Write the raw request body at the given offset. Chunks may be sent in any order and in parallel
+     */
+    @PutMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> uploadChunk(
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            HttpServletRequest request) throws IOException {
+        return ResponseEntity.ok(chunkedUploadService.writeChunk(currentEmail(),
+                uploadId, offset, request.getContentLengthLong(), request.getInputStream()));
+    }
+
+    /**
+     * Get the byte ranges received so far
+     */
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> getSession(@PathVariable String uploadId) {
+        return ResponseEntity.ok(chunkedUploadService.getSession(currentEmail(), uploadId));
+    }
+
+    /**
+     * Finish the upload and create the video; the file is processed in the background
+     */
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<ProcessingJobResponse> complete(
+            @PathVariable String uploadId,
+            @Valid @RequestPart("data") VideoRequest request,
+            @RequestPart("poster") MultipartFile poster) throws IOException {
+        return ResponseEntity.accepted().body(chunkedUploadService.complete(currentEmail(), uploadId, request, poster));
+    }
+
+    /**
+     * Abort the upload and delete the partial file
+     */
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<MessageResponse> abort(@PathVariable String uploadId) throws IOException {
+        return ResponseEntity.ok(chunkedUploadService.abort(currentEmail(), uploadId));
+    }
+
+    private String currentEmail() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+}
@@ -3,9 +3,11 @@ package com.arpon007.netflixclone.dao;
 import com.arpon007.netflixclone.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByName(String name);
     boolean existsByName(String name);
+    List<Category> findByActiveTrue();
 }
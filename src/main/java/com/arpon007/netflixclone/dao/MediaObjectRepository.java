@@ -0,0 +1,34 @@
+package com.arpon007.netflixclone.dao;
+
+import com.arpon007.netflixclone.entity.MediaObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface MediaObjectRepository extends JpaRepository<MediaObject, String> {
+
+    /**
+     * Register one more reference to a stored file, creating its row on first use
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO media_objects (file_name, sha256, size, ref_count, created_at) "
+            + "VALUES (:fileName, :sha256, :size, 1, NOW(6)) "
+            + "ON DUPLICATE KEY UPDATE ref_count = ref_count + 1", nativeQuery = true)
+    int acquire(@Param("fileName") String fileName, @Param("sha256") String sha256, @Param("size") long size);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE MediaObject m SET m.refCount = m.refCount - 1 WHERE m.fileName = :fileName AND m.refCount > 0")
+    int release(@Param("fileName") String fileName);
+
+    /**
+     * Remove the row once nothing references it; returns 1 if the caller should delete the file
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MediaObject m WHERE m.fileName = :fileName AND m.refCount <= 0")
+    int deleteUnreferenced(@Param("fileName") String fileName);
+}
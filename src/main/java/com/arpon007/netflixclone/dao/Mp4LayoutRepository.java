@@ -0,0 +1,16 @@
+package com.arpon007.netflixclone.dao;
+
+import com.arpon007.netflixclone.entity.Mp4Layout;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface Mp4LayoutRepository extends JpaRepository<Mp4Layout, Long> {
+
+    Optional<Mp4Layout> findBySrcUuid(String srcUuid);
+
+    @Query("SELECT l.initSegmentLength FROM Mp4Layout l WHERE l.srcUuid = :srcUuid")
+    Optional<Long> findInitSegmentLengthBySrcUuid(@Param("srcUuid") String srcUuid);
+}
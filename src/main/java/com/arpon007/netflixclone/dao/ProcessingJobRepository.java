@@ -0,0 +1,13 @@
+package com.arpon007.netflixclone.dao;
+
+import com.arpon007.netflixclone.entity.ProcessingJob;
+import com.arpon007.netflixclone.enums.ProcessingStage;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProcessingJobRepository extends JpaRepository<ProcessingJob, String> {
+
+    List<ProcessingJob> findByStageNotInOrderByCreatedAt(Collection<ProcessingStage> stages);
+}
@@ -0,0 +1,59 @@
+package com.arpon007.netflixclone.dao;
+
+import com.arpon007.netflixclone.entity.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    String OPEN = "(s.status IS NULL OR s.status = com.arpon007.netflixclone.enums.UploadStatus.OPEN)";
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.receivedRanges = :ranges, s.updatedAt = :now WHERE s.id = :id")
+    int updateReceivedRanges(@Param("id") String id, @Param("ranges") String ranges, @Param("now") Instant now);
+
+    /**
+     * Open sessions that have not received a chunk since the cutoff
+     */
+    @Query("SELECT s FROM UploadSession s WHERE " + OPEN + " AND COALESCE(s.updatedAt, s.createdAt) < :cutoff")
+    List<UploadSession> findStaleOpen(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Move an open session to COMPLETING; returns 1 only for the one caller that claimed it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.status = com.arpon007.netflixclone.enums.UploadStatus.COMPLETING "
+            + "WHERE s.id = :id AND " + OPEN)
+    int claimCompletion(@Param("id") String id);
+
+    /**
+     * Give a claimed session back, e.g. when creating the video failed
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.status = com.arpon007.netflixclone.enums.UploadStatus.OPEN "
+            + "WHERE s.id = :id AND s.status = com.arpon007.netflixclone.enums.UploadStatus.COMPLETING")
+    int releaseCompletion(@Param("id") String id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UploadSession s SET s.status = com.arpon007.netflixclone.enums.UploadStatus.COMPLETED, "
+            + "s.jobId = :jobId WHERE s.id = :id")
+    int markCompleted(@Param("id") String id, @Param("jobId") String jobId);
+
+    /**
+     * Delete a session unless it is being or has been completed; returns the number of rows deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UploadSession s WHERE s.id = :id AND " + OPEN)
+    int deleteOpen(@Param("id") String id);
+}
@@ -1,8 +1,62 @@
 package com.arpon007.netflixclone.dao;
 
 import com.arpon007.netflixclone.entity.Video;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
 
 public interface VideoRepository extends JpaRepository<Video, Long> {
 
+    /**
+     * JPQL condition matching the videos that are shown and streamed (see {@link Video#isPlayable()})
+     */
+    String PLAYABLE = "(v.status IS NULL OR v.status = com.arpon007.netflixclone.enums.VideoStatus.READY)";
+
+    /**
+     * File of a video that can be streamed: ready, or from before uploads were processed in the background
+     */
+    @Query("SELECT v.srcUuid FROM Video v WHERE v.video_id = :videoId AND " + PLAYABLE)
+    Optional<String> findPlayableSrcUuidById(@Param("videoId") Long videoId);
+
+    /**
+     * (id, title) of every playable video, without loading the entities
+     */
+    @Query("SELECT v.video_id, v.title FROM Video v WHERE " + PLAYABLE)
+    List<Object[]> findAllTitles();
+
+    /**
+     * Every playable video, oldest first
+     */
+    @Query("SELECT v FROM Video v WHERE " + PLAYABLE + " ORDER BY v.createdAt, v.video_id")
+    List<Video> findAllPlayable();
+
+    /**
+     * (count, total duration) of the published videos, as a single row
+     */
+    @Query("SELECT COUNT(v), COALESCE(SUM(v.duration), 0) FROM Video v WHERE v.published = true")
+    List<Object[]> summarizePublished();
+
+    /**
+     * First page of the playable catalog, newest first. Null filters match everything.
+     */
+    @Query("SELECT v FROM Video v WHERE (:published IS NULL OR v.published = :published) "
+            + "AND (:category IS NULL OR :category MEMBER OF v.categories) AND " + PLAYABLE + " "
+            + "ORDER BY v.createdAt DESC, v.video_id DESC")
+    List<Video> findCatalogPage(@Param("category") String category, @Param("published") Boolean published,
+                                Limit limit);
+
+    /**
+     * Catalog page after the given (createdAt, id) keyset position; only the rows of the page are read
+     */
+    @Query("SELECT v FROM Video v WHERE (:published IS NULL OR v.published = :published) "
+            + "AND (:category IS NULL OR :category MEMBER OF v.categories) AND " + PLAYABLE + " "
+            + "AND (v.createdAt < :createdAt OR (v.createdAt = :createdAt AND v.video_id < :id)) "
+            + "ORDER BY v.createdAt DESC, v.video_id DESC")
+    List<Video> findCatalogPageAfter(@Param("category") String category, @Param("published") Boolean published,
+                                     @Param("createdAt") Instant createdAt, @Param("id") Long id, Limit limit);
 }
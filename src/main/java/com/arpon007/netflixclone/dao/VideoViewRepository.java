@@ -1,15 +1,18 @@
 package com.arpon007.netflixclone.dao;
 
 import com.arpon007.netflixclone.entity.VideoView;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
+
 public interface VideoViewRepository extends JpaRepository<VideoView, Long> {
 
     @Query("SELECT COUNT(v) FROM VideoView v WHERE v.video.video_id = :videoId")
     Long countViewsByVideoId(@Param("videoId") Long videoId);
 
-    @Query("SELECT CASE WHEN COUNT(v) > 0 THEN true ELSE false END FROM VideoView v WHERE v.user.id = :userId AND v.video.video_id = :videoId")
-    boolean existsByUserIdAndVideoId(@Param("userId") Long userId, @Param("videoId") Long videoId);
+    @Query("SELECT v.video.srcUuid FROM VideoView v GROUP BY v.video.video_id, v.video.srcUuid ORDER BY COUNT(v) DESC")
+    List<String> findMostViewedSrcUuids(Pageable pageable);
 }
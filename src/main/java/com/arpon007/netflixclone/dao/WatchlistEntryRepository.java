@@ -0,0 +1,69 @@
+package com.arpon007.netflixclone.dao;
+
+import com.arpon007.netflixclone.entity.WatchlistEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+public interface WatchlistEntryRepository extends JpaRepository<WatchlistEntry, WatchlistEntry.Key> {
+
+    /**
+     * Add a video to the user's watchlist in one statement. Idempotent: an existing entry
+     * keeps its original time. Returns 1 if a row was added, 0 if it already existed or
+     * the user or video does not exist.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO user_watchlist (user_id, video_id, added_at) "
+            + "SELECT u.id, v.video_id, :addedAt FROM users u JOIN videos v ON v.video_id = :videoId "
+            + "WHERE u.email = :email "
+            + "ON DUPLICATE KEY UPDATE added_at = user_watchlist.added_at", nativeQuery = true)
+    int add(@Param("email") String email, @Param("videoId") Long videoId, @Param("addedAt") Instant addedAt);
+
+    /**
+     * Remove a video from the user's watchlist in one statement. Returns the number of rows removed.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE w FROM user_watchlist w JOIN users u ON u.id = w.user_id "
+            + "WHERE u.email = :email AND w.video_id = :videoId", nativeQuery = true)
+    int remove(@Param("email") String email, @Param("videoId") Long videoId);
+
+    @Query("SELECT w.id.videoId FROM WatchlistEntry w WHERE w.user.email = :email")
+    Set<Long> findVideoIdsByEmail(@Param("email") String email);
+
+    /**
+     * First page of a watchlist, most recently added first; videos that are not playable are left out
+     */
+    @Query("SELECT w FROM WatchlistEntry w JOIN FETCH w.video v WHERE w.user.email = :email AND "
+            + VideoRepository.PLAYABLE + " "
+            + "ORDER BY w.addedAt DESC, w.id.videoId DESC")
+    List<WatchlistEntry> findPage(@Param("email") String email, Limit limit);
+
+    /**
+     * Watchlist page after the given (addedAt, videoId) keyset position
+     */
+    @Query("SELECT w FROM WatchlistEntry w JOIN FETCH w.video v WHERE w.user.email = :email AND "
+            + VideoRepository.PLAYABLE + " "
+            + "AND (w.addedAt < :addedAt OR (w.addedAt = :addedAt AND w.id.videoId < :videoId)) "
+            + "ORDER BY w.addedAt DESC, w.id.videoId DESC")
+    List<WatchlistEntry> findPageAfter(@Param("email") String email, @Param("addedAt") Instant addedAt,
+                                       @Param("videoId") Long videoId, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WatchlistEntry w WHERE w.id.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM WatchlistEntry w WHERE w.id.videoId = :videoId")
+    int deleteByVideoId(@Param("videoId") Long videoId);
+}
@@ -0,0 +1,36 @@
+package com.arpon007.netflixclone.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * A content-addressed file in the media store. The file name is derived from the
+ * SHA-256 of its content, so identical uploads share one file; refCount tracks how
+ * many videos point at it and the file is removed when it drops to zero.
+ */
+@Entity
+@Table(name = "media_objects")
+@Data
+@NoArgsConstructor
+public class MediaObject {
+
+    @Id
+    private String fileName;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Column(nullable = false)
+    private long refCount;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,49 @@
+package com.arpon007.netflixclone.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Top-level box layout of an uploaded MP4 file, recorded after the faststart pass.
+ */
+@Entity
+@Table(name = "mp4_layouts")
+@Data
+@NoArgsConstructor
+public class Mp4Layout {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String srcUuid;
+
+    @Column(nullable = false)
+    private long fileSize;
+
+    private Long moovOffset;
+    private Long moovSize;
+    private Long mdatOffset;
+    private Long mdatSize;
+
+    /**
+     * Number of leading bytes (ftyp, moov and any boxes before mdat) a player needs before it can start.
+     */
+    @Column(nullable = false)
+    private long initSegmentLength;
+
+    @Column(nullable = false)
+    private boolean relocated;
+
+    @Column(length = 2000)
+    private String boxes;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
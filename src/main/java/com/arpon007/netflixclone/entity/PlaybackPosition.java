@@ -0,0 +1,45 @@
+package com.arpon007.netflixclone.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Where a user last was in a video. Heartbeats are coalesced in memory by
+ * {@link com.arpon007.netflixclone.ServiceImpl.PlaybackPositionService}, which upserts
+ * the changed positions in batches; rows are read when a position is not in memory.
+ */
+@Entity
+@Table(name = "playback_positions", indexes = {
+        // Continue watching, most recently watched first
+        @Index(name = "idx_playback_positions_user_updated", columnList = "user_id, updated_at")
+})
+@Data
+@NoArgsConstructor
+public class PlaybackPosition {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "position_seconds", nullable = false)
+    private int positionSeconds;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        private Long userId;
+
+        @Column(name = "video_id")
+        private Long videoId;
+    }
+}
@@ -0,0 +1,54 @@
+package com.arpon007.netflixclone.entity;
+
+import com.arpon007.netflixclone.enums.ProcessingStage;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+
+/**
+ * Background post-processing of an uploaded video. The stage is saved after each step
+ * so unfinished jobs can be picked up again after a restart.
+ */
+@Entity
+@Table(name = "processing_jobs")
+@Data
+@NoArgsConstructor
+public class ProcessingJob {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private Long videoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ProcessingStage stage = ProcessingStage.HASH;
+
+    // Received file until the HASH stage publishes it, the content-addressed name afterwards
+    @Column(nullable = false)
+    private String fileName;
+
+    private String originalFileName;
+
+    // Known up front for streamed uploads, computed by the HASH stage for resumable ones
+    @Column(length = 64)
+    private String sha256;
+
+    private long size;
+
+    @Column(length = 1000)
+    private String error;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
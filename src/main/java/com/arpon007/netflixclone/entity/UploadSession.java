@@ -0,0 +1,53 @@
+package com.arpon007.netflixclone.entity;
+
+import com.arpon007.netflixclone.enums.UploadStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+/**
+ * A resumable video upload. The target file is preallocated to its final size and
+ * chunks are written at their offsets; receivedRanges records which bytes arrived.
+ */
+@Entity
+@Table(name = "upload_sessions")
+@Data
+@NoArgsConstructor
+public class UploadSession {
+
+    @Id
+    private String id;
+
+    @Column(nullable = false)
+    private String storedFileName;
+
+    @Column(nullable = false)
+    private String originalFileName;
+
+    @Column(nullable = false)
+    private long size;
+
+    @Lob
+    @Column(nullable = false)
+    private String receivedRanges = "";
+
+    @Column(nullable = false)
+    private String createdBy;
+
+    // Null for sessions from before completion was claimed; treated as OPEN
+    @Enumerated(EnumType.STRING)
+    private UploadStatus status = UploadStatus.OPEN;
+
+    // Processing job created by completing the upload
+    private String jobId;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+
+    // When a chunk was last recorded; null until the first one
+    private Instant updatedAt;
+}
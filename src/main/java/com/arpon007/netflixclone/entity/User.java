@@ -1,9 +1,9 @@
 package com.arpon007.netflixclone.entity;
 
 import com.arpon007.netflixclone.enums.Role;
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -64,24 +64,12 @@ public class User {
     @Column
     private Integer age;
 
-    @JsonIgnore
-    @ManyToMany(fetch = FetchType.LAZY)
-    @JoinTable(name = "user_watchlist", joinColumns = @JoinColumn(name = "user_id"), inverseJoinColumns = @JoinColumn(name = "video_id"))
-    private Set<Video> watchList = new HashSet<>();
-
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @CollectionTable(name = "user_favorite_categories", joinColumns = @JoinColumn(name = "user_id"))
     @Column(name = "category_name")
     private Set<String> favoriteCategories = new HashSet<>();
 
-    public void addToWatchList(Video video) {
-        this.watchList.add(video);
-    }
-
-    public void removeFromWatchList(Video video) {
-        this.watchList.remove(video);
-    }
-
     public void setFavoriteCategories(Set<String> categories) {
         if (categories != null && categories.size() > 3) {
             throw new IllegalArgumentException("Maximum 3 favorite categories allowed");
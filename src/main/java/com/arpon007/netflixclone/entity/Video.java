@@ -1,9 +1,11 @@
 package com.arpon007.netflixclone.entity;
 
+import com.arpon007.netflixclone.enums.VideoStatus;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
@@ -13,7 +15,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "videos")
+@Table(name = "videos", indexes = {
+        // Keyset pagination of the catalog, optionally filtered by published
+        @Index(name = "idx_videos_created_id", columnList = "createdAt, video_id"),
+        @Index(name = "idx_videos_published_created_id", columnList = "published, createdAt, video_id")
+})
 @Data
 public class Video {
 
@@ -37,10 +43,21 @@ public class Video {
 
     private Integer duration;
 
+    // Filled in by the processing pipeline from the container metadata
+    private Long bitrate;
+    private Integer width;
+    private Integer height;
+
+    // Null for videos created before uploads were processed in the background
+    @Enumerated(EnumType.STRING)
+    private VideoStatus status;
+
     @Column(nullable = false)
     private boolean published = false;
 
+    // Loaded for a whole page of videos at once rather than one query per video
     @ElementCollection(fetch = FetchType.EAGER)
+    @BatchSize(size = 100)
     @CollectionTable(name = "video_categories", joinColumns = @JoinColumn(name = "video_id"))
     @Column(name = "category")
     private List<String> categories = new ArrayList<>();
@@ -57,6 +74,15 @@ public class Video {
     @JsonProperty("isInWatchList")
     private Boolean isInWatchList;
 
+    /**
+     * Whether the video is shown in listings and can be streamed: processing finished, or it
+     * was uploaded before uploads were processed in the background
+     */
+    @JsonIgnore
+    public boolean isPlayable() {
+        return status == null || status == VideoStatus.READY;
+    }
+
     @JsonProperty("src")
     public String getSrc() {
         if (srcUuid != null && !srcUuid.isEmpty()) {
@@ -0,0 +1,44 @@
+package com.arpon007.netflixclone.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Distinct viewers of one video on one (UTC) day, as a serialized
+ * {@link com.arpon007.netflixclone.util.HyperLogLog}. Video id 0 holds the viewers of
+ * the whole catalog. Rows are written in batches by
+ * {@link com.arpon007.netflixclone.ServiceImpl.UniqueViewerService}.
+ */
+@Entity
+@Table(name = "video_daily_viewers")
+@Data
+@NoArgsConstructor
+public class VideoDailyViewers {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "sketch", nullable = false, columnDefinition = "blob")
+    private byte[] sketch;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "video_id")
+        private Long videoId;
+
+        @Column(name = "view_day")
+        private LocalDate day;
+    }
+}
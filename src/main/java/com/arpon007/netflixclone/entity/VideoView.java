@@ -8,7 +8,13 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.Instant;
 
 @Entity
-@Table(name = "video_views")
+@Table(name = "video_views",
+        // One view per user and video; the batched INSERT IGNORE of view beacons relies on it
+        uniqueConstraints = @UniqueConstraint(name = "uk_video_views_user_video", columnNames = {"user_id", "video_id"}),
+        indexes = {
+                // Recent views replayed into the trending sketch at startup
+                @Index(name = "idx_video_views_viewed_at", columnList = "viewed_at")
+        })
 @Data
 @NoArgsConstructor
 public class VideoView {
@@ -0,0 +1,29 @@
+package com.arpon007.netflixclone.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Checkpointed view count of one video. The live counts are kept in memory by
+ * {@link com.arpon007.netflixclone.ServiceImpl.ViewCounterService}; rows are written in
+ * batches from there and read back at startup.
+ */
+@Entity
+@Table(name = "video_view_counts")
+@Data
+@NoArgsConstructor
+public class VideoViewCount {
+
+    @Id
+    @Column(name = "video_id")
+    private Long videoId;
+
+    @Column(name = "view_count", nullable = false)
+    private long viewCount;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
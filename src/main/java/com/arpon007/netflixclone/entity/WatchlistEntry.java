@@ -0,0 +1,53 @@
+package com.arpon007.netflixclone.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * One video in a user's watchlist. Mapped as an entity (rather than a many-to-many on
+ * User) so the membership can carry the time it was added; rows are written with single
+ * statements in {@link com.arpon007.netflixclone.dao.WatchlistEntryRepository}.
+ */
+@Entity
+@Table(name = "user_watchlist", indexes = {
+        // Newest-first watchlist pages
+        @Index(name = "idx_watchlist_user_added", columnList = "user_id, added_at, video_id")
+})
+@Data
+@NoArgsConstructor
+public class WatchlistEntry {
+
+    @EmbeddedId
+    private Key id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("userId")
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("videoId")
+    @JoinColumn(name = "video_id")
+    private Video video;
+
+    // Rows that predate this column get the time of the schema update
+    @Column(name = "added_at", nullable = false, columnDefinition = "datetime(6) default current_timestamp(6)")
+    private Instant addedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        private Long userId;
+
+        @Column(name = "video_id")
+        private Long videoId;
+    }
+}
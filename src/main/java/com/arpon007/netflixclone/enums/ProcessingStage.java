@@ -0,0 +1,8 @@
+package com.arpon007.netflixclone.enums;
+
+/**
+ * Stages of the media post-processing pipeline, in order. DONE and FAILED are terminal.
+ */
+public enum ProcessingStage {
+    HASH, PROBE, POSTER_VARIANTS, MARK_READY, DONE, FAILED
+}
@@ -0,0 +1,9 @@
+package com.arpon007.netflixclone.enums;
+
+/**
+ * Lifecycle of a resumable upload. COMPLETING is held by the one complete call that
+ * claimed the session; COMPLETED sessions keep the id of the processing job they created.
+ */
+public enum UploadStatus {
+    OPEN, COMPLETING, COMPLETED
+}
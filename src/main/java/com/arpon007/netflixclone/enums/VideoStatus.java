@@ -0,0 +1,5 @@
+package com.arpon007.netflixclone.enums;
+
+public enum VideoStatus {
+    PROCESSING, READY, FAILED
+}
@@ -0,0 +1,27 @@
+package com.arpon007.netflixclone.event;
+
+import com.arpon007.netflixclone.entity.Video;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Published by the video service after a video has been created, updated or deleted,
+ * so that in-memory views of the catalog can refresh themselves.
+ */
+@Getter
+@AllArgsConstructor
+public class VideoChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Video video;
+
+    public Long getVideoId() {
+        return video.getVideo_id();
+    }
+}
@@ -2,6 +2,7 @@ package com.arpon007.netflixclone.exception;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -63,6 +64,33 @@ public class GlobalExceptionHandeler {
         return buildResponse(HttpStatus.NOT_FOUND, ex.getMessage());
     }
 
+    // Services reject invalid input (page sizes, limits, cursors, ...) with IllegalArgumentException
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleIllegalArgument(IllegalArgumentException ex) {
+        log.warn("IllegalArgumentException: {}", ex.getMessage());
+        return buildResponse(HttpStatus.BAD_REQUEST, ex.getMessage() != null ? ex.getMessage() : "Invalid request");
+    }
+
+    @ExceptionHandler(PayloadTooLargeException.class)
+    public ResponseEntity<Map<String, Object>> handlePayloadTooLarge(PayloadTooLargeException ex) {
+        log.warn("PayloadTooLargeException: {}", ex.getMessage());
+        return buildResponse(HttpStatus.CONTENT_TOO_LARGE, ex.getMessage());
+    }
+
+    @ExceptionHandler(InvalidStreamUrlException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidStreamUrl(InvalidStreamUrlException ex) {
+        log.warn("InvalidStreamUrlException: {}", ex.getMessage());
+        return buildResponse(HttpStatus.FORBIDDEN, ex.getMessage());
+    }
+
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleServiceBusy(ServiceBusyException ex) {
+        log.warn("ServiceBusyException: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of("timestamp", Instant.now(), "error", ex.getMessage()));
+    }
+
     private ResponseEntity<Map<String, Object>> buildResponse(HttpStatus status, String message) {
         Map<String, Object> body = Map.of(
                 "timestamp", Instant.now(),
@@ -0,0 +1,7 @@
+package com.arpon007.netflixclone.exception;
+
+public class InvalidStreamUrlException extends RuntimeException {
+    public InvalidStreamUrlException(String message) {
+        super(message);
+    }
+}
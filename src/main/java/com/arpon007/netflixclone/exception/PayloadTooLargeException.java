@@ -0,0 +1,7 @@
+package com.arpon007.netflixclone.exception;
+
+public class PayloadTooLargeException extends RuntimeException{
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.arpon007.netflixclone.exception;
+
+public class RangeNotSatisfiableException extends RuntimeException{
+    private final long resourceLength;
+
+    public RangeNotSatisfiableException(String message, long resourceLength) {
+        super(message);
+        this.resourceLength = resourceLength;
+    }
+
+    public long getResourceLength() {
+        return resourceLength;
+    }
+}
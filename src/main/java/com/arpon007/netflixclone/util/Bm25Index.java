@@ -0,0 +1,299 @@
+package com.arpon007.netflixclone.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index with BM25 ranking over a few weighted text fields per
+ * document. Postings are parallel primitive int arrays (internal doc number, weighted
+ * term frequency) per term, so a query only walks the postings of its own terms.
+ * Field weights are folded into term frequency and document length (a simplified BM25F),
+ * which lets a title match outrank the same word in a long description.
+ * <p>
+ * Updates are incremental: a changed document gets a new doc number and its old one is
+ * tombstoned; postings are compacted once tombstones make up a third of the index.
+ * Searches run under a read lock and updates under a write lock.
+ */
+public final class Bm25Index {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private final float[] fieldWeights;
+
+    private final Map<String, Postings> terms = new HashMap<>();
+    private final Map<Long, Integer> docByKey = new HashMap<>();
+    private long[] keys = new long[1024];
+    private float[] lengths = new float[1024];
+    private boolean[] live = new boolean[1024];
+    private int docCount;
+    private int liveCount;
+    private double totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * A matching document and its score
+     */
+    public record Hit(long key, float score) {
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        int[] freqs = new int[4];
+        int size;
+
+        void add(int doc, int freq) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            docs[size] = doc;
+            freqs[size] = freq;
+            size++;
+        }
+    }
+
+    /**
+     * @param fieldWeights weight of each field, in the order fields are passed to {@link #put}
+     */
+    public Bm25Index(float... fieldWeights) {
+        this.fieldWeights = fieldWeights.clone();
+    }
+
+    /**
+     * Index or re-index a document; fields are matched with the constructor's weights
+     */
+    public void put(long key, String... fields) {
+        // Weighted term frequencies, scaled by 10 to keep them integral
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        float length = 0;
+        for (int f = 0; f < fields.length && f < fieldWeights.length; f++) {
+            int weight = Math.round(fieldWeights[f] * 10);
+            for (String token : tokenize(fields[f])) {
+                frequencies.merge(token, weight, Integer::sum);
+                length += fieldWeights[f];
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+            int doc = docCount++;
+            ensureCapacity(docCount);
+            keys[doc] = key;
+            lengths[doc] = length;
+            live[doc] = true;
+            liveCount++;
+            totalLength += length;
+            docByKey.put(key, doc);
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), t -> new Postings()).add(doc, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long key) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Highest scoring documents for the query, best first
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> queryTerms = tokenize(query).stream().distinct().toList();
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            if (liveCount == 0) {
+                return List.of();
+            }
+            float averageLength = (float) Math.max(totalLength / liveCount, 1e-6);
+            float[] scores = new float[docCount];
+            int[] touched = new int[16];
+            int touchedCount = 0;
+            for (String term : queryTerms) {
+                Postings postings = terms.get(term);
+                if (postings == null) {
+                    continue;
+                }
+                int documentFrequency = 0;
+                for (int i = 0; i < postings.size; i++) {
+                    if (live[postings.docs[i]]) {
+                        documentFrequency++;
+                    }
+                }
+                if (documentFrequency == 0) {
+                    continue;
+                }
+                float idf = (float) Math.log(1 + (liveCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                for (int i = 0; i < postings.size; i++) {
+                    int doc = postings.docs[i];
+                    if (!live[doc]) {
+                        continue;
+                    }
+                    float tf = postings.freqs[i] / 10f;
+                    float norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                    if (scores[doc] == 0) {
+                        if (touchedCount == touched.length) {
+                            touched = Arrays.copyOf(touched, touchedCount * 2);
+                        }
+                        touched[touchedCount++] = doc;
+                    }
+                    scores[doc] += idf * tf * (K1 + 1) / (tf + norm);
+                }
+            }
+
+            // Min-heap of the best `limit` documents
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1,
+                    (a, b) -> scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Integer.compare(a, b));
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                if (best.size() == limit && best.comparator().compare(doc, best.peek()) <= 0) {
+                    // Common terms touch most documents; only the few that beat the current k-th are boxed
+                    continue;
+                }
+                best.add(doc);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            Hit[] hits = new Hit[best.size()];
+            for (int i = hits.length - 1; i >= 0; i--) {
+                int doc = best.poll();
+                hits[i] = new Hit(keys[doc], scores[doc]);
+            }
+            return Arrays.asList(hits);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rough heap footprint of the postings and per-document arrays
+     */
+    public long sizeInBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = (long) keys.length * (8 + 4 + 1) + docByKey.size() * 48L;
+            for (Map.Entry<String, Postings> entry : terms.entrySet()) {
+                bytes += 64 + 2L * entry.getKey().length() + 8L * entry.getValue().docs.length;
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Lower-cased, accent-folded words and numbers
+     */
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private void removeLocked(long key) {
+        Integer doc = docByKey.remove(key);
+        if (doc == null) {
+            return;
+        }
+        live[doc] = false;
+        liveCount--;
+        totalLength -= lengths[doc];
+        if (docCount > 1024 && docCount - liveCount > docCount / 3) {
+            compact();
+        }
+    }
+
+    /**
+     * Drop tombstoned documents and renumber the live ones
+     */
+    private void compact() {
+        int[] renumbered = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (live[doc]) {
+                renumbered[doc] = next;
+                keys[next] = keys[doc];
+                lengths[next] = lengths[doc];
+                live[next] = true;
+                docByKey.put(keys[next], next);
+                next++;
+            } else {
+                renumbered[doc] = -1;
+            }
+        }
+        Arrays.fill(live, next, docCount, false);
+        docCount = next;
+
+        Iterator<Postings> it = terms.values().iterator();
+        while (it.hasNext()) {
+            Postings postings = it.next();
+            int size = 0;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = renumbered[postings.docs[i]];
+                if (doc >= 0) {
+                    postings.docs[size] = doc;
+                    postings.freqs[size] = postings.freqs[i];
+                    size++;
+                }
+            }
+            if (size == 0) {
+                it.remove();
+            } else {
+                postings.size = size;
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > keys.length) {
+            int grown = Math.max(capacity, keys.length * 2);
+            keys = Arrays.copyOf(keys, grown);
+            lengths = Arrays.copyOf(lengths, grown);
+            live = Arrays.copyOf(live, grown);
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.arpon007.netflixclone.util;
+
+import com.arpon007.netflixclone.exception.RangeNotSatisfiableException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An inclusive byte range resolved against a resource of known length.
+ */
+public final class ByteRange {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long start;
+    private final long end;
+
+    public ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public long length() {
+        return end - start + 1;
+    }
+
+    /**
+     * Returns a copy of this range whose length does not exceed the given ceiling.
+     */
+    public ByteRange capTo(long maxLength) {
+        if (length() <= maxLength) {
+            return this;
+        }
+        return new ByteRange(start, start + maxLength - 1);
+    }
+
+    public String toContentRange(long resourceLength) {
+        return "bytes " + start + "-" + end + "/" + resourceLength;
+    }
+
+    /**
+     * Parse a Range header ("bytes=0-99", "bytes=500-", "bytes=-500", "bytes=0-1,5-9").
+     * Returns an empty list when the header is absent or malformed, in which case the
+     * whole resource should be served. Overlapping and adjacent ranges are coalesced.
+     *
+     * @throws RangeNotSatisfiableException if no range overlaps the resource or too many ranges are requested
+     */
+    public static List<ByteRange> parse(String header, long resourceLength, int maxRanges) {
+        if (header == null || header.isBlank()) {
+            return Collections.emptyList();
+        }
+        String value = header.trim();
+        if (!value.regionMatches(true, 0, BYTES_UNIT, 0, BYTES_UNIT.length())) {
+            return Collections.emptyList();
+        }
+
+        List<ByteRange> ranges = new ArrayList<>();
+        for (String spec : value.substring(BYTES_UNIT.length()).split(",")) {
+            spec = spec.trim();
+            int dash = spec.indexOf('-');
+            if (dash < 0) {
+                return Collections.emptyList();
+            }
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+
+            if (first.isEmpty()) {
+                // Suffix range: the final N bytes
+                long suffix = parseNumber(last);
+                if (suffix < 0) {
+                    return Collections.emptyList();
+                }
+                if (suffix > 0 && resourceLength > 0) {
+                    ranges.add(new ByteRange(Math.max(0, resourceLength - suffix), resourceLength - 1));
+                }
+                continue;
+            }
+
+            long start = parseNumber(first);
+            long end = last.isEmpty() ? resourceLength - 1 : parseNumber(last);
+            if (start < 0 || (!last.isEmpty() && (end < 0 || end < start))) {
+                return Collections.emptyList();
+            }
+            if (start < resourceLength) {
+                ranges.add(new ByteRange(start, Math.min(end, resourceLength - 1)));
+            }
+        }
+
+        if (ranges.isEmpty()) {
+            throw new RangeNotSatisfiableException("Requested range not satisfiable", resourceLength);
+        }
+
+        List<ByteRange> coalesced = coalesce(ranges);
+        if (coalesced.size() > maxRanges) {
+            throw new RangeNotSatisfiableException("Too many ranges requested", resourceLength);
+        }
+        return coalesced;
+    }
+
+    private static List<ByteRange> coalesce(List<ByteRange> ranges) {
+        if (ranges.size() == 1) {
+            return ranges;
+        }
+        ranges.sort(Comparator.comparingLong(ByteRange::getStart));
+        List<ByteRange> merged = new ArrayList<>(ranges.size());
+        ByteRange current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            ByteRange next = ranges.get(i);
+            if (next.start <= current.end + 1) {
+                current = new ByteRange(current.start, Math.max(current.end, next.end));
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    private static long parseNumber(String value) {
+        if (value.isEmpty() || value.length() > 18) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ByteRange other)) {
+            return false;
+        }
+        return start == other.start && end == other.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(start) * 31 + Long.hashCode(end);
+    }
+
+    @Override
+    public String toString() {
+        return start + "-" + end;
+    }
+}
@@ -0,0 +1,47 @@
+package com.arpon007.netflixclone.util;
+
+/**
+ * Entity-tag helpers for conditional requests (RFC 9110 section 13).
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    public static String strong(String value) {
+        return "\"" + value + "\"";
+    }
+
+    /**
+     * If-None-Match uses weak comparison: W/"x" matches "x". A null header never matches.
+     */
+    public static boolean noneMatchHits(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaque(tag).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a Range request may be honoured under its If-Range precondition. If-Range
+     * uses strong comparison, so weak tags and HTTP dates never match a strong ETag and
+     * the client gets the full representation instead.
+     */
+    public static boolean ifRangeHolds(String ifRange, String etag) {
+        if (ifRange == null || ifRange.isBlank()) {
+            return true;
+        }
+        return etag != null && ifRange.trim().equals(etag);
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
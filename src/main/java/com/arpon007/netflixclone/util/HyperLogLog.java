@@ -0,0 +1,244 @@
+package com.arpon007.netflixclone.util;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog distinct-count sketch with 2^12 registers (about 1.6 % standard error).
+ * Sketches of the same precision merge by taking the larger register, so the distinct
+ * count of a union of days is the estimate of the merged sketches.
+ * <p>
+ * A new sketch is sparse: it keeps only its non-zero registers, as a sorted array of
+ * {@code index << 8 | rank} entries, and switches to the full register array once that
+ * would no longer be smaller. Most videos get a handful of viewers a day, so the
+ * in-memory sketches of a day's videos stay a few bytes each. {@link #toBytes} likewise
+ * writes only the non-zero registers while that is smaller than the full array.
+ * Estimates do not depend on the representation.
+ * <p>
+ * Thread-safe: all methods synchronize on the sketch.
+ */
+public final class HyperLogLog {
+
+    private static final int PRECISION = 12;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+    // Four bytes per sparse entry; past this the dense array is smaller
+    private static final int SPARSE_LIMIT = REGISTERS / 4;
+
+    private static final byte DENSE = 0;
+    private static final byte SPARSE = 1;
+
+    // Sorted index << 8 | rank entries while sparse, null once dense
+    private int[] sparse = new int[4];
+    private int sparseSize;
+    // Null while sparse
+    private byte[] registers;
+
+    /**
+     * Add an item given as a 64-bit value; it is hashed here, so it need not be uniformly distributed
+     */
+    public synchronized boolean add(long item) {
+        long hash = mix(item);
+        int index = (int) (hash >>> (64 - PRECISION));
+        // Position of the first set bit in the remaining bits, 1-based
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        return raise(index, rank);
+    }
+
+    public synchronized void merge(HyperLogLog other) {
+        HyperLogLog theirs = other.copy();
+        if (theirs.registers == null) {
+            for (int i = 0; i < theirs.sparseSize; i++) {
+                raise(theirs.sparse[i] >>> 8, (byte) theirs.sparse[i]);
+            }
+            return;
+        }
+        densify();
+        for (int i = 0; i < REGISTERS; i++) {
+            if (theirs.registers[i] > registers[i]) {
+                registers[i] = theirs.registers[i];
+            }
+        }
+    }
+
+    public synchronized long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        if (registers == null) {
+            zeros = REGISTERS - sparseSize;
+            sum = zeros;
+            for (int i = 0; i < sparseSize; i++) {
+                sum += 1.0 / (1L << (sparse[i] & 0xff));
+            }
+        } else {
+            for (byte register : registers) {
+                sum += 1.0 / (1L << register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            // Linear counting is more accurate for small cardinalities
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public synchronized byte[] toBytes() {
+        if (registers == null) {
+            byte[] bytes = new byte[1 + 3 * sparseSize];
+            bytes[0] = SPARSE;
+            for (int i = 0, offset = 1; i < sparseSize; i++) {
+                int index = sparse[i] >>> 8;
+                bytes[offset++] = (byte) (index >>> 8);
+                bytes[offset++] = (byte) index;
+                bytes[offset++] = (byte) sparse[i];
+            }
+            return bytes;
+        }
+        int nonZero = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                nonZero++;
+            }
+        }
+        if (3 * nonZero >= REGISTERS) {
+            byte[] bytes = new byte[1 + REGISTERS];
+            bytes[0] = DENSE;
+            System.arraycopy(registers, 0, bytes, 1, REGISTERS);
+            return bytes;
+        }
+        // Two bytes of register index and one of value per non-zero register
+        byte[] bytes = new byte[1 + 3 * nonZero];
+        bytes[0] = SPARSE;
+        int offset = 1;
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] != 0) {
+                bytes[offset++] = (byte) (i >>> 8);
+                bytes[offset++] = (byte) i;
+                bytes[offset++] = registers[i];
+            }
+        }
+        return bytes;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        HyperLogLog sketch = new HyperLogLog();
+        if (bytes == null || bytes.length == 0) {
+            return sketch;
+        }
+        if (bytes[0] == DENSE && bytes.length == 1 + REGISTERS) {
+            sketch.densify();
+            System.arraycopy(bytes, 1, sketch.registers, 0, REGISTERS);
+        } else if (bytes[0] == SPARSE && (bytes.length - 1) % 3 == 0) {
+            for (int offset = 1; offset < bytes.length; offset += 3) {
+                int index = ((bytes[offset] & 0xff) << 8) | (bytes[offset + 1] & 0xff);
+                if (index >= REGISTERS || bytes[offset + 2] < 0) {
+                    throw new IllegalArgumentException("Invalid HyperLogLog sketch");
+                }
+                sketch.raise(index, bytes[offset + 2]);
+            }
+        } else {
+            throw new IllegalArgumentException("Invalid HyperLogLog sketch");
+        }
+        return sketch;
+    }
+
+    /**
+     * Bytes held by the registers: the sparse entry array, or the full register array
+     */
+    public synchronized long sizeInBytes() {
+        return registers == null ? (long) Integer.BYTES * sparse.length : REGISTERS;
+    }
+
+    /**
+     * Whether the sketch still holds only its non-zero registers
+     */
+    synchronized boolean isSparse() {
+        return registers == null;
+    }
+
+    private boolean raise(int index, byte rank) {
+        if (rank == 0) {
+            return false;
+        }
+        if (registers != null) {
+            if (rank > registers[index]) {
+                registers[index] = rank;
+                return true;
+            }
+            return false;
+        }
+        int position = find(index);
+        if (position >= 0) {
+            if (rank > (sparse[position] & 0xff)) {
+                sparse[position] = index << 8 | rank;
+                return true;
+            }
+            return false;
+        }
+        if (sparseSize == SPARSE_LIMIT) {
+            densify();
+            registers[index] = rank;
+            return true;
+        }
+        if (sparseSize == sparse.length) {
+            sparse = Arrays.copyOf(sparse, Math.min(2 * sparse.length, SPARSE_LIMIT));
+        }
+        int insertAt = -position - 1;
+        System.arraycopy(sparse, insertAt, sparse, insertAt + 1, sparseSize - insertAt);
+        sparse[insertAt] = index << 8 | rank;
+        sparseSize++;
+        return true;
+    }
+
+    // Binary search over the sparse entries by register index, as Arrays.binarySearch
+    private int find(int index) {
+        int low = 0;
+        int high = sparseSize - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midIndex = sparse[mid] >>> 8;
+            if (midIndex < index) {
+                low = mid + 1;
+            } else if (midIndex > index) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private void densify() {
+        if (registers != null) {
+            return;
+        }
+        registers = new byte[REGISTERS];
+        for (int i = 0; i < sparseSize; i++) {
+            registers[sparse[i] >>> 8] = (byte) sparse[i];
+        }
+        sparse = null;
+        sparseSize = 0;
+    }
+
+    private synchronized HyperLogLog copy() {
+        HyperLogLog copy = new HyperLogLog();
+        if (registers == null) {
+            copy.sparse = Arrays.copyOf(sparse, sparse.length);
+            copy.sparseSize = sparseSize;
+        } else {
+            copy.sparse = null;
+            copy.registers = Arrays.copyOf(registers, REGISTERS);
+        }
+        return copy;
+    }
+
+    // Finaliser of SplitMix64 / MurmurHash3
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
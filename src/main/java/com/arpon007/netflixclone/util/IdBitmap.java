@@ -0,0 +1,234 @@
+package com.arpon007.netflixclone.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Compressed set of non-negative ids in the style of a Roaring bitmap: ids are split
+ * into chunks of 65536 by their high bits, and each chunk is a sorted {@code char[]} of
+ * low 16 bits while it holds up to 4096 ids, or a 8 KB bitset once it is denser. A user's
+ * watchlist therefore costs a few bytes per entry and a lookup is a binary search over
+ * at most a handful of chunks.
+ * <p>
+ * Thread-safe: mutations and reads synchronize on the bitmap.
+ */
+public final class IdBitmap {
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int BITSET_WORDS = 1024;
+
+    private long[] keys = new long[0];
+    // char[] (sorted low bits) or long[BITSET_WORDS] per key
+    private Object[] containers = new Object[0];
+    private int[] cardinalities = new int[0];
+    private long hash;
+    private boolean hashValid;
+
+    public static IdBitmap of(Collection<Long> ids) {
+        IdBitmap bitmap = new IdBitmap();
+        for (Long id : ids) {
+            bitmap.add(id);
+        }
+        return bitmap;
+    }
+
+    public synchronized boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, id >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) id;
+        return containers[index] instanceof char[] array
+                ? Arrays.binarySearch(array, low) >= 0
+                : (((long[]) containers[index])[low >>> 6] & (1L << low)) != 0;
+    }
+
+    /**
+     * Returns false if the id was already present
+     */
+    public synchronized boolean add(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Ids must not be negative");
+        }
+        long key = id >>> 16;
+        char low = (char) id;
+        int index = Arrays.binarySearch(keys, key);
+        if (index < 0) {
+            insertContainer(-index - 1, key, new char[]{low});
+            hashValid = false;
+            return true;
+        }
+        if (containers[index] instanceof char[] array) {
+            int position = Arrays.binarySearch(array, low);
+            if (position >= 0) {
+                return false;
+            }
+            if (array.length < ARRAY_MAX) {
+                position = -position - 1;
+                char[] grown = new char[array.length + 1];
+                System.arraycopy(array, 0, grown, 0, position);
+                grown[position] = low;
+                System.arraycopy(array, position, grown, position + 1, array.length - position);
+                containers[index] = grown;
+                cardinalities[index]++;
+                hashValid = false;
+                return true;
+            }
+            containers[index] = toBitset(array);
+        }
+        long[] bits = (long[]) containers[index];
+        if ((bits[low >>> 6] & (1L << low)) != 0) {
+            return false;
+        }
+        bits[low >>> 6] |= 1L << low;
+        cardinalities[index]++;
+        hashValid = false;
+        return true;
+    }
+
+    /**
+     * Returns false if the id was not present
+     */
+    public synchronized boolean remove(long id) {
+        if (id < 0) {
+            return false;
+        }
+        int index = Arrays.binarySearch(keys, id >>> 16);
+        if (index < 0) {
+            return false;
+        }
+        char low = (char) id;
+        if (containers[index] instanceof char[] array) {
+            int position = Arrays.binarySearch(array, low);
+            if (position < 0) {
+                return false;
+            }
+            char[] shrunk = new char[array.length - 1];
+            System.arraycopy(array, 0, shrunk, 0, position);
+            System.arraycopy(array, position + 1, shrunk, position, array.length - position - 1);
+            containers[index] = shrunk;
+        } else {
+            long[] bits = (long[]) containers[index];
+            if ((bits[low >>> 6] & (1L << low)) == 0) {
+                return false;
+            }
+            bits[low >>> 6] &= ~(1L << low);
+            if (cardinalities[index] - 1 <= ARRAY_MAX) {
+                containers[index] = toArray(bits, cardinalities[index] - 1);
+            }
+        }
+        hashValid = false;
+        if (--cardinalities[index] == 0) {
+            removeContainer(index);
+        }
+        return true;
+    }
+
+    public synchronized int cardinality() {
+        int total = 0;
+        for (int cardinality : cardinalities) {
+            total += cardinality;
+        }
+        return total;
+    }
+
+    public synchronized boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    /**
+     * Hash of the ids in the set, stable across instances with the same content
+     */
+    public synchronized long contentHash() {
+        if (!hashValid) {
+            long h = 1;
+            for (int i = 0; i < keys.length; i++) {
+                long high = keys[i] << 16;
+                if (containers[i] instanceof char[] array) {
+                    for (char low : array) {
+                        h = 31 * h + (high | low);
+                    }
+                } else {
+                    long[] bits = (long[]) containers[i];
+                    for (int word = 0; word < BITSET_WORDS; word++) {
+                        long w = bits[word];
+                        while (w != 0) {
+                            h = 31 * h + (high | ((long) word << 6) | Long.numberOfTrailingZeros(w));
+                            w &= w - 1;
+                        }
+                    }
+                }
+            }
+            hash = h;
+            hashValid = true;
+        }
+        return hash;
+    }
+
+    public synchronized long sizeInBytes() {
+        long bytes = keys.length * (8L + 4L + 8L);
+        for (Object container : containers) {
+            bytes += container instanceof char[] array ? 2L * array.length : 8L * BITSET_WORDS;
+        }
+        return bytes;
+    }
+
+    private void insertContainer(int index, long key, Object container) {
+        int n = keys.length;
+        long[] newKeys = new long[n + 1];
+        Object[] newContainers = new Object[n + 1];
+        int[] newCardinalities = new int[n + 1];
+        System.arraycopy(keys, 0, newKeys, 0, index);
+        System.arraycopy(containers, 0, newContainers, 0, index);
+        System.arraycopy(cardinalities, 0, newCardinalities, 0, index);
+        newKeys[index] = key;
+        newContainers[index] = container;
+        newCardinalities[index] = 1;
+        System.arraycopy(keys, index, newKeys, index + 1, n - index);
+        System.arraycopy(containers, index, newContainers, index + 1, n - index);
+        System.arraycopy(cardinalities, index, newCardinalities, index + 1, n - index);
+        keys = newKeys;
+        containers = newContainers;
+        cardinalities = newCardinalities;
+    }
+
+    private void removeContainer(int index) {
+        int n = keys.length;
+        long[] newKeys = new long[n - 1];
+        Object[] newContainers = new Object[n - 1];
+        int[] newCardinalities = new int[n - 1];
+        System.arraycopy(keys, 0, newKeys, 0, index);
+        System.arraycopy(containers, 0, newContainers, 0, index);
+        System.arraycopy(cardinalities, 0, newCardinalities, 0, index);
+        System.arraycopy(keys, index + 1, newKeys, index, n - index - 1);
+        System.arraycopy(containers, index + 1, newContainers, index, n - index - 1);
+        System.arraycopy(cardinalities, index + 1, newCardinalities, index, n - index - 1);
+        keys = newKeys;
+        containers = newContainers;
+        cardinalities = newCardinalities;
+    }
+
+    private static long[] toBitset(char[] array) {
+        long[] bits = new long[BITSET_WORDS];
+        for (char low : array) {
+            bits[low >>> 6] |= 1L << low;
+        }
+        return bits;
+    }
+
+    private static char[] toArray(long[] bits, int cardinality) {
+        char[] array = new char[cardinality];
+        int n = 0;
+        for (int word = 0; word < BITSET_WORDS; word++) {
+            long w = bits[word];
+            while (w != 0) {
+                array[n++] = (char) ((word << 6) | Long.numberOfTrailingZeros(w));
+                w &= w - 1;
+            }
+        }
+        return array;
+    }
+}
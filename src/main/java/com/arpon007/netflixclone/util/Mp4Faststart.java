@@ -0,0 +1,250 @@
+package com.arpon007.netflixclone.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Minimal ISO-BMFF (MP4) box reader that moves the 'moov' box in front of the media
+ * data so that players can start without fetching the tail of the file first. Chunk
+ * offsets in every 'stco'/'co64' table are shifted accordingly; samples are untouched.
+ */
+public final class Mp4Faststart {
+
+    private static final Set<String> OFFSET_CONTAINERS = Set.of("moov", "trak", "mdia", "minf", "stbl");
+    private static final int MAX_MOOV_SIZE = 256 * 1024 * 1024;
+
+    private Mp4Faststart() {
+    }
+
+    /**
+     * A top-level box: its four character type, absolute offset and total size including the header.
+     */
+    public record Box(String type, long offset, long size, int headerSize) {
+        public long end() {
+            return offset + size;
+        }
+    }
+
+    /**
+     * Read the top-level box layout of a file. Returns an empty list if it is not an MP4 file.
+     */
+    public static List<Box> scan(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        List<Box> boxes = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(16);
+        long position = 0;
+        while (position + 8 <= fileSize) {
+            header.clear().limit(8);
+            readFully(channel, header, position);
+            header.flip();
+            long size = Integer.toUnsignedLong(header.getInt());
+            String type = fourCc(header);
+            int headerSize = 8;
+            if (size == 1) {
+                header.clear().limit(8);
+                readFully(channel, header, position + 8);
+                header.flip();
+                size = header.getLong();
+                headerSize = 16;
+            } else if (size == 0) {
+                size = fileSize - position;
+            }
+            if (size < headerSize || position + size > fileSize || !isPrintable(type)) {
+                if (boxes.isEmpty()) {
+                    return List.of();
+                }
+                throw new IOException("Corrupt MP4 box '" + type + "' at offset " + position);
+            }
+            if (boxes.isEmpty() && !"ftyp".equals(type)) {
+                return List.of();
+            }
+            boxes.add(new Box(type, position, size, headerSize));
+            position += size;
+        }
+        return boxes;
+    }
+
+    public static Box find(List<Box> boxes, String type) {
+        for (Box box : boxes) {
+            if (box.type().equals(type)) {
+                return box;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Whether the 'moov' box sits after the first 'mdat' box.
+     */
+    public static boolean needsRelocation(List<Box> boxes) {
+        Box moov = find(boxes, "moov");
+        Box mdat = find(boxes, "mdat");
+        return moov != null && mdat != null && moov.offset() > mdat.offset();
+    }
+
+    /**
+     * Rewrite {@code file} in place with 'moov' directly after 'ftyp'. The new file is
+     * written next to the original and atomically moved over it.
+     *
+     * @return the layout of the rewritten file
+     */
+    public static List<Box> relocateMoov(Path file, List<Box> boxes) throws IOException {
+        Box ftyp = boxes.get(0);
+        Box moov = find(boxes, "moov");
+        if (moov.size() > MAX_MOOV_SIZE) {
+            throw new IOException("moov box too large to relocate: " + moov.size());
+        }
+        long insertAt = ftyp.end();
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".faststart");
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                     StandardOpenOption.WRITE)) {
+            ByteBuffer moovData = ByteBuffer.allocate((int) moov.size());
+            readFully(in, moovData, moov.offset());
+            moovData.flip();
+            if (moovData.getInt(0) == 0) {
+                // "Extends to end of file" is no longer true once other boxes follow it
+                moovData.putInt(0, (int) moov.size());
+            }
+            // Everything between ftyp and the old moov position moves forward by the moov size
+            shiftChunkOffsets(moovData, 0, moovData.limit(), insertAt, moov.offset(), moov.size());
+
+            copy(in, 0, insertAt, out);
+            while (moovData.hasRemaining()) {
+                out.write(moovData);
+            }
+            copy(in, insertAt, moov.offset() - insertAt, out);
+            copy(in, moov.end(), in.size() - moov.end(), out);
+            out.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return scan(channel);
+        }
+    }
+
+    private static void shiftChunkOffsets(ByteBuffer buf, int from, int to, long shiftFrom, long shiftTo, long delta)
+            throws IOException {
+        int position = from;
+        while (position + 8 <= to) {
+            long size = Integer.toUnsignedLong(buf.getInt(position));
+            String type = fourCc(buf, position + 4);
+            int headerSize = 8;
+            if (size == 1) {
+                if (position + 16 > to) {
+                    throw new IOException("Corrupt MP4 box '" + type + "' inside moov");
+                }
+                size = buf.getLong(position + 8);
+                headerSize = 16;
+            } else if (size == 0) {
+                size = to - position;
+            }
+            if (size < headerSize || position + size > to) {
+                throw new IOException("Corrupt MP4 box '" + type + "' inside moov");
+            }
+            int body = position + headerSize;
+            int end = (int) (position + size);
+            if (("stco".equals(type) || "co64".equals(type)) && body + 8 > end) {
+                // Version/flags and entry count are missing
+                throw new IOException("Corrupt MP4 box '" + type + "' inside moov");
+            }
+            if (OFFSET_CONTAINERS.contains(type)) {
+                shiftChunkOffsets(buf, body, end, shiftFrom, shiftTo, delta);
+            } else if ("stco".equals(type)) {
+                int count = buf.getInt(body + 4);
+                for (int i = 0, entry = body + 8; i < count && entry + 4 <= end; i++, entry += 4) {
+                    long offset = Integer.toUnsignedLong(buf.getInt(entry));
+                    if (offset >= shiftFrom && offset < shiftTo) {
+                        offset += delta;
+                        if (offset > 0xFFFFFFFFL) {
+                            throw new IOException("stco offset overflow, co64 upgrade not supported");
+                        }
+                        buf.putInt(entry, (int) offset);
+                    }
+                }
+            } else if ("co64".equals(type)) {
+                int count = buf.getInt(body + 4);
+                for (int i = 0, entry = body + 8; i < count && entry + 8 <= end; i++, entry += 8) {
+                    long offset = buf.getLong(entry);
+                    if (offset >= shiftFrom && offset < shiftTo) {
+                        buf.putLong(entry, offset + delta);
+                    }
+                }
+            }
+            position = end;
+        }
+    }
+
+    /**
+     * Render a layout as "type@offset+size" entries, e.g. "ftyp@0+32,moov@32+4096".
+     */
+    public static String describe(List<Box> boxes) {
+        StringBuilder sb = new StringBuilder();
+        for (Box box : boxes) {
+            if (!sb.isEmpty()) {
+                sb.append(',');
+            }
+            sb.append(box.type()).append('@').append(box.offset()).append('+').append(box.size());
+        }
+        return sb.toString();
+    }
+
+    private static void copy(FileChannel in, long position, long count, FileChannel out) throws IOException {
+        long remaining = count;
+        while (remaining > 0) {
+            long sent = in.transferTo(position, remaining, out);
+            if (sent <= 0) {
+                throw new EOFException("Unexpected end of MP4 file");
+            }
+            position += sent;
+            remaining -= sent;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            int read = channel.read(buf, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of MP4 file");
+            }
+            position += read;
+        }
+    }
+
+    private static String fourCc(ByteBuffer buf) {
+        byte[] type = new byte[4];
+        buf.get(type);
+        return new String(type, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String fourCc(ByteBuffer buf, int index) {
+        byte[] type = new byte[4];
+        buf.get(index, type);
+        return new String(type, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isPrintable(String type) {
+        for (int i = 0; i < type.length(); i++) {
+            char c = type.charAt(i);
+            if (c < 0x20 || c > 0x7e) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,117 @@
+package com.arpon007.netflixclone.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * Reads duration, bitrate and resolution from the moov box of an MP4 file:
+ * mvhd gives timescale and duration, the first track whose tkhd has a non-zero
+ * size gives the resolution. Only the moov box is read.
+ */
+public final class Mp4Probe {
+
+    private static final long MAX_MOOV_BYTES = 64L * 1024 * 1024;
+
+    private Mp4Probe() {
+    }
+
+    /**
+     * Container metadata. Bitrate is the average over the whole file in bits per second.
+     */
+    public record MediaInfo(double durationSeconds, long bitrate, int width, int height) {
+    }
+
+    /**
+     * @return the metadata, or null if the file is not an MP4 with a readable movie header
+     */
+    public static MediaInfo probe(FileChannel channel) throws IOException {
+        List<Mp4Faststart.Box> boxes = Mp4Faststart.scan(channel);
+        Mp4Faststart.Box moov = Mp4Faststart.find(boxes, "moov");
+        if (moov == null || moov.size() > MAX_MOOV_BYTES) {
+            return null;
+        }
+        ByteBuffer body = read(channel, moov.offset() + moov.headerSize(), (int) (moov.size() - moov.headerSize()));
+
+        long timescale = 0;
+        long duration = 0;
+        int width = 0;
+        int height = 0;
+        for (int pos = 0; pos + 8 <= body.limit(); ) {
+            int size = childSize(body, pos);
+            if (size < 8) {
+                break;
+            }
+            String type = typeAt(body, pos + 4);
+            if (type.equals("mvhd")) {
+                int version = body.get(pos + 8);
+                if (version == 1) {
+                    timescale = Integer.toUnsignedLong(body.getInt(pos + 8 + 4 + 16));
+                    duration = body.getLong(pos + 8 + 4 + 20);
+                } else {
+                    timescale = Integer.toUnsignedLong(body.getInt(pos + 8 + 4 + 8));
+                    duration = Integer.toUnsignedLong(body.getInt(pos + 8 + 4 + 12));
+                }
+            } else if (type.equals("trak") && width == 0) {
+                int[] dimensions = trackDimensions(body, pos + 8, pos + size);
+                width = dimensions[0];
+                height = dimensions[1];
+            }
+            pos += size;
+        }
+
+        if (timescale <= 0 || duration <= 0) {
+            return null;
+        }
+        double seconds = (double) duration / timescale;
+        long bitrate = Math.round(channel.size() * 8 / seconds);
+        return new MediaInfo(seconds, bitrate, width, height);
+    }
+
+    private static int[] trackDimensions(ByteBuffer body, int from, int to) {
+        for (int pos = from; pos + 8 <= to; ) {
+            int size = childSize(body, pos);
+            if (size < 8 || pos + size > to) {
+                break;
+            }
+            if (typeAt(body, pos + 4).equals("tkhd") && size >= 8 + 8) {
+                // Width and height are the last two fields, 16.16 fixed point
+                int width = body.getInt(pos + size - 8) >>> 16;
+                int height = body.getInt(pos + size - 4) >>> 16;
+                return new int[]{width, height};
+            }
+            pos += size;
+        }
+        return new int[]{0, 0};
+    }
+
+    private static int childSize(ByteBuffer body, int pos) {
+        long size = Integer.toUnsignedLong(body.getInt(pos));
+        // 64-bit and to-end sizes do not occur inside moov in practice; stop walking if seen
+        if (size < 8 || pos + size > body.limit()) {
+            return -1;
+        }
+        return (int) size;
+    }
+
+    private static String typeAt(ByteBuffer body, int pos) {
+        char[] type = new char[4];
+        for (int i = 0; i < 4; i++) {
+            type[i] = (char) (body.get(pos + i) & 0xff);
+        }
+        return new String(type);
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new EOFException("File truncated while reading moov box");
+            }
+        }
+        return buffer.flip();
+    }
+}
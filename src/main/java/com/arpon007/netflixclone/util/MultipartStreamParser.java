@@ -0,0 +1,214 @@
+package com.arpon007.netflixclone.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Incremental multipart/form-data reader. Parts are exposed one at a time as streams
+ * that end at the next boundary, so a large file part can be written to its final
+ * destination without buffering the request to disk first.
+ */
+public final class MultipartStreamParser {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 16 * 1024;
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buf = new byte[BUFFER_SIZE];
+    private int head;
+    private int tail;
+    private boolean eof;
+    private boolean finished;
+    private PartInputStream current;
+
+    public MultipartStreamParser(InputStream in, String boundary) {
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        // The first boundary is not preceded by CRLF; pretend it is so every delimiter looks the same
+        buf[0] = '\r';
+        buf[1] = '\n';
+        tail = 2;
+    }
+
+    /**
+     * A part's headers and body. The body stream is only valid until {@link #next()} is called again.
+     */
+    public record Part(String name, String filename, String contentType, InputStream body) {
+        public boolean isFile() {
+            return filename != null;
+        }
+    }
+
+    /**
+     * Advance to the next part, skipping whatever is left of the current one.
+     *
+     * @return the next part, or null once the closing boundary has been read
+     */
+    public Part next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        // Skip the rest of the current part (or the preamble before the first boundary)
+        PartInputStream skipping = current != null ? current : new PartInputStream();
+        byte[] scratch = new byte[8192];
+        while (skipping.read(scratch, 0, scratch.length) != -1) {
+            // discard
+        }
+
+        ensure(2);
+        if (buf[head] == '-' && buf[head + 1] == '-') {
+            finished = true;
+            current = null;
+            return null;
+        }
+        String line = readLine();
+        if (!line.isBlank()) {
+            throw new IOException("Malformed multipart boundary");
+        }
+
+        Map<String, String> headers = new HashMap<>();
+        int headerBytes = 0;
+        for (String header = readLine(); !header.isEmpty(); header = readLine()) {
+            headerBytes += header.length();
+            if (headerBytes > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart headers too large");
+            }
+            int colon = header.indexOf(':');
+            if (colon > 0) {
+                headers.put(header.substring(0, colon).trim().toLowerCase(Locale.ROOT), header.substring(colon + 1).trim());
+            }
+        }
+
+        Map<String, String> disposition = parseParameters(headers.getOrDefault("content-disposition", ""));
+        current = new PartInputStream();
+        return new Part(disposition.get("name"), disposition.get("filename"), headers.get("content-type"), current);
+    }
+
+    private static Map<String, String> parseParameters(String header) {
+        Map<String, String> params = new HashMap<>();
+        for (String token : header.split(";")) {
+            int eq = token.indexOf('=');
+            if (eq > 0) {
+                String value = token.substring(eq + 1).trim();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1);
+                }
+                params.put(token.substring(0, eq).trim().toLowerCase(Locale.ROOT), value);
+            }
+        }
+        return params;
+    }
+
+    private String readLine() throws IOException {
+        while (true) {
+            for (int i = head; i + 1 < tail; i++) {
+                if (buf[i] == '\r' && buf[i + 1] == '\n') {
+                    String line = new String(buf, head, i - head, StandardCharsets.UTF_8);
+                    head = i + 2;
+                    return line;
+                }
+            }
+            if (tail - head >= MAX_HEADER_BYTES) {
+                throw new IOException("Multipart header line too long");
+            }
+            if (!fill()) {
+                throw new EOFException("Unexpected end of multipart stream");
+            }
+        }
+    }
+
+    private void ensure(int count) throws IOException {
+        while (tail - head < count) {
+            if (!fill()) {
+                throw new EOFException("Unexpected end of multipart stream");
+            }
+        }
+    }
+
+    /**
+     * Compact the buffer and read more input. Returns false at end of stream.
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        if (head > 0) {
+            System.arraycopy(buf, head, buf, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        int read = in.read(buf, tail, buf.length - tail);
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        tail += read;
+        return true;
+    }
+
+    private int indexOfDelimiter() {
+        int last = tail - delimiter.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buf[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private final class PartInputStream extends InputStream {
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n == -1 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (done) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                int idx = indexOfDelimiter();
+                int available;
+                if (idx >= 0) {
+                    available = idx - head;
+                    if (available == 0) {
+                        done = true;
+                        head = idx + delimiter.length;
+                        return -1;
+                    }
+                } else {
+                    // Hold back enough bytes to recognise a delimiter split across reads
+                    available = tail - head - (delimiter.length - 1);
+                    if (available <= 0) {
+                        if (!fill()) {
+                            throw new EOFException("Unexpected end of multipart stream");
+                        }
+                        continue;
+                    }
+                }
+                int n = Math.min(len, available);
+                System.arraycopy(buf, head, b, off, n);
+                head += n;
+                return n;
+            }
+        }
+    }
+}
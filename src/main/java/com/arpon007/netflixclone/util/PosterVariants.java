@@ -0,0 +1,44 @@
+package com.arpon007.netflixclone.util;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Widths poster variants are generated at, and the ?w= URLs that select them. Requested
+ * widths are snapped up to one of {@link #WIDTHS} so the number of variants per image
+ * stays bounded.
+ */
+public final class PosterVariants {
+
+    public static final List<Integer> WIDTHS = List.of(320, 640, 1280);
+
+    private PosterVariants() {
+    }
+
+    /**
+     * Width the given request is served at, or null if it is wider than every variant
+     */
+    public static Integer snapWidth(int requestedWidth) {
+        for (int width : WIDTHS) {
+            if (requestedWidth <= width) {
+                return width;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Variant URLs of a poster by width, for srcset / card thumbnails; null without a poster
+     */
+    public static Map<Integer, String> urls(String posterUrl) {
+        if (posterUrl == null) {
+            return null;
+        }
+        Map<Integer, String> variants = new LinkedHashMap<>();
+        for (int width : WIDTHS) {
+            variants.put(width, posterUrl + "?w=" + width);
+        }
+        return variants;
+    }
+}
@@ -0,0 +1,225 @@
+package com.arpon007.netflixclone.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable prefix index for autocomplete. Every node stores its best k completions,
+ * precomputed at build time, so a lookup is one walk down the typed prefix and no
+ * traversal below it. The trie is flattened into parallel arrays (sorted child labels
+ * per node, found by binary search) to stay compact and allocation-free to query.
+ * <p>
+ * Each entry is reachable from the start of every word of its text, so "things"
+ * completes to "Stranger Things".
+ */
+public final class PrefixTrie {
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    // Per node: range of its children in childLabels/childNodes, and of its completions in top
+    private final int[] childStart;
+    private final int[] childCount;
+    private final char[] childLabels;
+    private final int[] childNodes;
+    private final int[] topStart;
+    private final int[] topCount;
+    private final int[] top;
+
+    private final long[] ids;
+    private final String[] texts;
+    private final long[] weights;
+
+    /**
+     * A completion: the entry's id, its original text and its weight
+     */
+    public record Completion(long id, String text, long weight) {
+    }
+
+    private PrefixTrie(int[] childStart, int[] childCount, char[] childLabels, int[] childNodes,
+                       int[] topStart, int[] topCount, int[] top, long[] ids, String[] texts, long[] weights) {
+        this.childStart = childStart;
+        this.childCount = childCount;
+        this.childLabels = childLabels;
+        this.childNodes = childNodes;
+        this.topStart = topStart;
+        this.topCount = topCount;
+        this.top = top;
+        this.ids = ids;
+        this.texts = texts;
+        this.weights = weights;
+    }
+
+    public static PrefixTrie empty() {
+        return build(List.of(), 1);
+    }
+
+    /**
+     * Best completions of the prefix, highest weight first
+     */
+    public List<Completion> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        int node = 0;
+        for (int i = 0; i < key.length(); i++) {
+            int from = childStart[node];
+            int found = Arrays.binarySearch(childLabels, from, from + childCount[node], key.charAt(i));
+            if (found < 0) {
+                return List.of();
+            }
+            node = childNodes[found];
+        }
+        int count = Math.min(limit, topCount[node]);
+        List<Completion> completions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int entry = top[topStart[node] + i];
+            completions.add(new Completion(ids[entry], texts[entry], weights[entry]));
+        }
+        return completions;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int nodeCount() {
+        return childStart.length;
+    }
+
+    public long sizeInBytes() {
+        return childStart.length * 16L + childLabels.length * 6L + top.length * 4L + ids.length * 24L
+                + Arrays.stream(texts).mapToLong(text -> 40 + 2L * text.length()).sum();
+    }
+
+    /**
+     * Lower-cased, accent-folded, words separated by single spaces
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        return NON_WORD.matcher(folded).replaceAll(" ").strip();
+    }
+
+    /**
+     * Build a trie keeping the k heaviest completions per node
+     *
+     * @param entries id, text and weight of every completion
+     */
+    public static PrefixTrie build(List<Completion> entries, int k) {
+        // Heaviest first, so each node's list can be filled in order
+        List<Completion> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingLong(Completion::weight).reversed().thenComparingLong(Completion::id));
+
+        List<Node> nodes = new ArrayList<>();
+        Node root = new Node();
+        nodes.add(root);
+        for (int entry = 0; entry < sorted.size(); entry++) {
+            String key = normalize(sorted.get(entry).text());
+            for (int start = 0; start < key.length(); start++) {
+                if (start > 0 && key.charAt(start - 1) != ' ') {
+                    continue;
+                }
+                Node node = root;
+                for (int i = start; i < key.length(); i++) {
+                    Node child = node.child(key.charAt(i));
+                    if (child == null) {
+                        child = node.addChild(key.charAt(i));
+                        nodes.add(child);
+                    }
+                    node = child;
+                    // Entries arrive heaviest first, so the first k distinct ones are the top k
+                    if (node.top.size() < k && (node.top.isEmpty() || node.top.getLast() != entry)) {
+                        node.top.add(entry);
+                    }
+                }
+            }
+        }
+
+        // Flatten breadth-first so node 0 is the root
+        int n = nodes.size();
+        int[] childStart = new int[n];
+        int[] childCount = new int[n];
+        int[] topStart = new int[n];
+        int[] topCount = new int[n];
+        char[] childLabels = new char[Math.max(0, n - 1)];
+        int[] childNodes = new int[Math.max(0, n - 1)];
+        List<Node> order = new ArrayList<>(n);
+        order.add(root);
+        root.index = 0;
+        int totalTop = 0;
+        int edge = 0;
+        for (int i = 0; i < order.size(); i++) {
+            Node node = order.get(i);
+            childStart[i] = edge;
+            childCount[i] = node.size;
+            for (int c = 0; c < node.size; c++) {
+                Node child = node.kids[c];
+                child.index = order.size();
+                order.add(child);
+                childLabels[edge] = node.labels[c];
+                childNodes[edge] = child.index;
+                edge++;
+            }
+            topStart[i] = totalTop;
+            topCount[i] = node.top.size();
+            totalTop += node.top.size();
+        }
+        int[] top = new int[totalTop];
+        for (int i = 0; i < order.size(); i++) {
+            List<Integer> nodeTop = order.get(i).top;
+            for (int j = 0; j < nodeTop.size(); j++) {
+                top[topStart[i] + j] = nodeTop.get(j);
+            }
+        }
+
+        long[] ids = new long[sorted.size()];
+        String[] texts = new String[sorted.size()];
+        long[] weights = new long[sorted.size()];
+        for (int i = 0; i < sorted.size(); i++) {
+            ids[i] = sorted.get(i).id();
+            texts[i] = sorted.get(i).text();
+            weights[i] = sorted.get(i).weight();
+        }
+        return new PrefixTrie(childStart, childCount, childLabels, childNodes, topStart, topCount, top,
+                ids, texts, weights);
+    }
+
+    private static final class Node {
+        // Children sorted by label, so the flattened labels of a node can be binary searched
+        char[] labels = new char[0];
+        Node[] kids = new Node[0];
+        int size;
+        final List<Integer> top = new ArrayList<>(2);
+        int index;
+
+        Node child(char label) {
+            int found = Arrays.binarySearch(labels, 0, size, label);
+            return found >= 0 ? kids[found] : null;
+        }
+
+        Node addChild(char label) {
+            int position = -Arrays.binarySearch(labels, 0, size, label) - 1;
+            if (size == labels.length) {
+                labels = Arrays.copyOf(labels, Math.max(2, size * 2));
+                kids = Arrays.copyOf(kids, labels.length);
+            }
+            System.arraycopy(labels, position, labels, position + 1, size - position);
+            System.arraycopy(kids, position, kids, position + 1, size - position);
+            Node child = new Node();
+            labels[position] = label;
+            kids[position] = child;
+            size++;
+            return child;
+        }
+    }
+}
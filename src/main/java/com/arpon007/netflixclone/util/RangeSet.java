@@ -0,0 +1,75 @@
+package com.arpon007.netflixclone.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Set of non-overlapping half-open byte intervals [start, end), merged on insert.
+ * Serialized as comma separated inclusive ranges, e.g. "0-1048575,2097152-3145727".
+ * Not thread-safe.
+ */
+public final class RangeSet {
+
+    private final TreeMap<Long, Long> intervals = new TreeMap<>();
+
+    public void add(long start, long end) {
+        if (end <= start) {
+            return;
+        }
+        Map.Entry<Long, Long> floor = intervals.floorEntry(start);
+        if (floor != null && floor.getValue() >= start) {
+            start = floor.getKey();
+            end = Math.max(end, floor.getValue());
+        }
+        Map.Entry<Long, Long> next = intervals.ceilingEntry(start);
+        while (next != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            intervals.remove(next.getKey());
+            next = intervals.ceilingEntry(start);
+        }
+        intervals.put(start, end);
+    }
+
+    /**
+     * Whether the whole interval [start, end) is covered.
+     */
+    public boolean covers(long start, long end) {
+        Map.Entry<Long, Long> floor = intervals.floorEntry(start);
+        return floor != null && floor.getValue() >= end;
+    }
+
+    public long coveredBytes() {
+        long total = 0;
+        for (Map.Entry<Long, Long> interval : intervals.entrySet()) {
+            total += interval.getValue() - interval.getKey();
+        }
+        return total;
+    }
+
+    public List<String> toList() {
+        List<String> ranges = new ArrayList<>(intervals.size());
+        for (Map.Entry<Long, Long> interval : intervals.entrySet()) {
+            ranges.add(interval.getKey() + "-" + (interval.getValue() - 1));
+        }
+        return ranges;
+    }
+
+    public static RangeSet parse(String value) {
+        RangeSet set = new RangeSet();
+        if (value == null || value.isBlank()) {
+            return set;
+        }
+        for (String range : value.split(",")) {
+            int dash = range.indexOf('-');
+            set.add(Long.parseLong(range.substring(0, dash).trim()), Long.parseLong(range.substring(dash + 1).trim()) + 1);
+        }
+        return set;
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", toList());
+    }
+}
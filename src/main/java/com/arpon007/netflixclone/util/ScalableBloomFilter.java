@@ -0,0 +1,72 @@
+package com.arpon007.netflixclone.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link BloomFilter} that grows with the number of pairs added (Almeida et al.,
+ * "Scalable Bloom Filters"). Pairs go into the newest generation; once it holds as many
+ * pairs as it was sized for, a generation twice as large with half the false-positive
+ * probability is added. Lookups check every generation, so the false-positive
+ * probability stays below twice the initial one however many pairs are added, instead
+ * of climbing towards 1 once a fixed-size filter is full.
+ */
+public final class ScalableBloomFilter {
+
+    private record Generation(BloomFilter filter, long capacity, double falsePositiveProbability,
+                              AtomicLong count) {
+    }
+
+    // Replaced (grown) under the lock; the newest generation is last
+    private volatile Generation[] generations;
+
+    public ScalableBloomFilter(long initialCapacity, double falsePositiveProbability) {
+        long capacity = Math.max(1, initialCapacity);
+        generations = new Generation[]{new Generation(new BloomFilter(capacity, falsePositiveProbability),
+                capacity, falsePositiveProbability, new AtomicLong())};
+    }
+
+    public boolean mightContain(long a, long b) {
+        Generation[] current = generations;
+        // Newest first: recently added pairs are the likeliest to be looked up again
+        for (int i = current.length - 1; i >= 0; i--) {
+            if (current[i].filter().mightContain(a, b)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void put(long a, long b) {
+        Generation[] current = generations;
+        Generation newest = current[current.length - 1];
+        if (newest.filter().put(a, b) && newest.count().incrementAndGet() >= newest.capacity()) {
+            grow(newest);
+        }
+    }
+
+    public int generationCount() {
+        return generations.length;
+    }
+
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (Generation generation : generations) {
+            bytes += generation.filter().sizeInBytes();
+        }
+        return bytes;
+    }
+
+    private synchronized void grow(Generation full) {
+        Generation[] current = generations;
+        if (current[current.length - 1] != full) {
+            return;
+        }
+        long capacity = full.capacity() * 2;
+        double probability = full.falsePositiveProbability() / 2;
+        Generation[] grown = Arrays.copyOf(current, current.length + 1);
+        grown[current.length] = new Generation(new BloomFilter(capacity, probability), capacity, probability,
+                new AtomicLong());
+        generations = grown;
+    }
+}
@@ -0,0 +1,256 @@
+package com.arpon007.netflixclone.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Event counts per id over a sliding window of time buckets, in constant memory. Each
+ * bucket is a count-min sketch (conservative update) plus a bounded min-heap of its
+ * heaviest ids, so the memory use depends only on the constructor arguments, never on
+ * the number of events or distinct ids.
+ * <p>
+ * {@link #top} scores the candidates of the buckets in a window by their estimated
+ * counts, weighting each bucket by an exponential decay of its age, so recent activity
+ * outranks older activity of the same volume. {@link #score} does the same for any given
+ * set of ids, such as one category, whose members may be too light to be candidates
+ * among all ids. Estimates never undercount; they
+ * overcount by at most about {@code e / width} of the bucket's total with probability
+ * {@code 1 - e^-depth}.
+ * <p>
+ * Thread-safe: all methods synchronize on the sketch.
+ */
+public final class TrendingSketch {
+
+    private final long bucketMillis;
+    private final int width;
+    private final int depth;
+    private final int candidates;
+    private final Bucket[] ring;
+    private final int[] cells;
+
+    /**
+     * An id and its decayed score
+     */
+    public record Scored(long id, double score) {
+    }
+
+    /**
+     * @param bucketCount  number of buckets kept; the longest window is bucketCount buckets
+     * @param bucketMillis length of a bucket
+     * @param width        counters per sketch row
+     * @param depth        sketch rows (independent hashes)
+     * @param candidates   heaviest ids tracked per bucket
+     */
+    public TrendingSketch(int bucketCount, long bucketMillis, int width, int depth, int candidates) {
+        this.bucketMillis = bucketMillis;
+        this.width = width;
+        this.depth = depth;
+        this.candidates = candidates;
+        this.cells = new int[depth];
+        this.ring = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            ring[i] = new Bucket();
+        }
+    }
+
+    /**
+     * Count one event for the id at the given time; events older than the ring are ignored
+     */
+    public synchronized void add(long id, long timeMillis) {
+        long epoch = Math.floorDiv(timeMillis, bucketMillis);
+        Bucket bucket = ring[(int) Math.floorMod(epoch, (long) ring.length)];
+        if (bucket.epoch != epoch) {
+            if (bucket.epoch > epoch) {
+                return;
+            }
+            bucket.reset(epoch);
+        }
+        bucket.total++;
+
+        // Conservative update: only raise the counters that hold the current minimum
+        int estimate = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            cells[row] = row * width + index(id, row);
+            estimate = Math.min(estimate, bucket.counts[cells[row]]);
+        }
+        estimate++;
+        for (int row = 0; row < depth; row++) {
+            if (bucket.counts[cells[row]] < estimate) {
+                bucket.counts[cells[row]] = estimate;
+            }
+        }
+        bucket.offer(id, estimate);
+    }
+
+    /**
+     * Every candidate id of the last windowBuckets buckets, highest decayed score first
+     *
+     * @param halfLifeBuckets age (in buckets) at which a bucket's counts weigh half
+     */
+    public synchronized List<Scored> top(int windowBuckets, double halfLifeBuckets, long nowMillis) {
+        Window window = window(windowBuckets, halfLifeBuckets, nowMillis);
+        Set<Long> ids = new HashSet<>();
+        for (Bucket bucket : window.buckets()) {
+            for (int i = 0; i < bucket.size; i++) {
+                ids.add(bucket.heapIds[i]);
+            }
+        }
+        return score(window, ids);
+    }
+
+    /**
+     * The given ids with a non-zero decayed score over the last windowBuckets buckets, highest first
+     *
+     * @param halfLifeBuckets age (in buckets) at which a bucket's counts weigh half
+     */
+    public synchronized List<Scored> score(Collection<Long> ids, int windowBuckets, double halfLifeBuckets, long nowMillis) {
+        return score(window(windowBuckets, halfLifeBuckets, nowMillis), ids);
+    }
+
+    public long sizeInBytes() {
+        return ring.length * (4L * width * depth + 60L * candidates + 64);
+    }
+
+    private record Window(List<Bucket> buckets, double[] weights) {
+    }
+
+    private Window window(int windowBuckets, double halfLifeBuckets, long nowMillis) {
+        long now = Math.floorDiv(nowMillis, bucketMillis);
+        int size = Math.min(windowBuckets, ring.length);
+        List<Bucket> buckets = new ArrayList<>(size);
+        double[] weights = new double[size];
+        for (int age = 0; age < size; age++) {
+            Bucket bucket = ring[(int) Math.floorMod(now - age, (long) ring.length)];
+            if (bucket.epoch == now - age && bucket.total > 0) {
+                weights[buckets.size()] = Math.pow(0.5, age / halfLifeBuckets);
+                buckets.add(bucket);
+            }
+        }
+        return new Window(buckets, weights);
+    }
+
+    private List<Scored> score(Window window, Collection<Long> ids) {
+        List<Scored> scored = new ArrayList<>(ids.size());
+        if (window.buckets().isEmpty()) {
+            return scored;
+        }
+        for (long id : ids) {
+            // Hash once per id; the cells are at the same offsets in every bucket
+            for (int row = 0; row < depth; row++) {
+                cells[row] = row * width + index(id, row);
+            }
+            double score = 0;
+            for (int b = 0; b < window.buckets().size(); b++) {
+                int[] counts = window.buckets().get(b).counts;
+                int estimate = Integer.MAX_VALUE;
+                for (int row = 0; row < depth; row++) {
+                    estimate = Math.min(estimate, counts[cells[row]]);
+                }
+                score += window.weights()[b] * estimate;
+            }
+            if (score > 0) {
+                scored.add(new Scored(id, score));
+            }
+        }
+        scored.sort((a, b) -> a.score() != b.score() ? Double.compare(b.score(), a.score()) : Long.compare(a.id(), b.id()));
+        return scored;
+    }
+
+    private int index(long id, int row) {
+        return (int) Math.floorMod(mix(id + 0x9E3779B97F4A7C15L * (row + 1)), (long) width);
+    }
+
+    // Finaliser of SplitMix64 / MurmurHash3
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private final class Bucket {
+        long epoch = Long.MIN_VALUE;
+        long total;
+        final int[] counts = new int[width * depth];
+
+        // Min-heap of the heaviest ids by estimate, with each id's heap position
+        final long[] heapIds = new long[candidates];
+        final int[] heapCounts = new int[candidates];
+        final Map<Long, Integer> positions = new HashMap<>();
+        int size;
+
+        void reset(long epoch) {
+            this.epoch = epoch;
+            total = 0;
+            Arrays.fill(counts, 0);
+            positions.clear();
+            size = 0;
+        }
+
+        void offer(long id, int estimate) {
+            Integer position = positions.get(id);
+            if (position != null) {
+                // Estimates only grow, so the entry can only move down
+                heapCounts[position] = estimate;
+                siftDown(position);
+            } else if (size < candidates) {
+                heapIds[size] = id;
+                heapCounts[size] = estimate;
+                positions.put(id, size);
+                siftUp(size++);
+            } else if (estimate > heapCounts[0]) {
+                positions.remove(heapIds[0]);
+                heapIds[0] = id;
+                heapCounts[0] = estimate;
+                positions.put(id, 0);
+                siftDown(0);
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (heapCounts[parent] <= heapCounts[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && heapCounts[left] < heapCounts[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && heapCounts[right] < heapCounts[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = heapIds[a];
+            int count = heapCounts[a];
+            heapIds[a] = heapIds[b];
+            heapCounts[a] = heapCounts[b];
+            heapIds[b] = id;
+            heapCounts[b] = count;
+            positions.put(heapIds[a], a);
+            positions.put(heapIds[b], b);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.arpon007.netflixclone.Security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class JwtUtilTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private JwtUtil jwtUtil;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = newJwtUtil(10);
+    }
+
+    @Test
+    void repeatedTokenIsServedWithoutParsing() {
+        String token = jwtUtil.generateToken("user@example.com", "USER");
+        JwtUtil.VerifiedToken first = jwtUtil.verify(token);
+        assertNotNull(first);
+
+        // A parser that rejects every token: only the cache can answer now
+        ReflectionTestUtils.setField(jwtUtil, "parser", Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor("another-secret-of-at-least-32-bytes".getBytes())).build());
+
+        assertSame(first, jwtUtil.verify(token));
+        assertEquals(1, jwtUtil.getCacheStats().getHits());
+        assertEquals(1, jwtUtil.getCacheStats().getMisses());
+    }
+
+    @Test
+    void expiredTokenIsNotServedFromTheCache() {
+        String token = jwtUtil.generateToken("user@example.com", "USER");
+        assertNotNull(jwtUtil.verify(token));
+
+        // As if the cached token had expired since it was verified
+        cached().replaceAll((digest, verified) ->
+                new JwtUtil.VerifiedToken(verified.username(), verified.role(), new Date(System.currentTimeMillis() - 1000)));
+
+        assertNull(jwtUtil.verify(token));
+        assertEquals(0, jwtUtil.getCacheStats().getHits());
+        assertEquals(0, jwtUtil.getCacheStats().getEntries());
+    }
+
+    @Test
+    void tamperedTokenIsNotServedFromTheCache() {
+        String token = jwtUtil.generateToken("user@example.com", "USER");
+        assertNotNull(jwtUtil.verify(token));
+
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8)
+                .replace("\"USER\"", "\"ADMIN\"");
+        String tampered = parts[0] + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.getBytes(StandardCharsets.UTF_8)) + "." + parts[2];
+
+        assertNull(jwtUtil.verify(tampered));
+        assertEquals(0, jwtUtil.getCacheStats().getHits());
+        assertEquals(1, jwtUtil.getCacheStats().getEntries());
+    }
+
+    @Test
+    void sizeBoundEvictsTheLeastRecentlyUsedToken() {
+        jwtUtil = newJwtUtil(2);
+        String first = jwtUtil.generateToken("first@example.com", "USER");
+        String second = jwtUtil.generateToken("second@example.com", "USER");
+        String third = jwtUtil.generateToken("third@example.com", "USER");
+
+        jwtUtil.verify(first);
+        jwtUtil.verify(second);
+        // Used again, so second is now the eldest
+        jwtUtil.verify(first);
+        jwtUtil.verify(third);
+
+        assertEquals(2, jwtUtil.getCacheStats().getEntries());
+        assertEquals(1, jwtUtil.getCacheStats().getEvictions());
+
+        long hits = jwtUtil.getCacheStats().getHits();
+        jwtUtil.verify(first);
+        jwtUtil.verify(third);
+        assertEquals(hits + 2, jwtUtil.getCacheStats().getHits());
+        long misses = jwtUtil.getCacheStats().getMisses();
+        assertNotNull(jwtUtil.verify(second));
+        assertEquals(misses + 1, jwtUtil.getCacheStats().getMisses());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, JwtUtil.VerifiedToken> cached() {
+        return (Map<String, JwtUtil.VerifiedToken>) ReflectionTestUtils.getField(jwtUtil, "verified");
+    }
+
+    private static JwtUtil newJwtUtil(int maxCachedTokens) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "maxCachedTokens", maxCachedTokens);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+}
@@ -0,0 +1,99 @@
+package com.arpon007.netflixclone.Security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.time.Instant;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authorising one range request of a playback session.
+ * <ul>
+ *     <li>jwtFilterBaseline: what JwtAuthenticationFilter used to do per request, four full
+ *     JWT parses (user name, validate, expiry, role), each building a new key and parser</li>
+ *     <li>jwtParse: one parse with a prebuilt parser, as JwtUtil does on a cache miss</li>
+ *     <li>jwtUtilCached: JwtUtil.verify for a token it has verified before</li>
+ *     <li>streamUrlVerify: StreamUrlSigner.verify of a signed stream URL token</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamUrlSignerBenchmark {
+
+    private static final String SECRET = "a-benchmark-secret-that-is-long-enough-for-hs256-keys";
+    private static final String FILE = "3f2a9c0d4e5b6a7f8091a2b3c4d5e6f708192a3b4c5d6e7f8091a2b3c4d5e6f7.mp4";
+
+    private String jwt;
+    private JwtParser parser;
+    private JwtUtil jwtUtil;
+    private StreamUrlSigner signer;
+    private String streamToken;
+    private Instant now;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = Keys.hmacShaKeyFor(SECRET.getBytes());
+        jwt = Jwts.builder()
+                .subject("viewer@example.com")
+                .claim("role", "USER")
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .signWith(key).compact();
+        parser = Jwts.parser().verifyWith(key).build();
+
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtil, "maxCachedTokens", 10_000);
+        jwtUtil.init();
+        jwtUtil.verify(jwt);
+
+        signer = new StreamUrlSigner(SECRET, 600, 300);
+        now = Instant.now();
+        streamToken = signer.sign(42L, FILE, now);
+    }
+
+    @Benchmark
+    public Object jwtFilterBaseline() {
+        Object last = null;
+        for (int i = 0; i < 4; i++) {
+            Claims claims = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                    .parseSignedClaims(jwt).getPayload();
+            last = claims.getSubject();
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Claims jwtParse() {
+        return parser.parseSignedClaims(jwt).getPayload();
+    }
+
+    @Benchmark
+    public JwtUtil.VerifiedToken jwtUtilCached() {
+        return jwtUtil.verify(jwt);
+    }
+
+    @Benchmark
+    public Long streamUrlVerify() {
+        return signer.verify(streamToken, FILE, now);
+    }
+}
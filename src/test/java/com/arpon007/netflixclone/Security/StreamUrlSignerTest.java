@@ -0,0 +1,59 @@
+package com.arpon007.netflixclone.Security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamUrlSignerTest {
+
+    private final StreamUrlSigner signer = new StreamUrlSigner("test-secret", 600, 300);
+
+    @Test
+    void signsTheSameTokenWithinABucket() {
+        Instant bucketStart = Instant.ofEpochSecond(1_700_000_100L);
+        String first = signer.sign(7, "a.mp4", bucketStart.plusSeconds(1));
+        assertEquals(first, signer.sign(7, "a.mp4", bucketStart.plusSeconds(300)));
+        assertNotEquals(first, signer.sign(7, "a.mp4", bucketStart.plusSeconds(301)));
+        assertNotEquals(first, signer.sign(7, "b.mp4", bucketStart.plusSeconds(1)));
+        assertNotEquals(first, signer.sign(8, "a.mp4", bucketStart.plusSeconds(1)));
+    }
+
+    @Test
+    void expiresNoEarlierThanTheTtlAndOnABucketBoundary() {
+        Instant now = Instant.ofEpochSecond(1_700_000_123L);
+        long expires = signer.expiryOf(now).getEpochSecond();
+        assertTrue(expires >= now.getEpochSecond() + 600);
+        assertTrue(expires < now.getEpochSecond() + 600 + 300);
+        assertEquals(0, expires % 300);
+    }
+
+    @Test
+    void verifiesOnlyTheSignedUserAndFileUntilExpiry() {
+        Instant now = Instant.ofEpochSecond(1_700_000_000L);
+        String token = signer.sign(7, "a.mp4", now);
+        assertEquals(7L, signer.verify(token, "a.mp4", now));
+        assertNull(signer.verify(token, "b.mp4", now));
+        assertNull(signer.verify(token, "a.mp4", signer.expiryOf(now).plusSeconds(1)));
+        assertNull(new StreamUrlSigner("other-secret", 600, 300).verify(token, "a.mp4", now));
+        // Another user's id with this user's MAC
+        assertNull(signer.verify("8" + token.substring(1), "a.mp4", now));
+    }
+
+    @Test
+    void rejectsMalformedTokens() {
+        Instant now = Instant.ofEpochSecond(1_700_000_000L);
+        assertNull(signer.verify(null, "a.mp4", now));
+        assertNull(signer.verify("", "a.mp4", now));
+        assertNull(signer.verify("123", "a.mp4", now));
+        assertNull(signer.verify("7.1800000000", "a.mp4", now));
+        assertNull(signer.verify(".1800000000.abc", "a.mp4", now));
+        assertNull(signer.verify("7..abc", "a.mp4", now));
+        assertNull(signer.verify("x.1800000000.abc", "a.mp4", now));
+        assertNull(signer.verify("7.1800000000.!!", "a.mp4", now));
+    }
+}
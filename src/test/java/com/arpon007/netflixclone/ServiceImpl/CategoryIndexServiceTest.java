@@ -0,0 +1,72 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.entity.Video;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CategoryIndexServiceTest {
+
+    private final CategoryIndexService index = new CategoryIndexService();
+
+    @Test
+    void listsNewestCreatedFirstWhateverTheIndexingOrder() {
+        index.index(video(1, 100, "Drama"));
+        index.index(video(3, 300, "Drama"));
+        // Created before video 3 but indexed after it, e.g. processed late
+        index.index(video(2, 200, "Drama"));
+
+        assertEquals(List.of(3L, 2L, 1L), index.videoIds("Drama"));
+        assertEquals(List.of(3L, 2L, 1L), index.find(List.of("Drama"), List.of(), null, 10).videoIds());
+    }
+
+    @Test
+    void cursorContinuesAfterTheLastVideoAcrossRenumbering() {
+        for (long id = 1; id <= 6; id++) {
+            index.index(video(id, id * 100, "Drama"));
+        }
+        CategoryIndexService.Match first = index.find(List.of("Drama"), List.of(), null, 3);
+        assertEquals(List.of(6L, 5L, 4L), first.videoIds());
+
+        // Renumbers every ordinal before the next page is read
+        index.index(video(7, 50, "Drama"));
+
+        CategoryIndexService.Match second = index.find(List.of("Drama"), List.of(), first.nextCursor(), 3);
+        assertEquals(List.of(3L, 2L, 1L), second.videoIds());
+        CategoryIndexService.Match third = index.find(List.of("Drama"), List.of(), second.nextCursor(), 3);
+        assertEquals(List.of(7L), third.videoIds());
+        assertNull(third.nextCursor());
+    }
+
+    @Test
+    void removedOrdinalsAreReclaimed() {
+        int videos = 5_000;
+        for (long id = 1; id <= videos; id++) {
+            index.index(video(id, id, id % 2 == 0 ? "Drama" : "Comedy"));
+        }
+        for (long id = 1; id < videos; id++) {
+            index.remove(id);
+        }
+
+        int nextOrdinal = (int) ReflectionTestUtils.getField(index, "nextOrdinal");
+        assertTrue(nextOrdinal <= 1024 + 2, "ordinals in use: " + nextOrdinal);
+        assertEquals(List.of((long) videos), index.videoIds("Drama"));
+        assertEquals(List.of(), index.videoIds("Comedy"));
+        assertTrue(index.hasCategory(videos, "Drama"));
+    }
+
+    private static Video video(long id, long createdSecond, String... categories) {
+        Video video = new Video();
+        video.setVideo_id(id);
+        video.setCreatedAt(Instant.ofEpochSecond(createdSecond));
+        video.setCategories(new ArrayList<>(List.of(categories)));
+        return video;
+    }
+}
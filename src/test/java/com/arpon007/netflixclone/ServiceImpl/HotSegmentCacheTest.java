@@ -0,0 +1,109 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HotSegmentCacheTest {
+
+    private static final int SEGMENT = 1024;
+
+    @TempDir
+    Path dir;
+
+    private HotSegmentCache cache;
+    private Path file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cache = new HotSegmentCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "segmentSize", SEGMENT);
+        ReflectionTestUtils.setField(cache, "maxBytes", 3L * SEGMENT);
+        ReflectionTestUtils.setField(cache, "hotPrefixSegments", 4L);
+        ReflectionTestUtils.setField(cache, "loadQueue", 16);
+        cache.start();
+
+        content = new byte[5 * SEGMENT + 100];
+        new Random(1).nextBytes(content);
+        file = Files.write(dir.resolve("video.mp4"), content);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        cache.close();
+    }
+
+    @Test
+    void missQueuesTheSegmentsAndLaterRangesAreServedFromTheMapping() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertFalse(cache.write(file, 100, 1500, Channels.newChannel(out)));
+        assertEquals(0, out.size());
+        awaitEquals(2, () -> cache.getCacheStats().getEntries());
+
+        assertTrue(cache.write(file, 100, 1500, Channels.newChannel(out)));
+        assertArrayEquals(Arrays.copyOfRange(content, 100, 1600), out.toByteArray());
+        assertEquals(1, cache.getCacheStats().getHits());
+        assertEquals(1, cache.getCacheStats().getMisses());
+    }
+
+    @Test
+    void rangesReachingPastTheHotPrefixAreNotServed() throws Exception {
+        cache.warm(file, 4);
+        awaitEquals(3, () -> cache.getCacheStats().getEntries());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertFalse(cache.write(file, 3 * SEGMENT, 2 * SEGMENT, Channels.newChannel(out)));
+        assertFalse(cache.write(file, 4 * SEGMENT, 10, Channels.newChannel(out)));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void staysWithinTheByteBudgetAndSparesFrequentlyReadSegments() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cache.warm(file, 1);
+        awaitEquals(1, () -> cache.getCacheStats().getEntries());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(cache.write(file, 0, 10, Channels.newChannel(out)));
+        }
+
+        cache.write(file, SEGMENT, 3L * SEGMENT, Channels.newChannel(out));
+        awaitEquals(1, () -> cache.getCacheStats().getEvictions());
+        assertEquals(3L * SEGMENT, cache.getCacheStats().getSizeBytes());
+        // Segment 0 was the eldest but the most read
+        assertTrue(cache.write(file, 0, 10, Channels.newChannel(out)));
+    }
+
+    @Test
+    void invalidateDropsTheSegmentsOfTheFile() throws Exception {
+        cache.warm(file, 2);
+        awaitEquals(2, () -> cache.getCacheStats().getEntries());
+        cache.invalidate("video.mp4");
+        assertEquals(0, cache.getCacheStats().getEntries());
+        assertEquals(0, cache.getCacheStats().getSizeBytes());
+        assertFalse(cache.write(file, 0, 10, Channels.newChannel(new ByteArrayOutputStream())));
+    }
+
+    private static void awaitEquals(long expected, LongSupplier actual) throws InterruptedException {
+        for (int i = 0; i < 200 && actual.getAsLong() != expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, actual.getAsLong());
+    }
+}
@@ -0,0 +1,151 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Playback heartbeats from 10k concurrent sessions: {@link PlaybackPositionService}, which
+ * only updates memory and upserts the dirty positions once a second, against writing each
+ * heartbeat through with its own upsert. The database is a stub that takes a fixed time per
+ * statement or batch; the rows it was asked to write per heartbeat are printed at the end
+ * of each trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(4)
+@Fork(1)
+public class PlaybackHeartbeatBenchmark {
+
+    private static final int SESSIONS = 10_000;
+    private static final int VIDEOS = 2_000;
+
+    @Param({"1"})
+    private long dbMillisPerStatement;
+
+    private StubJdbcTemplate database;
+    private PlaybackPositionService positions;
+    private String[] emails;
+    private final AtomicLong heartbeats = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new StubJdbcTemplate(dbMillisPerStatement);
+        positions = new PlaybackPositionService(database, new TransactionTemplate(new NoOpTransactionManager()));
+        ReflectionTestUtils.setField(positions, "flushSeconds", 1L);
+        ReflectionTestUtils.setField(positions, "idleMinutes", 30L);
+        ReflectionTestUtils.setField(positions, "batchSize", 500);
+        positions.start();
+
+        emails = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            emails[i] = "user" + i + "@example.com";
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        positions.stop();
+        System.out.printf("Heartbeats: %d, rows written: %d (%.4f per heartbeat)%n",
+                heartbeats.get(), database.rows.get(), (double) database.rows.get() / Math.max(1, heartbeats.get()));
+    }
+
+    @Benchmark
+    public void heartbeat() {
+        int session = ThreadLocalRandom.current().nextInt(SESSIONS);
+        positions.heartbeat(emails[session], session % VIDEOS, ThreadLocalRandom.current().nextInt(7_200));
+        heartbeats.incrementAndGet();
+    }
+
+    @Benchmark
+    public int writeThrough() {
+        int session = ThreadLocalRandom.current().nextInt(SESSIONS);
+        heartbeats.incrementAndGet();
+        int seconds = ThreadLocalRandom.current().nextInt(7_200);
+        return database.update("INSERT INTO playback_positions ...", seconds, System.currentTimeMillis(),
+                session % VIDEOS, emails[session], seconds, System.currentTimeMillis());
+    }
+
+    // Acknowledges every statement or batch after a fixed delay, like a remote database
+    private static final class StubJdbcTemplate extends JdbcTemplate {
+        private final long millisPerStatement;
+        private final AtomicLong rows = new AtomicLong();
+
+        StubJdbcTemplate(long millisPerStatement) {
+            this.millisPerStatement = millisPerStatement;
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql, Object... args) {
+            List<Map<String, Object>> users = new ArrayList<>(args.length);
+            for (int i = 0; i < args.length; i++) {
+                users.add(Map.of("id", (long) i, "email", args[i]));
+            }
+            return users;
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millisPerStatement));
+            rows.incrementAndGet();
+            return 1;
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millisPerStatement));
+            rows.addAndGet(batchArgs.size());
+            int[] counts = new int[batchArgs.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        }
+    }
+
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
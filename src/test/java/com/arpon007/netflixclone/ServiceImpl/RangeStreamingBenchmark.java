@@ -0,0 +1,125 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serving one range of a page-cached video to a loopback socket: the stream copy behind
+ * the old ResourceRegion response (open, skip, copy through an 8 KiB heap buffer) against
+ * the FileChannel.transferTo path of {@link VideoStreamingService}, which the kernel
+ * turns into sendfile. A drain thread reads the other end of the socket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RangeStreamingBenchmark {
+
+    private static final long FILE_BYTES = 64L << 20;
+
+    @Param({"1048576", "4194304"})
+    private long rangeBytes;
+
+    private Path file;
+    private FileChannel channel;
+    private ServerSocketChannel server;
+    private SocketChannel client;
+    private OutputStream clientStream;
+    private Thread drain;
+    private long offset;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("range-streaming", ".mp4");
+        byte[] block = new byte[1 << 20];
+        new Random(1).nextBytes(block);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (long written = 0; written < FILE_BYTES; written += block.length) {
+                out.write(block);
+            }
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+
+        server = ServerSocketChannel.open().bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        client = SocketChannel.open(server.getLocalAddress());
+        SocketChannel peer = server.accept();
+        clientStream = Channels.newOutputStream(client);
+        drain = Thread.ofPlatform().name("range-streaming-drain").daemon(true).start(() -> {
+            ByteBuffer sink = ByteBuffer.allocateDirect(1 << 20);
+            try (peer) {
+                while (peer.read(sink.clear()) >= 0) {
+                    // discard
+                }
+            } catch (IOException ignored) {
+                // closed at teardown
+            }
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException, InterruptedException {
+        client.close();
+        drain.join();
+        server.close();
+        channel.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long streamCopy() throws IOException {
+        long start = nextOffset();
+        try (InputStream in = Files.newInputStream(file)) {
+            return StreamUtils.copyRange(in, clientStream, start, start + rangeBytes - 1);
+        }
+    }
+
+    @Benchmark
+    public long transferTo() throws IOException {
+        long start = nextOffset();
+        long position = start;
+        long remaining = rangeBytes;
+        while (remaining > 0) {
+            long sent = channel.transferTo(position, remaining, client);
+            position += sent;
+            remaining -= sent;
+        }
+        return position - start;
+    }
+
+    // Walk the file in range-sized steps so every range is page-cached but not CPU-cached
+    private long nextOffset() {
+        long start = offset;
+        offset = (offset + rangeBytes) % (FILE_BYTES - rangeBytes);
+        return start;
+    }
+}
@@ -0,0 +1,145 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.util.MultipartStreamParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receiving the video part of a multipart upload into the video directory with its SHA-256:
+ * <ul>
+ *     <li>tempFileCopy: the servlet multipart path the old upload used, the part spooled to
+ *     a temp file by the container and then Files.copy'd to the video directory</li>
+ *     <li>tempFileCopyAndHash: the same plus the read-back pass content addressing needs</li>
+ *     <li>streamHashed: MultipartStreamParser feeding {@link FileStorageService#receiveVideo},
+ *     one write with the digest taken on the way</li>
+ * </ul>
+ * The request body is held in memory so only the server side is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UploadIngestBenchmark {
+
+    private static final String BOUNDARY = "----benchmarkBoundary7MA4YWxkTrZu0gW";
+
+    @Param({"16777216", "67108864"})
+    private int videoBytes;
+
+    private byte[] body;
+    private Path spoolDir;
+    private Path videoDir;
+    private FileStorageService storage;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] video = new byte[videoBytes];
+        new Random(1).nextBytes(video);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(videoBytes + 1024);
+        out.writeBytes(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"video\"; filename=\"movie.mp4\"\r\n"
+                + "Content-Type: video/mp4\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        out.writeBytes(video);
+        out.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.ISO_8859_1));
+        body = out.toByteArray();
+
+        spoolDir = Files.createTempDirectory("upload-spool");
+        videoDir = Files.createTempDirectory("upload-videos");
+        storage = new FileStorageService(null, null, null, null, null);
+        ReflectionTestUtils.setField(storage, "videoDir", videoDir.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(spoolDir);
+        FileSystemUtils.deleteRecursively(videoDir);
+    }
+
+    @Benchmark
+    public long tempFileCopy() throws IOException {
+        Path spooled = spool();
+        Path target = videoDir.resolve(UUID.randomUUID() + "_movie.mp4");
+        try (InputStream in = Files.newInputStream(spooled)) {
+            Files.copy(in, target);
+        }
+        Files.delete(spooled);
+        long size = Files.size(target);
+        Files.delete(target);
+        return size;
+    }
+
+    @Benchmark
+    public String tempFileCopyAndHash() throws IOException {
+        Path spooled = spool();
+        Path target = videoDir.resolve(UUID.randomUUID() + "_movie.mp4");
+        try (InputStream in = Files.newInputStream(spooled)) {
+            Files.copy(in, target);
+        }
+        Files.delete(spooled);
+        MessageDigest digest = sha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(target)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        Files.delete(target);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    @Benchmark
+    public String streamHashed() throws IOException {
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(body), BOUNDARY);
+        MultipartStreamParser.Part part = parser.next();
+        FileStorageService.StoredFile stored = storage.receiveVideo(part.body(), Long.MAX_VALUE);
+        Files.delete(videoDir.resolve(stored.fileName()));
+        return stored.sha256();
+    }
+
+    // What the container does before the controller sees a MultipartFile
+    private Path spool() throws IOException {
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(body), BOUNDARY);
+        MultipartStreamParser.Part part = parser.next();
+        Path spooled = spoolDir.resolve(UUID.randomUUID() + ".tmp");
+        Files.copy(part.body(), spooled);
+        return spooled;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
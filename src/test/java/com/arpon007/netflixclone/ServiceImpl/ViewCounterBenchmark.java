@@ -0,0 +1,136 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * View count reads and increments of {@link ViewCounterService} over 10k videos, against
+ * a ConcurrentHashMap of LongAdders keyed by boxed id as the usual in-memory alternative.
+ * The COUNT(*) over video_views these replace needs the database and is not measured here.
+ * The mixed groups read a page of 24 counts while another thread counts views.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ViewCounterBenchmark {
+
+    private static final int VIDEOS = 10_000;
+    private static final int PAGE = 24;
+
+    private ViewCounterService counters;
+    private Map<Long, LongAdder> map;
+    private long[] page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        counters = new ViewCounterService(null, null, null);
+        map = new ConcurrentHashMap<>();
+        SplittableRandom random = new SplittableRandom(1);
+        for (long id = 1; id <= VIDEOS; id++) {
+            int views = random.nextInt(1_000);
+            for (int i = 0; i < views; i++) {
+                counters.increment(id);
+            }
+            map.computeIfAbsent(id, key -> new LongAdder()).add(views);
+        }
+        ReflectionTestUtils.setField(counters, "loaded", true);
+        page = new long[PAGE];
+        for (int i = 0; i < PAGE; i++) {
+            page[i] = 1 + random.nextInt(VIDEOS);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Ids {
+        private final SplittableRandom random = new SplittableRandom();
+
+        long next() {
+            return 1 + random.nextInt(VIDEOS);
+        }
+    }
+
+    @Benchmark
+    public long counterGet(Ids ids) {
+        return counters.get(ids.next());
+    }
+
+    @Benchmark
+    public long mapGet(Ids ids) {
+        LongAdder adder = map.get(ids.next());
+        return adder != null ? adder.sum() : 0;
+    }
+
+    @Benchmark
+    public long[] counterGetPage() {
+        return counters.get(page);
+    }
+
+    @Benchmark
+    public long[] mapGetPage() {
+        long[] counts = new long[page.length];
+        for (int i = 0; i < page.length; i++) {
+            LongAdder adder = map.get(page[i]);
+            counts[i] = adder != null ? adder.sum() : 0;
+        }
+        return counts;
+    }
+
+    @Benchmark
+    public void counterIncrement(Ids ids) {
+        counters.increment(ids.next());
+    }
+
+    @Benchmark
+    public void mapIncrement(Ids ids) {
+        map.computeIfAbsent(ids.next(), key -> new LongAdder()).increment();
+    }
+
+    @Benchmark
+    @Group("counterMixed")
+    @GroupThreads(3)
+    public long[] counterMixedRead() {
+        return counters.get(page);
+    }
+
+    @Benchmark
+    @Group("counterMixed")
+    @GroupThreads(1)
+    public void counterMixedWrite(Ids ids) {
+        counters.increment(ids.next());
+    }
+
+    @Benchmark
+    @Group("mapMixed")
+    @GroupThreads(3)
+    public long[] mapMixedRead() {
+        return mapGetPage();
+    }
+
+    @Benchmark
+    @Group("mapMixed")
+    @GroupThreads(1)
+    public void mapMixedWrite(Ids ids) {
+        mapIncrement(ids);
+    }
+}
@@ -0,0 +1,195 @@
+package com.arpon007.netflixclone.ServiceImpl;
+
+import com.arpon007.netflixclone.DTO.response.ViewIngestStatsResponse;
+import com.arpon007.netflixclone.entity.Video;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of the view beacon path: 8 threads call {@link ViewIngestService#record} as
+ * fast as they can while the flusher writes batches to a stand-in database that takes
+ * dbMillisPerBatch per batch insert. Beacons come from 100k users over 10k videos, with
+ * repeatPercent of them re-sending a pair already sent. The score is beacons handled
+ * per second; the accepted, duplicate and dropped counters show how many the queue
+ * took, how many the filters screened out and how many were shed as backpressure once
+ * the database fell behind. Sustained write throughput is printed at the end of each
+ * trial from {@link ViewIngestService#getStats()}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(8)
+@Fork(1)
+public class ViewIngestBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final int VIDEOS = 10_000;
+
+    @Param({"5"})
+    private long dbMillisPerBatch;
+
+    @Param({"20"})
+    private int repeatPercent;
+
+    private ViewIngestService ingest;
+    private String[] emails;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JdbcTemplate database = new SlowBatchJdbcTemplate(dbMillisPerBatch);
+        TransactionTemplate transactions = new TransactionTemplate(new NoOpTransactionManager());
+
+        VideoSearchService search = new VideoSearchService(null);
+        for (long id = 0; id < VIDEOS; id++) {
+            Video video = new Video();
+            video.setVideo_id(id);
+            video.setTitle("Video " + id);
+            search.index(video);
+        }
+        TrendingService trending = new TrendingService(database, search, new CategoryIndexService());
+        ReflectionTestUtils.setField(trending, "sketchWidth", 2048);
+        ReflectionTestUtils.setField(trending, "candidatesPerHour", 256);
+        trending.start();
+        ViewCounterService counters = new ViewCounterService(database, transactions, null);
+        UniqueViewerService unique = new UniqueViewerService(database, transactions, search);
+
+        ingest = new ViewIngestService(database, transactions, counters, trending, unique);
+        ReflectionTestUtils.setField(ingest, "queueCapacity", 65_536);
+        ReflectionTestUtils.setField(ingest, "batchSize", 500);
+        ReflectionTestUtils.setField(ingest, "flushIntervalMs", 200L);
+        ReflectionTestUtils.setField(ingest, "expectedViews", 1_000_000L);
+        ReflectionTestUtils.setField(ingest, "falsePositiveRate", 0.001);
+        ingest.start();
+        // Stands in for loadViewed() over an empty video_views table
+        ReflectionTestUtils.setField(ingest, "ready", true);
+
+        emails = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            emails[i] = "user" + i + "@example.com";
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        ingest.stop();
+        ViewIngestStatsResponse stats = ingest.getStats();
+        System.out.println("Ingest stats: " + stats);
+    }
+
+    /**
+     * Per-second rates of the beacon outcomes
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long accepted;
+        public long duplicate;
+        public long dropped;
+        private long lastUser;
+        private long lastVideo;
+    }
+
+    @Benchmark
+    public ViewIngestService.Outcome beacon(Outcomes outcomes) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) >= repeatPercent) {
+            outcomes.lastUser = random.nextInt(USERS);
+            outcomes.lastVideo = random.nextInt(VIDEOS);
+        }
+        ViewIngestService.Outcome outcome = ingest.record(emails[(int) outcomes.lastUser], outcomes.lastVideo);
+        switch (outcome) {
+            case ACCEPTED -> outcomes.accepted++;
+            case DUPLICATE -> outcomes.duplicate++;
+            case DROPPED -> outcomes.dropped++;
+        }
+        return outcome;
+    }
+
+    // Acknowledges every row of a batch insert after a fixed delay, like a remote database; every user exists
+    private static final class SlowBatchJdbcTemplate extends JdbcTemplate {
+        private final long millisPerBatch;
+        private final AtomicLong nextUserId = new AtomicLong();
+        private final Map<Object, Long> userIds = new ConcurrentHashMap<>();
+
+        SlowBatchJdbcTemplate(long millisPerBatch) {
+            this.millisPerBatch = millisPerBatch;
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql, Object... args) {
+            List<Map<String, Object>> rows = new ArrayList<>(args.length);
+            for (Object email : args) {
+                rows.add(Map.of("id", userIds.computeIfAbsent(email, key -> nextUserId.incrementAndGet()),
+                        "email", email));
+            }
+            return rows;
+        }
+
+        @Override
+        public int update(String sql, Object... args) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millisPerBatch));
+            return args.length / 3;
+        }
+
+        @Override
+        public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                       ParameterizedPreparedStatementSetter<T> pss) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(millisPerBatch));
+            int[] counts = new int[batchArgs.size()];
+            Arrays.fill(counts, 1);
+            return new int[][]{counts};
+        }
+    }
+
+    private static final class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void neverForgetsAnAddedPair() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (long i = 0; i < 10_000; i++) {
+            filter.put(i, i * 31);
+        }
+        for (long i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(i, i * 31));
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(100_000, 0.01);
+        for (long i = 0; i < 100_000; i++) {
+            filter.put(i, 7);
+        }
+        int falsePositives = 0;
+        for (long i = 100_000; i < 200_000; i++) {
+            if (filter.mightContain(i, 7)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 1_500, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void distinguishesTheTwoHalvesOfAPair() {
+        BloomFilter filter = new BloomFilter(1_000, 0.001);
+        filter.put(1, 2);
+        assertTrue(filter.mightContain(1, 2));
+        assertFalse(filter.mightContain(2, 1));
+    }
+
+    @Test
+    void putReportsWhetherThePairWasNew() {
+        BloomFilter filter = new BloomFilter(1_000, 0.001);
+        assertTrue(filter.put(42, 1));
+        assertFalse(filter.put(42, 1));
+    }
+
+    @Test
+    void hashesStringsWithFnv1a() {
+        assertEquals(0xcbf29ce484222325L, BloomFilter.hash(""));
+        assertEquals(0xaf63dc4c8601ec8cL, BloomFilter.hash("a"));
+        assertNotEquals(BloomFilter.hash("ab@example.com"), BloomFilter.hash("ba@example.com"));
+    }
+}
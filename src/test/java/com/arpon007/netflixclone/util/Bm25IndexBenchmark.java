@@ -0,0 +1,127 @@
+package com.arpon007.netflixclone.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search latency over a synthetic catalog of 100k+ titles with title, description and
+ * categories drawn from a Zipf-distributed vocabulary, with the field weights of
+ * VideoSearchService. Queries are one or two words of a random title, as typed into a
+ * search box. The baseline is what the frontend did before: a case-insensitive substring
+ * scan of every title and description, stopping at the first 20 matches. indexUpdate measures one re-index of a
+ * changed video, including its tombstone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class Bm25IndexBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int QUERIES = 1024;
+
+    @Param({"100000", "250000"})
+    private int titles;
+
+    private String[] words;
+    private double[] cumulative;
+    private Random random;
+
+    private Bm25Index index;
+    private String[] searchable;
+    private String[] queries;
+    private int nextQuery;
+    private long nextUpdate;
+
+    @Setup
+    public void setUp() {
+        random = new Random(18);
+        words = new String[VOCABULARY];
+        cumulative = new double[VOCABULARY];
+        double total = 0;
+        for (int i = 0; i < VOCABULARY; i++) {
+            words[i] = Long.toString(mix(i) & 0xFFFFFFFFL, 36);
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+
+        index = new Bm25Index(3f, 1f, 2f);
+        searchable = new String[titles];
+        String[] titleText = new String[titles];
+        for (int key = 0; key < titles; key++) {
+            String title = phrase(2 + random.nextInt(4));
+            String description = phrase(15 + random.nextInt(20));
+            String categories = "category" + random.nextInt(20) + " category" + random.nextInt(20);
+            index.put(key, title, description, categories);
+            searchable[key] = (title + " " + description).toLowerCase(Locale.ROOT);
+            titleText[key] = title;
+        }
+
+        queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String[] titleWords = titleText[random.nextInt(titles)].split(" ");
+            int from = random.nextInt(titleWords.length - 1);
+            queries[i] = String.join(" ", Arrays.copyOfRange(titleWords, from, from + 1 + random.nextInt(2)));
+        }
+    }
+
+    @Benchmark
+    public List<Bm25Index.Hit> bm25Search() {
+        return index.search(nextQuery(), 20);
+    }
+
+    @Benchmark
+    public List<Integer> substringScan() {
+        String query = nextQuery().toLowerCase(Locale.ROOT);
+        List<Integer> matches = new ArrayList<>();
+        for (int key = 0; key < searchable.length && matches.size() < 20; key++) {
+            if (searchable[key].contains(query)) {
+                matches.add(key);
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int indexUpdate() {
+        long key = nextUpdate++ % titles;
+        index.put(key, phrase(3), phrase(20), "category" + (key % 20));
+        return index.size();
+    }
+
+    private String nextQuery() {
+        return queries[nextQuery++ & (QUERIES - 1)];
+    }
+
+    private String phrase(int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int found = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[VOCABULARY - 1]);
+            sb.append(i > 0 ? " " : "").append(words[found >= 0 ? found : -found - 1]);
+        }
+        return sb.toString();
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        return z ^ (z >>> 33);
+    }
+}
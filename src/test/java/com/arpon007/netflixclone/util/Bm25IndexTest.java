@@ -0,0 +1,112 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Bm25IndexTest {
+
+    @Test
+    void tokenizesIntoFoldedWordsAndNumbers() {
+        assertEquals(List.of("amelie", "s", "world", "2001"), Bm25Index.tokenize("  Amélie's WORLD -- 2001!"));
+        assertEquals(List.of("creme", "brulee"), Bm25Index.tokenize("Crème Brûlée"));
+        assertTrue(Bm25Index.tokenize(null).isEmpty());
+        assertTrue(Bm25Index.tokenize(" ,.; ").isEmpty());
+    }
+
+    @Test
+    void ranksTitleMatchesAboveDescriptionMatches() {
+        Bm25Index index = new Bm25Index(3f, 1f);
+        index.put(1, "Ocean Drift", "a documentary about coral reefs");
+        index.put(2, "Deep Blue", "a thriller set on the ocean floor");
+        assertEquals(List.of(1L, 2L), keys(index.search("ocean", 10)));
+    }
+
+    @Test
+    void ranksShorterDocumentsAndRarerTermsHigher() {
+        Bm25Index index = new Bm25Index(1f);
+        index.put(1, "night train");
+        index.put(2, "night train to the end of a very long line");
+        assertEquals(List.of(1L, 2L), keys(index.search("train", 10)));
+
+        index.put(3, "night shift");
+        index.put(4, "night watch");
+        // "watch" is in one document, "night" in all four
+        assertEquals(4L, index.search("night watch", 10).get(0).key());
+    }
+
+    @Test
+    void ranksRepeatedTermsHigherWithSaturation() {
+        Bm25Index index = new Bm25Index(1f);
+        index.put(1, "run run run lola");
+        index.put(2, "run away lola now");
+        List<Bm25Index.Hit> hits = index.search("run", 10);
+        assertEquals(List.of(1L, 2L), keys(hits));
+        // Three occurrences score well under three times one
+        assertTrue(hits.get(0).score() < 3 * hits.get(1).score());
+    }
+
+    @Test
+    void limitsResultsAndIgnoresEmptyQueries() {
+        Bm25Index index = new Bm25Index(1f);
+        for (long key = 0; key < 20; key++) {
+            index.put(key, "episode " + key);
+        }
+        assertEquals(5, index.search("episode", 5).size());
+        assertTrue(index.search("", 5).isEmpty());
+        assertTrue(index.search("episode", 0).isEmpty());
+        assertTrue(index.search("missing", 5).isEmpty());
+    }
+
+    @Test
+    void reindexingReplacesTheOldTerms() {
+        Bm25Index index = new Bm25Index(1f);
+        index.put(1, "old title");
+        index.put(1, "new title");
+        assertTrue(index.search("old", 10).isEmpty());
+        assertEquals(List.of(1L), keys(index.search("title", 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removedDocumentsAreTombstoned() {
+        Bm25Index index = new Bm25Index(1f);
+        index.put(1, "alpha beta");
+        index.put(2, "alpha gamma");
+        index.remove(1);
+        index.remove(99);
+        assertEquals(List.of(2L), keys(index.search("alpha", 10)));
+        assertTrue(index.search("beta", 10).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void compactsWithoutChangingResults() {
+        Bm25Index index = new Bm25Index(1f);
+        for (long key = 0; key < 3000; key++) {
+            index.put(key, "movie unique" + key + (key % 2 == 0 ? " even" : " odd"));
+        }
+        long before = index.sizeInBytes();
+        // Removing over a third of the documents triggers compaction
+        for (long key = 0; key < 3000; key += 2) {
+            index.remove(key);
+        }
+        assertEquals(1500, index.size());
+        assertTrue(index.sizeInBytes() < before, "tombstoned terms are dropped");
+        assertTrue(index.search("even", 10).isEmpty());
+        assertEquals(List.of(1L), keys(index.search("unique1", 10)));
+        assertEquals(1500, index.search("odd", 5000).size());
+
+        // Documents indexed after compaction are numbered after the survivors
+        index.put(5000, "odd one out");
+        assertEquals(5000L, index.search("out", 10).get(0).key());
+        assertEquals(1501, index.search("odd", 5000).size());
+    }
+
+    private static List<Long> keys(List<Bm25Index.Hit> hits) {
+        return hits.stream().map(Bm25Index.Hit::key).toList();
+    }
+}
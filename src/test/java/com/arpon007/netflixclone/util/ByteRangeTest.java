@@ -0,0 +1,50 @@
+package com.arpon007.netflixclone.util;
+
+import com.arpon007.netflixclone.exception.RangeNotSatisfiableException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ByteRangeTest {
+
+    @Test
+    void parsesClosedOpenAndSuffixRanges() {
+        assertEquals(List.of(new ByteRange(0, 99)), ByteRange.parse("bytes=0-99", 1000, 16));
+        assertEquals(List.of(new ByteRange(500, 999)), ByteRange.parse("bytes=500-", 1000, 16));
+        assertEquals(List.of(new ByteRange(800, 999)), ByteRange.parse("bytes=-200", 1000, 16));
+        assertEquals(List.of(new ByteRange(0, 999)), ByteRange.parse("bytes=-5000", 1000, 16));
+        assertEquals(List.of(new ByteRange(900, 999)), ByteRange.parse("bytes=900-5000", 1000, 16));
+    }
+
+    @Test
+    void coalescesOverlappingMultiRanges() {
+        assertEquals(List.of(new ByteRange(0, 20), new ByteRange(50, 59)),
+                ByteRange.parse("bytes=50-59, 0-10, 5-20", 1000, 16));
+    }
+
+    @Test
+    void ignoresMalformedHeaders() {
+        assertTrue(ByteRange.parse(null, 1000, 16).isEmpty());
+        assertTrue(ByteRange.parse("items=0-1", 1000, 16).isEmpty());
+        assertTrue(ByteRange.parse("bytes=abc-", 1000, 16).isEmpty());
+        assertTrue(ByteRange.parse("bytes=10-5", 1000, 16).isEmpty());
+    }
+
+    @Test
+    void rejectsUnsatisfiableRanges() {
+        RangeNotSatisfiableException ex = assertThrows(RangeNotSatisfiableException.class,
+                () -> ByteRange.parse("bytes=1000-", 1000, 16));
+        assertEquals(1000, ex.getResourceLength());
+        assertThrows(RangeNotSatisfiableException.class, () -> ByteRange.parse("bytes=-0", 1000, 16));
+        assertThrows(RangeNotSatisfiableException.class, () -> ByteRange.parse("bytes=0-1,5-6,9-10", 1000, 2));
+    }
+
+    @Test
+    void capsRangeToChunkCeiling() {
+        assertEquals(new ByteRange(100, 199), new ByteRange(100, 10_000).capTo(100));
+    }
+}
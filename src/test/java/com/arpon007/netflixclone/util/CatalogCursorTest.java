@@ -0,0 +1,41 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogCursorTest {
+
+    @Test
+    void roundTripsCreatedAtAndId() {
+        CatalogCursor cursor = new CatalogCursor(Instant.ofEpochSecond(1_700_000_000L, 123_456_789), 42);
+        assertEquals(cursor, CatalogCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void encodesAsUnpaddedBase64Url() {
+        String encoded = new CatalogCursor(Instant.ofEpochSecond(1, 0), 7).encode();
+        assertFalse(encoded.contains("="));
+        assertFalse(encoded.contains("+") || encoded.contains("/"));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.decode(encode("1:2")));
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.decode(encode("a:0:1")));
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.decode(encode("1:0:1:2")));
+        // Outside the range of Instant
+        assertThrows(IllegalArgumentException.class, () -> CatalogCursor.decode(encode(Long.MAX_VALUE + ":0:1")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+}
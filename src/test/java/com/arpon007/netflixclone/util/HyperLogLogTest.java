@@ -0,0 +1,138 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    @Test
+    void staysSparseUntilTheDenseArrayIsSmaller() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertTrue(sketch.isSparse());
+        assertEquals(0, sketch.estimate());
+        addRange(sketch, 0, 500);
+        assertTrue(sketch.isSparse());
+        addRange(sketch, 500, 5_000);
+        assertFalse(sketch.isSparse());
+    }
+
+    @Test
+    void sizeFollowsTheRepresentation() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertEquals(16, sketch.sizeInBytes());
+        addRange(sketch, 0, 100);
+        assertTrue(sketch.sizeInBytes() >= 4 * 100 && sketch.sizeInBytes() < 4096);
+        addRange(sketch, 100, 5_000);
+        assertEquals(4096, sketch.sizeInBytes());
+    }
+
+    @Test
+    void countsRepeatsOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+        assertTrue(sketch.add(42));
+        assertFalse(sketch.add(42));
+        assertEquals(1, sketch.estimate());
+    }
+
+    @Test
+    void estimatesWithinFourStandardErrors() {
+        // 1.04 / sqrt(4096) is about 1.6 %
+        for (int n : new int[]{100, 1_000, 10_000, 100_000, 1_000_000}) {
+            HyperLogLog sketch = new HyperLogLog();
+            addRange(sketch, 0, n);
+            double error = Math.abs(sketch.estimate() - n) / (double) n;
+            assertTrue(error < 0.065, "n=" + n + " error=" + error);
+        }
+    }
+
+    @Test
+    void sparseRoundTripKeepsEveryRegister() {
+        HyperLogLog sketch = new HyperLogLog();
+        addRange(sketch, 0, 300);
+        byte[] bytes = sketch.toBytes();
+        assertTrue(bytes.length < 4096);
+        HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+        assertTrue(copy.isSparse());
+        assertArrayEquals(bytes, copy.toBytes());
+        assertEquals(sketch.estimate(), copy.estimate());
+    }
+
+    @Test
+    void denseRoundTripKeepsEveryRegister() {
+        HyperLogLog sketch = new HyperLogLog();
+        addRange(sketch, 0, 50_000);
+        byte[] bytes = sketch.toBytes();
+        assertEquals(1 + 4096, bytes.length);
+        HyperLogLog copy = HyperLogLog.fromBytes(bytes);
+        assertFalse(copy.isSparse());
+        assertArrayEquals(bytes, copy.toBytes());
+        assertEquals(sketch.estimate(), copy.estimate());
+    }
+
+    @Test
+    void estimateDoesNotDependOnTheRepresentation() {
+        HyperLogLog sparse = new HyperLogLog();
+        addRange(sparse, 0, 700);
+        // An all-zero dense encoding: header byte 0 followed by 4096 zero registers
+        HyperLogLog dense = HyperLogLog.fromBytes(new byte[1 + 4096]);
+        dense.merge(sparse);
+        assertTrue(sparse.isSparse());
+        assertFalse(dense.isSparse());
+        assertEquals(sparse.estimate(), dense.estimate());
+        assertArrayEquals(sparse.toBytes(), dense.toBytes());
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog monday = new HyperLogLog();
+        HyperLogLog tuesday = new HyperLogLog();
+        HyperLogLog both = new HyperLogLog();
+        addRange(monday, 0, 30_000);
+        addRange(tuesday, 20_000, 50_000);
+        addRange(both, 0, 50_000);
+        monday.merge(tuesday);
+        assertEquals(both.estimate(), monday.estimate());
+        assertArrayEquals(both.toBytes(), monday.toBytes());
+    }
+
+    @Test
+    void mergesSparseIntoSparseAndDenseIntoSparse() {
+        HyperLogLog small = new HyperLogLog();
+        HyperLogLog other = new HyperLogLog();
+        addRange(small, 0, 100);
+        addRange(other, 100, 200);
+        small.merge(other);
+        assertTrue(small.isSparse());
+        HyperLogLog expected = new HyperLogLog();
+        addRange(expected, 0, 200);
+        assertArrayEquals(expected.toBytes(), small.toBytes());
+
+        HyperLogLog large = new HyperLogLog();
+        addRange(large, 200, 20_000);
+        small.merge(large);
+        assertFalse(small.isSparse());
+        addRange(expected, 200, 20_000);
+        assertEquals(expected.estimate(), small.estimate());
+    }
+
+    @Test
+    void rejectsCorruptBytes() {
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{0, 1, 2}));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{1, 0, 1}));
+        // Register index past 4095
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{1, 0x10, 0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> HyperLogLog.fromBytes(new byte[]{7}));
+        assertEquals(0, HyperLogLog.fromBytes(null).estimate());
+    }
+
+    private static void addRange(HyperLogLog sketch, long from, long to) {
+        for (long item = from; item < to; item++) {
+            sketch.add(item);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdBitmapTest {
+
+    @Test
+    void addsContainsAndRemovesAcrossChunks() {
+        IdBitmap bitmap = new IdBitmap();
+        assertTrue(bitmap.isEmpty());
+        assertTrue(bitmap.add(7));
+        assertTrue(bitmap.add(65_536 + 7));
+        assertTrue(bitmap.add(1L << 40));
+        assertFalse(bitmap.add(7));
+        assertEquals(3, bitmap.cardinality());
+        assertTrue(bitmap.contains(65_543));
+        assertFalse(bitmap.contains(8));
+        assertFalse(bitmap.contains(-1));
+
+        assertTrue(bitmap.remove(7));
+        assertFalse(bitmap.remove(7));
+        assertFalse(bitmap.contains(7));
+        assertTrue(bitmap.remove(65_543));
+        assertTrue(bitmap.remove(1L << 40));
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void rejectsNegativeIds() {
+        assertThrows(IllegalArgumentException.class, () -> new IdBitmap().add(-1));
+        assertFalse(new IdBitmap().remove(-1));
+    }
+
+    @Test
+    void switchesToABitsetWhenDenseAndBackWhenSparse() {
+        IdBitmap bitmap = new IdBitmap();
+        for (long id = 0; id < 4096; id++) {
+            bitmap.add(id * 2);
+        }
+        bitmap.add(8193);
+        assertEquals(4097, bitmap.cardinality());
+        assertTrue(bitmap.contains(8193));
+        assertTrue(bitmap.contains(8190));
+        assertFalse(bitmap.contains(8191));
+
+        bitmap.remove(8193);
+        assertEquals(4096, bitmap.cardinality());
+        for (long id = 0; id < 8192; id++) {
+            assertEquals(id % 2 == 0, bitmap.contains(id));
+        }
+    }
+
+    @Test
+    void aFullChunkCostsOneBitset() {
+        IdBitmap bitmap = new IdBitmap();
+        for (long id = 0; id < 65_536; id++) {
+            bitmap.add(id);
+        }
+        // Key, cardinality and reference plus 1024 words
+        assertEquals(20 + 8 * 1024, bitmap.sizeInBytes());
+        assertEquals(65_536, bitmap.cardinality());
+    }
+
+    @Test
+    void agreesWithASortedSetUnderRandomUpdates() {
+        IdBitmap bitmap = new IdBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 50_000; i++) {
+            // Two chunks, dense enough to cross the array/bitset threshold both ways
+            long id = random.nextInt(12_000) + (random.nextBoolean() ? 0 : 65_536);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(id), bitmap.remove(id));
+            } else {
+                assertEquals(expected.add(id), bitmap.add(id));
+            }
+        }
+        assertEquals(expected.size(), bitmap.cardinality());
+        for (long id = 0; id < 80_000; id++) {
+            assertEquals(expected.contains(id), bitmap.contains(id));
+        }
+    }
+
+    @Test
+    void contentHashDependsOnlyOnTheIds() {
+        IdBitmap forward = IdBitmap.of(List.of(1L, 2L, 70_000L));
+        IdBitmap reverse = IdBitmap.of(List.of(70_000L, 2L, 1L));
+        assertEquals(forward.contentHash(), reverse.contentHash());
+        reverse.add(3);
+        assertNotEquals(forward.contentHash(), reverse.contentHash());
+        reverse.remove(3);
+        assertEquals(forward.contentHash(), reverse.contentHash());
+
+        IdBitmap dense = new IdBitmap();
+        IdBitmap sparse = new IdBitmap();
+        for (long id = 0; id < 5000; id++) {
+            dense.add(id);
+            sparse.add(id);
+        }
+        dense.add(5000);
+        dense.remove(5000);
+        assertEquals(sparse.contentHash(), dense.contentHash());
+    }
+}
@@ -0,0 +1,236 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class Mp4FaststartTest {
+
+    private static final byte[] FTYP = box("ftyp", ascii("isom"), new byte[4], ascii("isommp41"));
+    // Two chunks with recognisable content
+    private static final byte[] CHUNK_A = ascii("chunk-a-samples!");
+    private static final byte[] CHUNK_B = ascii("chunk-b-samples?");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void movesMoovInFrontOfMdatAndShiftsStcoOffsets() throws IOException {
+        byte[] free = box("free", new byte[10]);
+        byte[] mdat = box("mdat", CHUNK_A, CHUNK_B);
+        long mdatBody = FTYP.length + free.length + 8;
+        byte[] moov = moov(stco(mdatBody, mdatBody + CHUNK_A.length));
+        Path file = write(FTYP, free, mdat, moov);
+
+        List<Mp4Faststart.Box> before = scan(file);
+        assertEquals("ftyp,free,mdat,moov", types(before));
+        assertTrue(Mp4Faststart.needsRelocation(before));
+
+        List<Mp4Faststart.Box> after = Mp4Faststart.relocateMoov(file, before);
+        assertEquals("ftyp,moov,free,mdat", types(after));
+        assertFalse(Mp4Faststart.needsRelocation(after));
+        assertEquals(Files.size(file), before.getLast().end());
+        assertChunksAt(file, readOffsets(file, after, "stco"));
+    }
+
+    @Test
+    void shiftsCo64Offsets() throws IOException {
+        byte[] mdat = box("mdat", CHUNK_A, CHUNK_B);
+        long mdatBody = FTYP.length + 8;
+        Path file = write(FTYP, mdat, moov(co64(mdatBody, mdatBody + CHUNK_A.length)));
+
+        List<Mp4Faststart.Box> after = Mp4Faststart.relocateMoov(file, scan(file));
+        assertEquals("ftyp,moov,mdat", types(after));
+        assertChunksAt(file, readOffsets(file, after, "co64"));
+    }
+
+    @Test
+    void leavesOffsetsOutsideTheMovedRegionAlone() throws IOException {
+        // An offset into the ftyp box does not point at media data that moves
+        byte[] mdat = box("mdat", CHUNK_A);
+        Path file = write(FTYP, mdat, moov(stco(4, FTYP.length + 8)));
+        List<Mp4Faststart.Box> after = Mp4Faststart.relocateMoov(file, scan(file));
+        long[] offsets = readOffsets(file, after, "stco");
+        assertEquals(4, offsets[0]);
+        assertChunksAt(file, new long[]{offsets[1]});
+    }
+
+    @Test
+    void readsLargeSizeAndToEndOfFileBoxes() throws IOException {
+        // mdat with a 64-bit size header, then a moov whose size field is 0 (extends to end of file)
+        byte[] mdat = largeBox("mdat", CHUNK_A, CHUNK_B);
+        byte[] moov = moov(stco(FTYP.length + 16, FTYP.length + 16 + CHUNK_A.length));
+        ByteBuffer.wrap(moov).putInt(0, 0);
+        Path file = write(FTYP, mdat, moov);
+
+        List<Mp4Faststart.Box> before = scan(file);
+        assertEquals("ftyp,mdat,moov", types(before));
+        assertEquals(16, Mp4Faststart.find(before, "mdat").headerSize());
+        assertEquals(moov.length, Mp4Faststart.find(before, "moov").size());
+
+        List<Mp4Faststart.Box> after = Mp4Faststart.relocateMoov(file, before);
+        assertEquals("ftyp,moov,mdat", types(after));
+        assertChunksAt(file, readOffsets(file, after, "stco"));
+    }
+
+    @Test
+    void needsNoRelocationWhenMoovIsFirstOrMissing() throws IOException {
+        byte[] mdat = box("mdat", CHUNK_A);
+        assertFalse(Mp4Faststart.needsRelocation(scan(write(FTYP, moov(stco(0)), mdat))));
+        assertFalse(Mp4Faststart.needsRelocation(scan(write(FTYP, mdat))));
+    }
+
+    @Test
+    void treatsNonMp4FilesAsEmptyLayouts() throws IOException {
+        assertTrue(scan(write(ascii("just some text, not a video at all"))).isEmpty());
+        // Starts with a valid box that is not ftyp
+        assertTrue(scan(write(box("mdat", CHUNK_A))).isEmpty());
+        // First box claims more bytes than the file has
+        byte[] truncated = Arrays.copyOf(FTYP, FTYP.length - 4);
+        assertTrue(scan(write(truncated)).isEmpty());
+        assertTrue(scan(write(new byte[3])).isEmpty());
+    }
+
+    @Test
+    void rejectsTruncatedAndUndersizedBoxes() throws IOException {
+        byte[] mdat = box("mdat", CHUNK_A, CHUNK_B);
+        byte[] cut = Arrays.copyOf(mdat, mdat.length - 5);
+        assertThrows(IOException.class, () -> scan(write(FTYP, cut)));
+
+        byte[] undersized = box("free", new byte[8]);
+        ByteBuffer.wrap(undersized).putInt(0, 4);
+        assertThrows(IOException.class, () -> scan(write(FTYP, undersized)));
+
+        // Fewer than 8 trailing bytes cannot hold a box header and are ignored
+        assertEquals("ftyp,mdat", types(scan(write(FTYP, mdat, new byte[5]))));
+    }
+
+    @Test
+    void rejectsCorruptTablesInsideMoovWithoutTouchingTheFile() throws IOException {
+        byte[] mdat = box("mdat", CHUNK_A);
+        // stco too short to hold its entry count
+        byte[] moov = box("moov", box("trak", box("mdia", box("minf", box("stbl", box("stco", new byte[2]))))));
+        Path file = write(FTYP, mdat, moov);
+        byte[] original = Files.readAllBytes(file);
+        List<Mp4Faststart.Box> boxes = scan(file);
+
+        assertThrows(IOException.class, () -> Mp4Faststart.relocateMoov(file, boxes));
+        assertArrayEquals(original, Files.readAllBytes(file));
+        assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".faststart")));
+    }
+
+    @Test
+    void rejectsAChildBoxOverrunningItsParent() throws IOException {
+        byte[] stco = stco(FTYP.length + 8);
+        ByteBuffer.wrap(stco).putInt(0, stco.length + 100);
+        Path file = write(FTYP, box("mdat", CHUNK_A), moov(stco));
+        List<Mp4Faststart.Box> boxes = scan(file);
+        assertThrows(IOException.class, () -> Mp4Faststart.relocateMoov(file, boxes));
+    }
+
+    @Test
+    void describesALayout() throws IOException {
+        Path file = write(FTYP, box("mdat", CHUNK_A));
+        assertEquals("ftyp@0+24,mdat@24+24", Mp4Faststart.describe(scan(file)));
+    }
+
+    private void assertChunksAt(Path file, long[] offsets) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        byte[][] chunks = {CHUNK_A, CHUNK_B};
+        for (int i = 0; i < offsets.length; i++) {
+            int at = (int) offsets[i];
+            assertArrayEquals(chunks[i], Arrays.copyOfRange(bytes, at, at + chunks[i].length), "chunk " + i);
+        }
+    }
+
+    // Offsets of the single stco/co64 table, found by walking the fixed moov/trak/mdia/minf/stbl chain
+    private static long[] readOffsets(Path file, List<Mp4Faststart.Box> boxes, String table) throws IOException {
+        Mp4Faststart.Box moov = Mp4Faststart.find(boxes, "moov");
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        int position = (int) moov.offset() + 8 * 6;
+        assertEquals(table, new String(buf.array(), position - 4, 4, StandardCharsets.ISO_8859_1));
+        int count = buf.getInt(position + 4);
+        long[] offsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            offsets[i] = "stco".equals(table)
+                    ? Integer.toUnsignedLong(buf.getInt(position + 8 + 4 * i))
+                    : buf.getLong(position + 8 + 8 * i);
+        }
+        return offsets;
+    }
+
+    private List<Mp4Faststart.Box> scan(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            return Mp4Faststart.scan(channel);
+        }
+    }
+
+    private Path write(byte[]... parts) throws IOException {
+        Path file = Files.createTempFile(dir, "video", ".mp4");
+        Files.write(file, concat(parts));
+        return file;
+    }
+
+    private static String types(List<Mp4Faststart.Box> boxes) {
+        return String.join(",", boxes.stream().map(Mp4Faststart.Box::type).toList());
+    }
+
+    private static byte[] moov(byte[] table) {
+        return box("moov", box("trak", box("mdia", box("minf", box("stbl", table)))));
+    }
+
+    private static byte[] stco(long... offsets) {
+        ByteBuffer body = ByteBuffer.allocate(8 + 4 * offsets.length);
+        body.putInt(0).putInt(offsets.length);
+        for (long offset : offsets) {
+            body.putInt((int) offset);
+        }
+        return box("stco", body.array());
+    }
+
+    private static byte[] co64(long... offsets) {
+        ByteBuffer body = ByteBuffer.allocate(8 + 8 * offsets.length);
+        body.putInt(0).putInt(offsets.length);
+        for (long offset : offsets) {
+            body.putLong(offset);
+        }
+        return box("co64", body.array());
+    }
+
+    private static byte[] box(String type, byte[]... content) {
+        byte[] body = concat(content);
+        return ByteBuffer.allocate(8 + body.length).putInt(8 + body.length).put(ascii(type)).put(body).array();
+    }
+
+    private static byte[] largeBox(String type, byte[]... content) {
+        byte[] body = concat(content);
+        return ByteBuffer.allocate(16 + body.length).putInt(1).put(ascii(type)).putLong(16 + body.length).put(body).array();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.writeBytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.US_ASCII);
+    }
+}
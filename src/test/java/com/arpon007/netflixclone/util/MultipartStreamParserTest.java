@@ -0,0 +1,128 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultipartStreamParserTest {
+
+    private static final String BOUNDARY = "----boundary7MA4YWxk";
+
+    @Test
+    void readsFieldsAndFileParts() throws IOException {
+        byte[] file = new byte[300_000];
+        new Random(3).nextBytes(file);
+        byte[] body = body(
+                part("form-data; name=\"title\"", null, "Arrival".getBytes(StandardCharsets.UTF_8)),
+                part("form-data; name=\"file\"; filename=\"clip.mp4\"", "video/mp4", file));
+
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(body), BOUNDARY);
+        MultipartStreamParser.Part title = parser.next();
+        assertEquals("title", title.name());
+        assertFalse(title.isFile());
+        assertEquals("Arrival", new String(title.body().readAllBytes(), StandardCharsets.UTF_8));
+
+        MultipartStreamParser.Part video = parser.next();
+        assertEquals("file", video.name());
+        assertEquals("clip.mp4", video.filename());
+        assertEquals("video/mp4", video.contentType());
+        assertTrue(video.isFile());
+        assertArrayEquals(file, video.body().readAllBytes());
+
+        assertNull(parser.next());
+        assertNull(parser.next());
+    }
+
+    @Test
+    void findsDelimitersSplitAcrossReads() throws IOException {
+        // Bytes that almost spell the delimiter, delivered a few bytes at a time
+        byte[] tricky = ("a\r\n--" + BOUNDARY.substring(0, 10) + "b\r\n-").getBytes(StandardCharsets.ISO_8859_1);
+        byte[] body = body(part("form-data; name=\"file\"; filename=\"x\"", null, tricky));
+        MultipartStreamParser parser = new MultipartStreamParser(new Trickle(new ByteArrayInputStream(body), 3), BOUNDARY);
+        assertArrayEquals(tricky, parser.next().body().readAllBytes());
+        assertNull(parser.next());
+    }
+
+    @Test
+    void skipsThePreambleAndUnreadParts() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write("This is the preamble.\r\n".getBytes(StandardCharsets.US_ASCII));
+        out.write(body(
+                part("form-data; name=\"skipped\"", null, new byte[100_000]),
+                part("form-data; name=\"kept\"", null, "yes".getBytes(StandardCharsets.US_ASCII))));
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(out.toByteArray()), BOUNDARY);
+        assertEquals("skipped", parser.next().name());
+        MultipartStreamParser.Part kept = parser.next();
+        assertEquals("kept", kept.name());
+        assertEquals("yes", new String(kept.body().readAllBytes(), StandardCharsets.US_ASCII));
+        assertNull(parser.next());
+    }
+
+    @Test
+    void failsOnATruncatedBody() throws IOException {
+        byte[] body = body(part("form-data; name=\"file\"; filename=\"x\"", null, new byte[1000]));
+        byte[] truncated = new byte[body.length - 200];
+        System.arraycopy(body, 0, truncated, 0, truncated.length);
+        MultipartStreamParser parser = new MultipartStreamParser(new ByteArrayInputStream(truncated), BOUNDARY);
+        InputStream part = parser.next().body();
+        assertThrows(EOFException.class, part::readAllBytes);
+    }
+
+    @Test
+    void rejectsOversizedHeaders() {
+        String header = "--" + BOUNDARY + "\r\nX-Long: " + "a".repeat(70_000) + "\r\n\r\n";
+        MultipartStreamParser parser = new MultipartStreamParser(
+                new ByteArrayInputStream(header.getBytes(StandardCharsets.US_ASCII)), BOUNDARY);
+        assertThrows(IOException.class, parser::next);
+    }
+
+    private static byte[] part(String disposition, String contentType, byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("--" + BOUNDARY + "\r\nContent-Disposition: " + disposition + "\r\n").getBytes(StandardCharsets.UTF_8));
+        if (contentType != null) {
+            out.write(("Content-Type: " + contentType + "\r\n").getBytes(StandardCharsets.UTF_8));
+        }
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        out.write(content);
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+        return out.toByteArray();
+    }
+
+    private static byte[] body(byte[]... parts) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part);
+        }
+        out.write(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return out.toByteArray();
+    }
+
+    // Returns at most chunk bytes per read, like a slow client
+    private static final class Trickle extends FilterInputStream {
+        private final int chunk;
+
+        Trickle(InputStream in, int chunk) {
+            super(in);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, chunk));
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PosterVariantsTest {
+
+    @Test
+    void snapsUpToTheNextVariantWidth() {
+        assertEquals(320, PosterVariants.snapWidth(1));
+        assertEquals(320, PosterVariants.snapWidth(320));
+        assertEquals(640, PosterVariants.snapWidth(321));
+        assertEquals(1280, PosterVariants.snapWidth(1280));
+        assertNull(PosterVariants.snapWidth(1281));
+    }
+
+    @Test
+    void buildsOneUrlPerWidth() {
+        Map<Integer, String> urls = PosterVariants.urls("http://host/api/files/image/p.jpg");
+        assertEquals(PosterVariants.WIDTHS, urls.keySet().stream().toList());
+        assertEquals("http://host/api/files/image/p.jpg?w=640", urls.get(640));
+        assertNull(PosterVariants.urls(null));
+    }
+}
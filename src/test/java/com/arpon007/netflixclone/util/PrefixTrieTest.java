@@ -0,0 +1,75 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixTrieTest {
+
+    private static final List<PrefixTrie.Completion> TITLES = List.of(
+            new PrefixTrie.Completion(1, "Stranger Things", 900),
+            new PrefixTrie.Completion(2, "The Crown", 500),
+            new PrefixTrie.Completion(3, "Stranger Tides", 100),
+            new PrefixTrie.Completion(4, "Strange Planet", 300),
+            new PrefixTrie.Completion(5, "Amélie", 200));
+
+    @Test
+    void completesHeaviestFirst() {
+        PrefixTrie trie = PrefixTrie.build(TITLES, 10);
+        assertEquals(List.of(1L, 4L, 3L), ids(trie.complete("str", 10)));
+        assertEquals(List.of(1L, 3L), ids(trie.complete("stranger", 10)));
+        assertEquals(List.of(1L, 4L), ids(trie.complete("Str", 2)));
+    }
+
+    @Test
+    void matchesTheStartOfEveryWord() {
+        PrefixTrie trie = PrefixTrie.build(TITLES, 10);
+        assertEquals(List.of(1L), ids(trie.complete("things", 10)));
+        assertEquals(List.of(1L, 2L, 3L), ids(trie.complete("t", 10)));
+        // Not from the middle of a word
+        assertTrue(trie.complete("ranger", 10).isEmpty());
+    }
+
+    @Test
+    void listsAnEntryOncePerNode() {
+        PrefixTrie trie = PrefixTrie.build(List.of(new PrefixTrie.Completion(1, "Tom and Tim", 1)), 10);
+        assertEquals(List.of(1L), ids(trie.complete("t", 10)));
+    }
+
+    @Test
+    void keepsOnlyTheTopKPerNode() {
+        PrefixTrie trie = PrefixTrie.build(TITLES, 2);
+        assertEquals(List.of(1L, 4L), ids(trie.complete("s", 10)));
+    }
+
+    @Test
+    void foldsCaseAccentsAndPunctuation() {
+        PrefixTrie trie = PrefixTrie.build(TITLES, 10);
+        assertEquals(List.of(5L), ids(trie.complete("AME", 10)));
+        assertEquals(List.of(1L), ids(trie.complete("  stranger   th", 10)));
+        assertEquals("amelie s world", PrefixTrie.normalize("Amélie's  World!"));
+        assertEquals("", PrefixTrie.normalize(null));
+    }
+
+    @Test
+    void returnsNothingForUnknownOrEmptyPrefixes() {
+        PrefixTrie trie = PrefixTrie.build(TITLES, 10);
+        assertTrue(trie.complete("xyz", 10).isEmpty());
+        assertTrue(trie.complete("  ", 10).isEmpty());
+        assertTrue(PrefixTrie.empty().complete("a", 10).isEmpty());
+        assertEquals(0, PrefixTrie.empty().size());
+    }
+
+    @Test
+    void keepsTheOriginalTextAndWeight() {
+        PrefixTrie.Completion completion = PrefixTrie.build(TITLES, 10).complete("crown", 1).get(0);
+        assertEquals(new PrefixTrie.Completion(2, "The Crown", 500), completion);
+    }
+
+    private static List<Long> ids(List<PrefixTrie.Completion> completions) {
+        return completions.stream().map(PrefixTrie.Completion::id).toList();
+    }
+}
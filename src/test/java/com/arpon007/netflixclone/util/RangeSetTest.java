@@ -0,0 +1,68 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RangeSetTest {
+
+    @Test
+    void mergesOverlappingAndAdjacentIntervals() {
+        RangeSet set = new RangeSet();
+        set.add(0, 10);
+        set.add(20, 30);
+        set.add(10, 15);
+        assertEquals(List.of("0-14", "20-29"), set.toList());
+        set.add(12, 25);
+        assertEquals(List.of("0-29"), set.toList());
+        assertEquals(30, set.coveredBytes());
+    }
+
+    @Test
+    void swallowsEveryIntervalInsideANewOne() {
+        RangeSet set = new RangeSet();
+        set.add(10, 20);
+        set.add(30, 40);
+        set.add(50, 60);
+        set.add(5, 55);
+        assertEquals("5-59", set.toString());
+    }
+
+    @Test
+    void ignoresEmptyIntervals() {
+        RangeSet set = new RangeSet();
+        set.add(5, 5);
+        set.add(9, 3);
+        assertEquals(0, set.coveredBytes());
+        assertEquals("", set.toString());
+    }
+
+    @Test
+    void coversOnlyFullyContainedIntervals() {
+        RangeSet set = new RangeSet();
+        set.add(0, 100);
+        set.add(200, 300);
+        assertTrue(set.covers(0, 100));
+        assertTrue(set.covers(250, 300));
+        assertFalse(set.covers(50, 150));
+        assertFalse(set.covers(100, 200));
+        assertFalse(set.covers(199, 201));
+    }
+
+    @Test
+    void roundTripsThroughItsStringForm() {
+        RangeSet set = new RangeSet();
+        set.add(0, 1_048_576);
+        set.add(2_097_152, 3_145_728);
+        assertEquals("0-1048575,2097152-3145727", set.toString());
+        RangeSet parsed = RangeSet.parse(set.toString());
+        assertEquals(set.toList(), parsed.toList());
+        assertEquals(set.coveredBytes(), parsed.coveredBytes());
+        assertEquals(0, RangeSet.parse(null).coveredBytes());
+        assertEquals(0, RangeSet.parse(" ").coveredBytes());
+    }
+}
@@ -0,0 +1,38 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScalableBloomFilterTest {
+
+    @Test
+    void growsInsteadOfSaturating() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        assertEquals(1, filter.generationCount());
+        for (long i = 0; i < 50_000; i++) {
+            filter.put(i, 3);
+        }
+        assertTrue(filter.generationCount() > 1);
+        for (long i = 0; i < 50_000; i++) {
+            assertTrue(filter.mightContain(i, 3));
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesBoundedAfterGrowing() {
+        // 100 times the initial capacity: a fixed filter of this size would answer true for nearly everything
+        ScalableBloomFilter filter = new ScalableBloomFilter(1_000, 0.01);
+        for (long i = 0; i < 100_000; i++) {
+            filter.put(i, 9);
+        }
+        int falsePositives = 0;
+        for (long i = 100_000; i < 200_000; i++) {
+            if (filter.mightContain(i, 9)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_500, "false positives: " + falsePositives);
+    }
+}
@@ -0,0 +1,144 @@
+package com.arpon007.netflixclone.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and accuracy of the trending sketch with TrendingService's settings (168
+ * hourly buckets, width 2048, depth 4, 256 candidates per hour) under a Zipf-distributed
+ * stream of views over 100k videos spread across a week.
+ * <ul>
+ *     <li>add: recording one view</li>
+ *     <li>top24h / top7d: recomputing a window ranking</li>
+ *     <li>scoreCategory: ranking one category of 5 000 videos</li>
+ * </ul>
+ * Accuracy against exact counts (recall of the last day's top 20 and their overcount) is
+ * printed once per trial; compare widths with -p width=512,1024,2048.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrendingSketchBenchmark {
+
+    private static final long HOUR = 3_600_000L;
+    private static final int VIDEOS = 100_000;
+    private static final int EVENTS = 2_000_000;
+
+    @Param({"2048"})
+    private int width;
+
+    private TrendingSketch sketch;
+    private long now;
+    private long[] stream;
+    private long[] streamTimes;
+    private int next;
+    private List<Long> category;
+    private Map<Long, Integer> exactLastDay;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(23);
+        double[] cumulative = new double[VIDEOS];
+        double total = 0;
+        for (int i = 0; i < VIDEOS; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        now = 10_000 * HOUR;
+        stream = new long[EVENTS];
+        streamTimes = new long[EVENTS];
+        exactLastDay = new HashMap<>();
+        sketch = new TrendingSketch(168, HOUR, width, 4, 256);
+        for (int i = 0; i < EVENTS; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            // Shuffle ranks so popularity is not ordered by id
+            long id = mix(index >= 0 ? index : -index - 1) % VIDEOS;
+            long time = now - (long) (random.nextDouble() * 168 * HOUR);
+            stream[i] = id;
+            streamTimes[i] = time;
+            sketch.add(id, time);
+            // The 24 hourly buckets ending with the current one
+            if (Math.floorDiv(time, HOUR) > now / HOUR - 24) {
+                exactLastDay.merge(id, 1, Integer::sum);
+            }
+        }
+        category = new ArrayList<>();
+        for (long id = 0; id < VIDEOS; id += VIDEOS / 5_000) {
+            category.add(id);
+        }
+        printAccuracy();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void add() {
+        int i = next++ % EVENTS;
+        sketch.add(stream[i], streamTimes[i]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<TrendingSketch.Scored> top24h() {
+        return sketch.top(24, 6, now);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<TrendingSketch.Scored> top7d() {
+        return sketch.top(168, 24, now);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<TrendingSketch.Scored> scoreCategory() {
+        return sketch.score(category, 24, 6, now);
+    }
+
+    // Recall of the exact top 20 in the sketch's top 20 and their mean relative overcount, last 24 h without decay
+    private void printAccuracy() {
+        // An infinite half-life weighs every bucket equally
+        List<TrendingSketch.Scored> top = sketch.top(24, Double.POSITIVE_INFINITY, now).subList(0, 20);
+        List<Long> exactTop = exactLastDay.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue().reversed())
+                .limit(20).map(Map.Entry::getKey).toList();
+        int found = 0;
+        double overcount = 0;
+        for (TrendingSketch.Scored scored : top) {
+            if (exactTop.contains(scored.id())) {
+                found++;
+            }
+            int exact = exactLastDay.getOrDefault(scored.id(), 0);
+            overcount += (scored.score() - exact) / Math.max(exact, 1);
+        }
+        System.out.printf("width %d: recall of the top 20 %.2f, mean overcount %.3f%%, sketch %d KiB%n",
+                width, found / 20.0, 100 * overcount / 20, sketch.sizeInBytes() / 1024);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        return (z ^ (z >>> 33)) & Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,108 @@
+package com.arpon007.netflixclone.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrendingSketchTest {
+
+    private static final long HOUR = 3_600_000L;
+    private static final long NOW = 1_000 * HOUR;
+
+    @Test
+    void ranksByCountWithinABucket() {
+        TrendingSketch sketch = new TrendingSketch(24, HOUR, 1024, 4, 16);
+        add(sketch, 1, 5, NOW);
+        add(sketch, 2, 50, NOW);
+        add(sketch, 3, 20, NOW);
+        List<TrendingSketch.Scored> top = sketch.top(24, 6, NOW);
+        assertEquals(List.of(2L, 3L, 1L), top.stream().map(TrendingSketch.Scored::id).toList());
+        assertEquals(50, top.get(0).score(), 1e-9);
+    }
+
+    @Test
+    void decaysOlderBuckets() {
+        TrendingSketch sketch = new TrendingSketch(24, HOUR, 1024, 4, 16);
+        add(sketch, 1, 100, NOW - 6 * HOUR);
+        add(sketch, 2, 60, NOW);
+        List<TrendingSketch.Scored> top = sketch.top(24, 6, NOW);
+        assertEquals(2L, top.get(0).id());
+        // Six hours old at a six hour half-life weighs half
+        assertEquals(50, top.get(1).score(), 1e-9);
+    }
+
+    @Test
+    void ignoresBucketsOutsideTheWindowAndTheRing() {
+        TrendingSketch sketch = new TrendingSketch(24, HOUR, 1024, 4, 16);
+        add(sketch, 1, 10, NOW - 3 * HOUR);
+        assertTrue(sketch.top(2, 1, NOW).isEmpty());
+        assertEquals(1, sketch.top(24, 1, NOW).size());
+
+        // A newer event reusing the slot resets it; the older one is then dropped
+        add(sketch, 2, 1, NOW + 21 * HOUR);
+        add(sketch, 1, 1, NOW - 3 * HOUR);
+        assertEquals(List.of(2L), sketch.top(24, 1, NOW + 21 * HOUR).stream().map(TrendingSketch.Scored::id).toList());
+    }
+
+    @Test
+    void scoresIdsThatAreNotCandidates() {
+        // Two candidates per bucket: the light id 9 is never one
+        TrendingSketch sketch = new TrendingSketch(24, HOUR, 1024, 4, 2);
+        add(sketch, 1, 100, NOW);
+        add(sketch, 2, 90, NOW);
+        add(sketch, 9, 3, NOW);
+        assertTrue(sketch.top(24, 6, NOW).stream().noneMatch(s -> s.id() == 9));
+        List<TrendingSketch.Scored> scored = sketch.score(List.of(9L, 10L), 24, 6, NOW);
+        assertEquals(1, scored.size());
+        assertEquals(9L, scored.get(0).id());
+        assertEquals(3, scored.get(0).score(), 1e-9);
+    }
+
+    @Test
+    void neverUndercountsAndFindsTheHeavyHitters() {
+        // Zipf-like stream over 50 000 ids; 1 000 000 events
+        int ids = 50_000;
+        double[] cumulative = new double[ids];
+        double total = 0;
+        for (int i = 0; i < ids; i++) {
+            total += 1.0 / (i + 1);
+            cumulative[i] = total;
+        }
+        TrendingSketch sketch = new TrendingSketch(1, HOUR, 2048, 4, 256);
+        Map<Long, Integer> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int event = 0; event < 1_000_000; event++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+            long id = index >= 0 ? index : -index - 1;
+            exact.merge(id, 1, Integer::sum);
+            sketch.add(id, NOW);
+        }
+
+        List<TrendingSketch.Scored> all = sketch.score(exact.keySet(), 1, 1, NOW);
+        for (TrendingSketch.Scored scored : all) {
+            assertTrue(scored.score() >= exact.get(scored.id()), "undercount for " + scored.id());
+        }
+        // The true top 20 are all among the sketch's top 25
+        List<Long> sketchTop = sketch.top(1, 1, NOW).stream().limit(25).map(TrendingSketch.Scored::id).toList();
+        for (long id = 0; id < 20; id++) {
+            assertTrue(sketchTop.contains(id), "missing heavy hitter " + id);
+        }
+        // e / width of the total, for the heaviest ids where it matters
+        for (TrendingSketch.Scored scored : sketch.top(1, 1, NOW).subList(0, 100)) {
+            assertTrue(scored.score() - exact.get(scored.id()) <= Math.E / 2048 * 1_000_000);
+        }
+    }
+
+    private static void add(TrendingSketch sketch, long id, int times, long timeMillis) {
+        for (int i = 0; i < times; i++) {
+            sketch.add(id, timeMillis);
+        }
+    }
+}